@@ -24,9 +24,12 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.PrintStream;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Command line tool to rename the files in a folder picking the filename to be
@@ -38,9 +41,12 @@ import java.net.URL;
  * Update 24 Jun 2011: Updated to include options for renaming files per different schemes 
  * and a few small bug fixes. 
  * 
+ * Update 18 Oct 2026: Books are looked up concurrently through {@link ISBNLookupPipeline},
+ * with options for the number of threads, the request rate and the webservice URL.
+ * 
  * @author sangupta
  * @since 18 Jun 2011
- * @version 1.1
+ * @version 1.2
  */
 public class ISBNBookRenamer {
 
@@ -55,6 +61,11 @@ public class ISBNBookRenamer {
 	 */
 	private static final String API_URL = "http://isbndb.com/api/books.xml?access_key=" + ISBNDB_API_KEY + "&index1=isbn&value1=";
 
+	/**
+	 * Time to wait for the webservice to connect or answer, in milliseconds
+	 */
+	private static final int TIMEOUT = 30000;
+
 	private static int renamingOption = 0;
 
 	/**
@@ -63,14 +74,39 @@ public class ISBNBookRenamer {
 	 * @param args
 	 */
 	public static void main(String[] args) {
+		// separate the options from the arguments
+		String apiUrl = API_URL;
+		int threads = 1;
+		int rate = 0;
+		List<String> arguments = new ArrayList<String>();
+		for (String arg : args) {
+			if (arg.startsWith("--api=")) {
+				apiUrl = arg.substring("--api=".length());
+			} else if (arg.startsWith("--threads=")) {
+				threads = parsePositive(arg.substring("--threads=".length()));
+				if (threads <= 0) {
+					System.out.println("The number of threads must be a positive number.");
+					return;
+				}
+			} else if (arg.startsWith("--rate=")) {
+				rate = parsePositive(arg.substring("--rate=".length()));
+				if (rate <= 0) {
+					System.out.println("The rate must be a positive number.");
+					return;
+				}
+			} else {
+				arguments.add(arg);
+			}
+		}
+
 		// check for proper usage
-		if (args.length < 1) {
+		if (arguments.size() < 1 || arguments.size() > 2) {
 			usage();
 			return;
 		}
 
-		if (args.length == 2) {
-			renamingOption = args[1].charAt(0) - 48;
+		if (arguments.size() == 2) {
+			renamingOption = arguments.get(1).charAt(0) - 48;
 			if (renamingOption != 1 && renamingOption != 2) {
 				System.out.println("Wrong arguments provided, check usage... exiting!\n");
 				usage();
@@ -80,7 +116,7 @@ public class ISBNBookRenamer {
 
 		// perform sanity checks
 
-		String folderPath = args[0];
+		String folderPath = arguments.get(0);
 		File folder = new File(folderPath);
 
 		if (!folder.exists()) {
@@ -101,37 +137,70 @@ public class ISBNBookRenamer {
 			return;
 		}
 
+		List<File> books = new ArrayList<File>();
 		for (File localFile : files) {
 			if (localFile.isFile()) {
-				renameBook(localFile);
+				books.add(localFile);
 			}
 		}
 
+		ISBNLookupPipeline pipeline = new ISBNLookupPipeline(apiUrl, threads, rate);
+		try {
+			pipeline.renameAll(books);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			System.out.println("Interrupted... exiting!");
+			return;
+		} finally {
+			pipeline.shutdown();
+		}
+
 		System.out.println("\nDone!\n");
 	}
 
+	/**
+	 * Parse a positive number from the command line.
+	 * 
+	 * @param value
+	 * @return the number, or <code>-1</code> if it is not a number
+	 */
+	private static int parsePositive(String value) {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
 	/**
 	 * Displays the usage information on the tool.
 	 */
 	private static void usage() {
 		System.out.println("Usage: ");
-		System.out.println("       $ java -jar ISBNBookRenamer <folder> [renamingOption]");
+		System.out.println("       $ java -jar ISBNBookRenamer [options] <folder> [renamingOption]");
 		System.out.println("              folder: the folder where all books are stored");
 		System.out.println("              renamingOption: an optional integral parameter tht specifies on how to rename the file");
 		System.out.println("                  <not specified/default> : isbn.pdf will be renamed as filename.pdf");
 		System.out.println("                  1 : isbn.pdf will be renamed as filename_isbn.pdf");
 		System.out.println("                  2 : isbn.pdf will be renamed as isbn_filename.pdf");
+		System.out.println("              options:");
+		System.out.println("                  --threads=N : look up to N books at the same time, default 1");
+		System.out.println("                  --rate=N : send at most N requests a second to the webservice");
+		System.out.println("                  --api=URL : the webservice URL the ISBN number is appended to");
 	}
 
 	/**
-	 * Processes the given file and renames the file as per ISBN bookname if
-	 * possible.
+	 * Extracts the ISBN number and the extension from the name of the given
+	 * file.
 	 * 
 	 * @param localFile
+	 * @param out
+	 *            where to print why the file is skipped
+	 * @return the ISBN number and the extension, or <code>null</code> if the
+	 *         file is to be skipped
 	 */
-	private static void renameBook(File localFile) {
+	static String[] splitFileName(File localFile, PrintStream out) {
 		String fileName = localFile.getName();
-		String parentFolder = localFile.getParent();
 
 		// strip off name and extension
 		String name = null, extension = null;
@@ -140,18 +209,33 @@ public class ISBNBookRenamer {
 			name = fileName.substring(0, extensionIndex);
 			extension = fileName.substring(extensionIndex + 1);
 			if (!extension.equalsIgnoreCase("pdf")) {
-				System.out.println("Filename " + fileName + "extension is not PDF... skipping!");
-				return;
+				out.println("Filename " + fileName + "extension is not PDF... skipping!");
+				return null;
 			}
 		}
 
 		if (name != null && name.length() != 10) {
-			System.out.println("Filename " + fileName + " is not 10 characters long... skipping!");
-			return;
+			out.println("Filename " + fileName + " is not 10 characters long... skipping!");
+			return null;
 		}
 
-		// now fetch the ISBN name for the book
-		String bookName = getISBNBookName(name);
+		return new String[] { name, extension };
+	}
+
+	/**
+	 * Renames the given file as per the ISBN bookname fetched for it.
+	 * 
+	 * @param localFile
+	 * @param name
+	 *            the ISBN number of the book
+	 * @param extension
+	 * @param bookName
+	 *            the name fetched, or <code>null</code> if none was found
+	 */
+	static void renameBook(File localFile, String name, String extension, String bookName) {
+		String fileName = localFile.getName();
+		String parentFolder = localFile.getParent();
+
 		if (bookName == null) {
 			System.out.println("Unable to fetch book name for file: " + fileName + "... skipping!");
 			return;
@@ -227,11 +311,15 @@ public class ISBNBookRenamer {
 	/**
 	 * Given the ISBN number, return the bookname as possible.
 	 * 
+	 * @param apiUrl
+	 *            the webservice URL the ISBN number is appended to
 	 * @param name
+	 * @param out
+	 *            where to print the response and any errors
 	 * @return
 	 */
-	private static String getISBNBookName(String name) {
-		String urlToHit = API_URL + name;
+	static String getISBNBookName(String apiUrl, String name, PrintStream out) {
+		String urlToHit = apiUrl + name;
 
 		// hit the webservice
 		HttpURLConnection conn = null;
@@ -240,6 +328,8 @@ public class ISBNBookRenamer {
 		try {
 			conn = (HttpURLConnection) (new URL(urlToHit)).openConnection();
 			conn.setRequestMethod("GET");
+			conn.setConnectTimeout(TIMEOUT);
+			conn.setReadTimeout(TIMEOUT);
 
 			int responseCode = conn.getResponseCode();
 			if (responseCode != HttpURLConnection.HTTP_OK) {
@@ -252,7 +342,7 @@ public class ISBNBookRenamer {
 					tempLine = rd.readLine();
 				}
 
-				System.out.println("Unable to get book name for " + name + " with error: " + response.toString());
+				out.println("Unable to get book name for " + name + " with error: " + response.toString());
 			} else {
 				in = conn.getInputStream();
 				rd = new BufferedReader(new InputStreamReader(in));
@@ -264,11 +354,11 @@ public class ISBNBookRenamer {
 				}
 
 				String xml = response.toString();
-				System.out.println("XML response returned is: " + xml);
+				out.println("XML response returned is: " + xml);
 
 				int titleIndexStart = xml.indexOf("<Title>");
 				if (titleIndexStart == -1) {
-					System.out.println("Unable to get book title via XML response: " + xml);
+					out.println("Unable to get book title via XML response: " + xml);
 					return null;
 				}
 
@@ -277,21 +367,19 @@ public class ISBNBookRenamer {
 				return bookName;
 			}
 		} catch (MalformedURLException e) {
-			System.out.println("Unable to get book name for book " + name);
-			e.printStackTrace();
+			out.println("Unable to get book name for book " + name);
+			e.printStackTrace(out);
 		} catch (IOException e) {
-			System.out.println("Unable to get book name for book " + name);
-			e.printStackTrace();
+			out.println("Unable to get book name for book " + name);
+			e.printStackTrace(out);
 		} finally {
-			if (conn != null) {
-				conn.disconnect();
-			}
-
+			// the connection is not disconnected: closing the fully read
+			// stream lets the next lookup reuse it
 			if (rd != null) {
 				try {
 					rd.close();
 				} catch (IOException e) {
-					e.printStackTrace();
+					e.printStackTrace(out);
 				}
 			}
 
@@ -299,7 +387,7 @@ public class ISBNBookRenamer {
 				try {
 					in.close();
 				} catch (IOException e) {
-					e.printStackTrace();
+					e.printStackTrace(out);
 				}
 			}
 		}
@@ -0,0 +1,266 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ * 
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * 
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.sangupta.isbntools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up the names of many books at the same time and renames the files as
+ * the names come in. Lookups run on a fixed number of threads, and the
+ * requests sent to each host are spaced out so that no more than the given
+ * number go out in a second. Files are renamed on the calling thread in the
+ * order they were given, each one as soon as its own lookup and those of all
+ * files before it are done. Whatever is printed about a file, whether it is
+ * skipped, the response of the webservice or a failed lookup, is held back
+ * and printed with its rename, so the output reads the same as a serial run.
+ * 
+ * The webservice URL is given to the pipeline, so it may be pointed at a
+ * local server for testing.
+ * 
+ * @author sangupta
+ * @since 18 Oct 2026
+ * @version 1.0
+ */
+public class ISBNLookupPipeline {
+
+	/**
+	 * The webservice URL the ISBN number is appended to
+	 */
+	private final String apiUrl;
+
+	/**
+	 * The threads the lookups run on
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Spaces out the requests sent to each host
+	 */
+	private final RateLimiter rateLimiter;
+
+	/**
+	 * Create a pipeline.
+	 * 
+	 * @param apiUrl
+	 *            the webservice URL the ISBN number is appended to
+	 * @param concurrency
+	 *            the number of lookups running at the same time
+	 * @param requestsPerSecond
+	 *            the most requests sent to a host in a second, or zero for
+	 *            no limit
+	 */
+	public ISBNLookupPipeline(String apiUrl, int concurrency, int requestsPerSecond) {
+		if (apiUrl == null) {
+			throw new IllegalArgumentException("API URL cannot be null.");
+		}
+
+		if (concurrency <= 0) {
+			throw new IllegalArgumentException("Concurrency must be positive.");
+		}
+
+		if (requestsPerSecond < 0) {
+			throw new IllegalArgumentException("Requests per second cannot be negative.");
+		}
+
+		this.apiUrl = apiUrl;
+		this.rateLimiter = new RateLimiter(requestsPerSecond);
+		this.executor = Executors.newFixedThreadPool(concurrency, new ThreadFactory() {
+
+			private int count = 0;
+
+			@Override
+			public synchronized Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "isbn-lookup-" + (++count));
+				thread.setDaemon(true);
+				return thread;
+			}
+
+		});
+	}
+
+	/**
+	 * Look up the names of the given books and rename the files.
+	 * 
+	 * @param files
+	 *            the files to rename
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for a lookup
+	 */
+	public void renameAll(List<File> files) throws InterruptedException {
+		final String host = getHost(this.apiUrl);
+
+		// start all lookups, skipping files that are not named by ISBN
+		List<Lookup> lookups = new ArrayList<Lookup>(files.size());
+		for (File file : files) {
+			final Lookup lookup = new Lookup(file);
+			lookups.add(lookup);
+			lookup.split = ISBNBookRenamer.splitFileName(file, lookup.out);
+			if (lookup.split == null) {
+				continue;
+			}
+
+			lookup.bookName = this.executor.submit(new Callable<String>() {
+
+				@Override
+				public String call() throws InterruptedException {
+					rateLimiter.acquire(host);
+					return ISBNBookRenamer.getISBNBookName(apiUrl, lookup.split[0], lookup.out);
+				}
+
+			});
+		}
+
+		// print and rename in order, as the lookups finish
+		for (Lookup lookup : lookups) {
+			String bookName = null;
+			if (lookup.bookName != null) {
+				try {
+					bookName = lookup.bookName.get();
+				} catch (ExecutionException e) {
+					lookup.out.println("Unable to get book name for book " + lookup.split[0]);
+					e.getCause().printStackTrace(lookup.out);
+				}
+			}
+
+			lookup.out.flush();
+			System.out.print(lookup.log.toString());
+			if (lookup.split != null) {
+				ISBNBookRenamer.renameBook(lookup.file, lookup.split[0], lookup.split[1], bookName);
+			}
+		}
+	}
+
+	/**
+	 * Stop the lookup threads, cancelling any lookups not yet done.
+	 */
+	public void shutdown() {
+		this.executor.shutdownNow();
+	}
+
+	/**
+	 * Return the host of the given URL, or the URL itself if it cannot be
+	 * parsed, so that it is still rate limited as a whole.
+	 * 
+	 * @param url
+	 * @return
+	 */
+	private static String getHost(String url) {
+		try {
+			return new URL(url).getHost();
+		} catch (MalformedURLException e) {
+			return url;
+		}
+	}
+
+	/**
+	 * A file being renamed, with what is printed about it until its turn
+	 * comes.
+	 */
+	private static class Lookup {
+
+		final File file;
+
+		final ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+		final PrintStream out = new PrintStream(this.log);
+
+		/**
+		 * The ISBN number and the extension, or <code>null</code> if the
+		 * file is skipped
+		 */
+		String[] split;
+
+		/**
+		 * The name being looked up, or <code>null</code> if the file is
+		 * skipped
+		 */
+		Future<String> bookName;
+
+		Lookup(File file) {
+			this.file = file;
+		}
+
+	}
+
+	/**
+	 * Spaces out requests to each host so that at most the given number
+	 * start in any second. Each request is given the next free slot of its
+	 * host and waits until then.
+	 */
+	static class RateLimiter {
+
+		/**
+		 * The time between two requests to the same host, in nanoseconds, or
+		 * zero for no limit
+		 */
+		private final long interval;
+
+		/**
+		 * The next free slot of each host, in nanoseconds
+		 */
+		private final Map<String, Long> nextSlots = new HashMap<String, Long>();
+
+		RateLimiter(int requestsPerSecond) {
+			this.interval = requestsPerSecond == 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+		}
+
+		/**
+		 * Wait until a request may be sent to the given host.
+		 * 
+		 * @param host
+		 * @throws InterruptedException
+		 */
+		void acquire(String host) throws InterruptedException {
+			if (this.interval == 0) {
+				return;
+			}
+
+			final long now = System.nanoTime();
+			long slot;
+			synchronized (this.nextSlots) {
+				Long next = this.nextSlots.get(host);
+				slot = (next == null || next.longValue() - now < 0) ? now : next.longValue();
+				this.nextSlots.put(host, slot + this.interval);
+			}
+
+			long wait = slot - now;
+			if (wait > 0) {
+				TimeUnit.NANOSECONDS.sleep(wait);
+			}
+		}
+
+	}
+
+}
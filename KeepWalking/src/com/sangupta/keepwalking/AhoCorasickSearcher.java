@@ -0,0 +1,380 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Aho-Corasick automaton to search for many keywords at once. The automaton is
+ * built once from the keyword set and then finds all occurrences of all the
+ * keywords in a single linear pass over the text, irrespective of the number
+ * of keywords.
+ *
+ * The transitions are kept in flat arrays: the outgoing edges of each node are
+ * stored sorted by character in one shared block, and looked up by a linear or
+ * binary search depending on the fan-out. The root, which is visited most
+ * often, additionally has a direct lookup table for the first 256 characters.
+ * This keeps the automaton compact and cache-friendly even with hundreds of
+ * thousands of keywords.
+ *
+ * Instances are immutable and can be shared between threads.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class AhoCorasickSearcher {
+
+	/**
+	 * Nodes with at most these many edges are searched linearly.
+	 */
+	private static final int LINEAR_SEARCH_EDGES = 8;
+
+	/**
+	 * Size of the direct lookup table at the root.
+	 */
+	private static final int ROOT_TABLE_SIZE = 256;
+
+	/**
+	 * Callback used to report matches.
+	 */
+	public interface MatchListener {
+
+		/**
+		 * Invoked for every keyword occurrence, in order of the end index.
+		 *
+		 * @param keyword the index of the keyword that matched
+		 * @param start the index in the text where the match starts
+		 * @param end the index in the text where the match ends, exclusive
+		 * @return <code>true</code> to continue searching, <code>false</code> to stop
+		 */
+		public boolean onMatch(int keyword, int start, int end);
+
+	}
+
+	/**
+	 * The keywords in the order they were supplied.
+	 */
+	private final String[] keywords;
+
+	/**
+	 * Index of the first edge of each node; edges of node <code>n</code> are
+	 * <code>edgeStart[n]</code> to <code>edgeStart[n + 1]</code>.
+	 */
+	private final int[] edgeStart;
+
+	/**
+	 * The character of each edge.
+	 */
+	private final char[] edgeChar;
+
+	/**
+	 * The target node of each edge.
+	 */
+	private final int[] edgeTarget;
+
+	/**
+	 * Direct transitions out of the root for the first 256 characters.
+	 */
+	private final int[] rootTable;
+
+	/**
+	 * The failure link of each node.
+	 */
+	private final int[] failure;
+
+	/**
+	 * Nearest node along the failure chain that ends a keyword, zero if none.
+	 */
+	private final int[] dictionary;
+
+	/**
+	 * The first keyword ending at each node, <code>-1</code> if none.
+	 */
+	private final int[] output;
+
+	/**
+	 * The next keyword ending at the same node, used for duplicate keywords.
+	 */
+	private final int[] nextOutput;
+
+	public AhoCorasickSearcher(Collection<String> keywords) {
+		this(keywords.toArray(new String[keywords.size()]));
+	}
+
+	public AhoCorasickSearcher(String... keywords) {
+		if(keywords == null || keywords.length == 0) {
+			throw new IllegalArgumentException("Keywords cannot be null/empty.");
+		}
+
+		this.keywords = keywords.clone();
+
+		// build the trie using linked child lists
+		int capacity = 1;
+		for(String keyword : this.keywords) {
+			if(keyword == null || keyword.length() == 0) {
+				throw new IllegalArgumentException("Keyword cannot be null/empty.");
+			}
+
+			capacity += keyword.length();
+		}
+
+		int[] firstChild = new int[capacity];
+		int[] nextSibling = new int[capacity];
+		char[] label = new char[capacity];
+		int[] trieOutput = new int[capacity];
+		Arrays.fill(trieOutput, -1);
+		this.nextOutput = new int[this.keywords.length];
+
+		int nodes = 1;
+		for(int index = 0; index < this.keywords.length; index++) {
+			String keyword = this.keywords[index];
+			int node = 0;
+			for(int position = 0; position < keyword.length(); position++) {
+				char c = keyword.charAt(position);
+				int child = firstChild[node];
+				while(child != 0 && label[child] != c) {
+					child = nextSibling[child];
+				}
+
+				if(child == 0) {
+					child = nodes++;
+					label[child] = c;
+					nextSibling[child] = firstChild[node];
+					firstChild[node] = child;
+				}
+
+				node = child;
+			}
+
+			this.nextOutput[index] = trieOutput[node];
+			trieOutput[node] = index;
+		}
+
+		// renumber in breadth first order and lay out the edges sorted
+		int[] order = new int[nodes];
+		int[] newId = new int[nodes];
+		this.edgeStart = new int[nodes + 1];
+		this.edgeChar = new char[nodes - 1];
+		this.edgeTarget = new int[nodes - 1];
+		this.output = new int[nodes];
+
+		long[] children = new long[16];
+		int head = 0, tail = 1, edges = 0;
+		order[0] = 0;
+		while(head < tail) {
+			int node = order[head];
+			int id = head++;
+			this.output[id] = trieOutput[node];
+			this.edgeStart[id] = edges;
+
+			int count = 0;
+			for(int child = firstChild[node]; child != 0; child = nextSibling[child]) {
+				if(count == children.length) {
+					children = Arrays.copyOf(children, count * 2);
+				}
+
+				children[count++] = ((long) label[child] << 32) | child;
+			}
+
+			Arrays.sort(children, 0, count);
+			for(int index = 0; index < count; index++) {
+				int child = (int) children[index];
+				newId[child] = tail;
+				order[tail++] = child;
+				this.edgeChar[edges] = (char) (children[index] >>> 32);
+				this.edgeTarget[edges++] = newId[child];
+			}
+		}
+
+		this.edgeStart[nodes] = edges;
+
+		this.rootTable = new int[ROOT_TABLE_SIZE];
+		for(int edge = this.edgeStart[0]; edge < this.edgeStart[1]; edge++) {
+			if(this.edgeChar[edge] < ROOT_TABLE_SIZE) {
+				this.rootTable[this.edgeChar[edge]] = this.edgeTarget[edge];
+			}
+		}
+
+		// compute failure and dictionary links, nodes are already in BFS order
+		this.failure = new int[nodes];
+		this.dictionary = new int[nodes];
+		for(int node = 0; node < nodes; node++) {
+			for(int edge = this.edgeStart[node]; edge < this.edgeStart[node + 1]; edge++) {
+				int child = this.edgeTarget[edge];
+				if(node == 0) {
+					continue;
+				}
+
+				int fail = next(this.failure[node], this.edgeChar[edge]);
+				this.failure[child] = fail;
+				this.dictionary[child] = this.output[fail] >= 0 ? fail : this.dictionary[fail];
+			}
+		}
+	}
+
+	/**
+	 * Report every occurrence of every keyword in the given text.
+	 *
+	 * @param text the text to search in
+	 * @param listener the listener to report matches to
+	 */
+	public void findAll(CharSequence text, MatchListener listener) {
+		final int length = text.length();
+		int state = 0;
+		for(int index = 0; index < length; index++) {
+			state = next(state, text.charAt(index));
+
+			int node = this.output[state] >= 0 ? state : this.dictionary[state];
+			while(node != 0) {
+				for(int keyword = this.output[node]; keyword != -1; keyword = this.nextOutput[keyword]) {
+					if(!listener.onMatch(keyword, index + 1 - this.keywords[keyword].length(), index + 1)) {
+						return;
+					}
+				}
+
+				node = this.dictionary[node];
+			}
+		}
+	}
+
+	/**
+	 * Find the first occurrence of each keyword in the given text. The search
+	 * stops as soon as every keyword has been seen.
+	 *
+	 * @param text the text to search in
+	 * @param firstIndex array, at least as long as the number of keywords, that
+	 *        receives the index of the first occurrence of each keyword, or
+	 *        <code>-1</code> if the keyword does not occur
+	 * @return the number of distinct keywords found
+	 */
+	public int findFirst(CharSequence text, int[] firstIndex) {
+		final int keywordCount = this.keywords.length;
+		if(firstIndex.length < keywordCount) {
+			throw new IllegalArgumentException("Result array must have room for all keywords.");
+		}
+
+		Arrays.fill(firstIndex, 0, keywordCount, -1);
+
+		final int length = text.length();
+		int found = 0;
+		int state = 0;
+		for(int index = 0; index < length && found < keywordCount; index++) {
+			state = next(state, text.charAt(index));
+
+			int node = this.output[state] >= 0 ? state : this.dictionary[state];
+			while(node != 0) {
+				for(int keyword = this.output[node]; keyword != -1; keyword = this.nextOutput[keyword]) {
+					if(firstIndex[keyword] == -1) {
+						firstIndex[keyword] = index + 1 - this.keywords[keyword].length();
+						found++;
+					}
+				}
+
+				node = this.dictionary[node];
+			}
+		}
+
+		return found;
+	}
+
+	/**
+	 * Return the number of keywords in this automaton.
+	 *
+	 * @return the keyword count
+	 */
+	public int getKeywordCount() {
+		return this.keywords.length;
+	}
+
+	/**
+	 * Return the keyword at the given index.
+	 *
+	 * @param index the index of the keyword
+	 * @return the keyword
+	 */
+	public String getKeyword(int index) {
+		return this.keywords[index];
+	}
+
+	/**
+	 * Compute the state reached from the given state on the given character,
+	 * following failure links as needed.
+	 *
+	 * @param state the current state
+	 * @param c the next character of the text
+	 * @return the next state
+	 */
+	private int next(int state, char c) {
+		while(state != 0) {
+			int target = edge(state, c);
+			if(target != 0) {
+				return target;
+			}
+
+			state = this.failure[state];
+		}
+
+		if(c < ROOT_TABLE_SIZE) {
+			return this.rootTable[c];
+		}
+
+		return edge(0, c);
+	}
+
+	/**
+	 * Find the direct transition from the given node on the given character.
+	 *
+	 * @param node the node to move from
+	 * @param c the character to move on
+	 * @return the target node, or zero if there is no such edge
+	 */
+	private int edge(int node, char c) {
+		final char[] edgeChar = this.edgeChar;
+		int low = this.edgeStart[node];
+		int high = this.edgeStart[node + 1] - 1;
+
+		if(high - low < LINEAR_SEARCH_EDGES) {
+			for(int edge = low; edge <= high; edge++) {
+				if(edgeChar[edge] == c) {
+					return this.edgeTarget[edge];
+				}
+			}
+
+			return 0;
+		}
+
+		while(low <= high) {
+			int mid = (low + high) >>> 1;
+			char current = edgeChar[mid];
+			if(current < c) {
+				low = mid + 1;
+			} else if(current > c) {
+				high = mid - 1;
+			} else {
+				return this.edgeTarget[mid];
+			}
+		}
+
+		return 0;
+	}
+
+}
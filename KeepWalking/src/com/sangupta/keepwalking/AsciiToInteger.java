@@ -19,15 +19,147 @@
 
 package com.sangupta.keepwalking;
 
+import java.util.Arrays;
+
 /**
  * A simple Java implementation of the usual C/C++ atoi() function.
  * 
+ * Digits are consumed eight at a time by packing them into a <code>long</code>
+ * and converting all of them with a handful of multiplications (SWAR, SIMD
+ * within a register). Overflow is detected exactly for both <code>int</code>
+ * and <code>long</code>, and numbers can be parsed straight from a
+ * {@link CharSequence}, a <code>char[]</code> or a <code>byte[]</code> range
+ * without allocating any objects.
+ * 
+ * Numbers in any radix from 2 to 36 can be parsed as <code>int</code>,
+ * <code>long</code> or unsigned <code>long</code>, and formatted back into a
+ * caller supplied <code>char[]</code> or <code>byte[]</code>.
+ * 
  * @author Sandeep Gupta <a href="http://www.sangupta.com">[email]</a>
- * @version 1.0
+ * @version 1.1
  * @since 02 Oct 2010
  */
 public class AsciiToInteger {
 	
+	/**
+	 * Status returned when the number was parsed successfully.
+	 */
+	public static final int OK = 0;
+	
+	/**
+	 * Status returned when the input is empty or only has white space.
+	 */
+	public static final int ERROR_EMPTY = 1;
+	
+	/**
+	 * Status returned when the input is not a valid number.
+	 */
+	public static final int ERROR_MALFORMED = 2;
+	
+	/**
+	 * Status returned when the number does not fit in the target type.
+	 */
+	public static final int ERROR_OVERFLOW = 3;
+	
+	/**
+	 * Value returned by the parser when the input is not a valid number of
+	 * the requested type. It is also the legal value of the smallest
+	 * <code>long</code>, in which case the input is checked again.
+	 */
+	private static final long ERROR = Long.MIN_VALUE;
+	
+	/**
+	 * Maximum number of significant digits in an <code>int</code>.
+	 */
+	private static final int MAX_INT_DIGITS = 10;
+	
+	/**
+	 * Maximum number of significant digits in a <code>long</code>.
+	 */
+	private static final int MAX_LONG_DIGITS = 19;
+	
+	/**
+	 * Parse into an <code>int</code>.
+	 */
+	private static final int TYPE_INT = 0;
+	
+	/**
+	 * Parse into a <code>long</code>.
+	 */
+	private static final int TYPE_LONG = 1;
+	
+	/**
+	 * Parse into a <code>long</code> holding an unsigned 64-bit value.
+	 */
+	private static final int TYPE_UNSIGNED_LONG = 2;
+	
+	/**
+	 * The characters used for digits when formatting, in lower case.
+	 */
+	private static final char[] DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz".toCharArray();
+	
+	/**
+	 * Value of each ASCII character as a digit, <code>-1</code> if it is not
+	 * a digit in any radix.
+	 */
+	private static final byte[] DIGIT_VALUES = new byte[128];
+	
+	/**
+	 * The two characters of every number from 00 to 99, to format decimal
+	 * numbers two digits at a time.
+	 */
+	private static final char[] DIGIT_PAIRS = new char[200];
+	
+	/**
+	 * For each radix, the largest unsigned 64-bit value that can be
+	 * multiplied by the radix without overflowing.
+	 */
+	private static final long[] UNSIGNED_DIVIDEND = new long[Character.MAX_RADIX + 1];
+	
+	/**
+	 * For each radix, the largest digit that can be added to
+	 * {@link #UNSIGNED_DIVIDEND} times the radix without overflowing.
+	 */
+	private static final int[] UNSIGNED_REMAINDER = new int[Character.MAX_RADIX + 1];
+	
+	/**
+	 * For each radix, all its powers from the first one that fit in an
+	 * unsigned 64-bit value, used to count the digits of a number.
+	 */
+	private static final long[][] RADIX_POWERS = new long[Character.MAX_RADIX + 1][];
+	
+	static {
+		Arrays.fill(DIGIT_VALUES, (byte) -1);
+		for(int index = 0; index < DIGITS.length; index++) {
+			DIGIT_VALUES[DIGITS[index]] = (byte) index;
+			DIGIT_VALUES[Character.toUpperCase(DIGITS[index])] = (byte) index;
+		}
+		
+		for(int index = 0; index < 100; index++) {
+			DIGIT_PAIRS[2 * index] = DIGITS[index / 10];
+			DIGIT_PAIRS[2 * index + 1] = DIGITS[index % 10];
+		}
+		
+		for(int radix = Character.MIN_RADIX; radix <= Character.MAX_RADIX; radix++) {
+			UNSIGNED_DIVIDEND[radix] = Long.divideUnsigned(-1L, radix);
+			UNSIGNED_REMAINDER[radix] = (int) Long.remainderUnsigned(-1L, radix);
+			
+			long[] powers = new long[Long.SIZE];
+			int count = 0;
+			long power = radix;
+			while(true) {
+				powers[count++] = power;
+				if(Long.compareUnsigned(power, UNSIGNED_DIVIDEND[radix]) > 0) {
+					break;
+				}
+				
+				power *= radix;
+			}
+			
+			RADIX_POWERS[radix] = Arrays.copyOf(powers, count);
+		}
+	}
+	
 	/**
 	 * Command line test.
 	 * 
@@ -43,52 +175,1086 @@ public class AsciiToInteger {
 	 * 
 	 * @param number
 	 * @return
+	 * @throws NumberFormatException if the number is empty, malformed or does not fit in an <code>int</code>
 	 */
-	private static int atoi(String number) {
-		// check for NULL or empty
-		if(number == null || number.trim().length() == 0) {
-			throw new IllegalArgumentException("Number cannot be null/empty.");
+	public static int atoi(CharSequence number) {
+		// check for NULL
+		if(number == null) {
+			throw new NumberFormatException("Number cannot be null/empty.");
+		}
+		
+		return parseInt(number, 0, number.length());
+	}
+	
+	/**
+	 * Parse the signed decimal number in the given range of the character
+	 * sequence as an <code>int</code>.
+	 * 
+	 * @param number the characters holding the number
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @return the parsed value
+	 * @throws NumberFormatException if the number is empty, malformed or does not fit in an <code>int</code>
+	 */
+	public static int parseInt(CharSequence number, int start, int end) {
+		long value = parse(number, null, null, start, end, TYPE_INT);
+		if(value == ERROR) {
+			throw exception(status(number, null, null, start, end, 10, TYPE_INT), number, null, null, start, end);
+		}
+		
+		return (int) value;
+	}
+	
+	/**
+	 * Parse the signed decimal number in the given range of the character
+	 * array as an <code>int</code>.
+	 * 
+	 * @param number the characters holding the number
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @return the parsed value
+	 * @throws NumberFormatException if the number is empty, malformed or does not fit in an <code>int</code>
+	 */
+	public static int parseInt(char[] number, int start, int end) {
+		long value = parse(null, number, null, start, end, TYPE_INT);
+		if(value == ERROR) {
+			throw exception(status(null, number, null, start, end, 10, TYPE_INT), null, number, null, start, end);
 		}
-
-		// create a variable to store the result
-		int result = 0;
 		
-		// trim the number
-		number = number.trim();
+		return (int) value;
+	}
+	
+	/**
+	 * Parse the signed decimal number in the given range of the byte array,
+	 * the bytes being ASCII characters, as an <code>int</code>.
+	 * 
+	 * @param number the bytes holding the number
+	 * @param start the index of the first byte, inclusive
+	 * @param end the index of the last byte, exclusive
+	 * @return the parsed value
+	 * @throws NumberFormatException if the number is empty, malformed or does not fit in an <code>int</code>
+	 */
+	public static int parseInt(byte[] number, int start, int end) {
+		long value = parse(null, null, number, start, end, TYPE_INT);
+		if(value == ERROR) {
+			throw exception(status(null, null, number, start, end, 10, TYPE_INT), null, null, number, start, end);
+		}
+		
+		return (int) value;
+	}
+	
+	/**
+	 * Parse the signed decimal number in the given range of the character
+	 * sequence as a <code>long</code>.
+	 * 
+	 * @param number the characters holding the number
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @return the parsed value
+	 * @throws NumberFormatException if the number is empty, malformed or does not fit in a <code>long</code>
+	 */
+	public static long parseLong(CharSequence number, int start, int end) {
+		long value = parse(number, null, null, start, end, TYPE_LONG);
+		if(value == ERROR) {
+			int status = status(number, null, null, start, end, 10, TYPE_LONG);
+			if(status != OK) {
+				throw exception(status, number, null, null, start, end);
+			}
+		}
+		
+		return value;
+	}
+	
+	/**
+	 * Parse the signed decimal number in the given range of the character
+	 * array as a <code>long</code>.
+	 * 
+	 * @param number the characters holding the number
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @return the parsed value
+	 * @throws NumberFormatException if the number is empty, malformed or does not fit in a <code>long</code>
+	 */
+	public static long parseLong(char[] number, int start, int end) {
+		long value = parse(null, number, null, start, end, TYPE_LONG);
+		if(value == ERROR) {
+			int status = status(null, number, null, start, end, 10, TYPE_LONG);
+			if(status != OK) {
+				throw exception(status, null, number, null, start, end);
+			}
+		}
+		
+		return value;
+	}
+	
+	/**
+	 * Parse the signed decimal number in the given range of the byte array,
+	 * the bytes being ASCII characters, as a <code>long</code>.
+	 * 
+	 * @param number the bytes holding the number
+	 * @param start the index of the first byte, inclusive
+	 * @param end the index of the last byte, exclusive
+	 * @return the parsed value
+	 * @throws NumberFormatException if the number is empty, malformed or does not fit in a <code>long</code>
+	 */
+	public static long parseLong(byte[] number, int start, int end) {
+		long value = parse(null, null, number, start, end, TYPE_LONG);
+		if(value == ERROR) {
+			int status = status(null, null, number, start, end, 10, TYPE_LONG);
+			if(status != OK) {
+				throw exception(status, null, null, number, start, end);
+			}
+		}
+		
+		return value;
+	}
+	
+	/**
+	 * Parse the signed decimal number in the given range of the character
+	 * sequence as an <code>int</code> without throwing an exception for
+	 * malformed input.
+	 * 
+	 * @param number the characters holding the number
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @param result the array to store the parsed value in
+	 * @param resultIndex the index in the array to store the value at
+	 * @return {@link #OK} if the number was parsed, else one of the error codes
+	 */
+	public static int tryParseInt(CharSequence number, int start, int end, int[] result, int resultIndex) {
+		long value = parse(number, null, null, start, end, TYPE_INT);
+		if(value == ERROR) {
+			return status(number, null, null, start, end, 10, TYPE_INT);
+		}
+		
+		result[resultIndex] = (int) value;
+		return OK;
+	}
+	
+	/**
+	 * Parse the signed decimal number in the given range of the character
+	 * array as an <code>int</code> without throwing an exception for
+	 * malformed input.
+	 * 
+	 * @param number the characters holding the number
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @param result the array to store the parsed value in
+	 * @param resultIndex the index in the array to store the value at
+	 * @return {@link #OK} if the number was parsed, else one of the error codes
+	 */
+	public static int tryParseInt(char[] number, int start, int end, int[] result, int resultIndex) {
+		long value = parse(null, number, null, start, end, TYPE_INT);
+		if(value == ERROR) {
+			return status(null, number, null, start, end, 10, TYPE_INT);
+		}
+		
+		result[resultIndex] = (int) value;
+		return OK;
+	}
+	
+	/**
+	 * Parse the signed decimal number in the given range of the byte array,
+	 * the bytes being ASCII characters, as an <code>int</code> without
+	 * throwing an exception for malformed input.
+	 * 
+	 * @param number the bytes holding the number
+	 * @param start the index of the first byte, inclusive
+	 * @param end the index of the last byte, exclusive
+	 * @param result the array to store the parsed value in
+	 * @param resultIndex the index in the array to store the value at
+	 * @return {@link #OK} if the number was parsed, else one of the error codes
+	 */
+	public static int tryParseInt(byte[] number, int start, int end, int[] result, int resultIndex) {
+		long value = parse(null, null, number, start, end, TYPE_INT);
+		if(value == ERROR) {
+			return status(null, null, number, start, end, 10, TYPE_INT);
+		}
+		
+		result[resultIndex] = (int) value;
+		return OK;
+	}
+	
+	/**
+	 * Parse the signed decimal number in the given range of the character
+	 * sequence as a <code>long</code> without throwing an exception for
+	 * malformed input.
+	 * 
+	 * @param number the characters holding the number
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @param result the array to store the parsed value in
+	 * @param resultIndex the index in the array to store the value at
+	 * @return {@link #OK} if the number was parsed, else one of the error codes
+	 */
+	public static int tryParseLong(CharSequence number, int start, int end, long[] result, int resultIndex) {
+		long value = parse(number, null, null, start, end, TYPE_LONG);
+		if(value == ERROR) {
+			int status = status(number, null, null, start, end, 10, TYPE_LONG);
+			if(status != OK) {
+				return status;
+			}
+		}
+		
+		result[resultIndex] = value;
+		return OK;
+	}
+	
+	/**
+	 * Parse the signed decimal number in the given range of the character
+	 * array as a <code>long</code> without throwing an exception for
+	 * malformed input.
+	 * 
+	 * @param number the characters holding the number
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @param result the array to store the parsed value in
+	 * @param resultIndex the index in the array to store the value at
+	 * @return {@link #OK} if the number was parsed, else one of the error codes
+	 */
+	public static int tryParseLong(char[] number, int start, int end, long[] result, int resultIndex) {
+		long value = parse(null, number, null, start, end, TYPE_LONG);
+		if(value == ERROR) {
+			int status = status(null, number, null, start, end, 10, TYPE_LONG);
+			if(status != OK) {
+				return status;
+			}
+		}
+		
+		result[resultIndex] = value;
+		return OK;
+	}
+	
+	/**
+	 * Parse the signed decimal number in the given range of the byte array,
+	 * the bytes being ASCII characters, as a <code>long</code> without
+	 * throwing an exception for malformed input. Leading and trailing white
+	 * space is ignored.
+	 * 
+	 * @param number the bytes holding the number
+	 * @param start the index of the first byte, inclusive
+	 * @param end the index of the last byte, exclusive
+	 * @param result the array to store the parsed value in
+	 * @param resultIndex the index in the array to store the value at
+	 * @return {@link #OK} if the number was parsed, else one of the error codes
+	 */
+	public static int tryParseLong(byte[] number, int start, int end, long[] result, int resultIndex) {
+		long value = parse(null, null, number, start, end, TYPE_LONG);
+		if(value == ERROR) {
+			int status = status(null, null, number, start, end, 10, TYPE_LONG);
+			if(status != OK) {
+				return status;
+			}
+		}
+		
+		result[resultIndex] = value;
+		return OK;
+	}
+	
+	/**
+	 * Parse the number in the given range of the character sequence as
+	 * a signed <code>int</code> in the given radix. Letters may be
+	 * in either case. Radix 10 uses the SWAR parser, powers of two shift the
+	 * digits in without any multiplication.
+	 * 
+	 * @param number the characters holding the number
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @param radix the radix, between 2 and 36
+	 * @return the parsed value
+	 * @throws NumberFormatException if the radix is out of range, or the number is empty, malformed or does not fit
+	 */
+	public static int parseInt(CharSequence number, int start, int end, int radix) {
+		long value = parse(number, null, null, start, end, radix, TYPE_INT);
+		if(value == ERROR) {
+			throw exception(status(number, null, null, start, end, radix, TYPE_INT), number, null, null, start, end);
+		}
+		
+		return (int) value;
+	}
+	
+	/**
+	 * Parse the number in the given range of the character array as
+	 * a signed <code>int</code> in the given radix.
+	 * 
+	 * @param number the characters holding the number
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @param radix the radix, between 2 and 36
+	 * @return the parsed value
+	 * @throws NumberFormatException if the radix is out of range, or the number is empty, malformed or does not fit
+	 */
+	public static int parseInt(char[] number, int start, int end, int radix) {
+		long value = parse(null, number, null, start, end, radix, TYPE_INT);
+		if(value == ERROR) {
+			throw exception(status(null, number, null, start, end, radix, TYPE_INT), null, number, null, start, end);
+		}
+		
+		return (int) value;
+	}
+	
+	/**
+	 * Parse the number in the given range of the byte array,
+	 * the bytes being ASCII characters, as
+	 * a signed <code>int</code> in the given radix.
+	 * 
+	 * @param number the bytes holding the number
+	 * @param start the index of the first byte, inclusive
+	 * @param end the index of the last byte, exclusive
+	 * @param radix the radix, between 2 and 36
+	 * @return the parsed value
+	 * @throws NumberFormatException if the radix is out of range, or the number is empty, malformed or does not fit
+	 */
+	public static int parseInt(byte[] number, int start, int end, int radix) {
+		long value = parse(null, null, number, start, end, radix, TYPE_INT);
+		if(value == ERROR) {
+			throw exception(status(null, null, number, start, end, radix, TYPE_INT), null, null, number, start, end);
+		}
+		
+		return (int) value;
+	}
+	
+	/**
+	 * Parse the number in the given range of the character sequence as
+	 * a signed <code>long</code> in the given radix.
+	 * 
+	 * @param number the characters holding the number
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @param radix the radix, between 2 and 36
+	 * @return the parsed value
+	 * @throws NumberFormatException if the radix is out of range, or the number is empty, malformed or does not fit
+	 */
+	public static long parseLong(CharSequence number, int start, int end, int radix) {
+		long value = parse(number, null, null, start, end, radix, TYPE_LONG);
+		if(value == ERROR) {
+			int status = status(number, null, null, start, end, radix, TYPE_LONG);
+			if(status != OK) {
+				throw exception(status, number, null, null, start, end);
+			}
+		}
+		
+		return value;
+	}
+	
+	/**
+	 * Parse the number in the given range of the character array as
+	 * a signed <code>long</code> in the given radix.
+	 * 
+	 * @param number the characters holding the number
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @param radix the radix, between 2 and 36
+	 * @return the parsed value
+	 * @throws NumberFormatException if the radix is out of range, or the number is empty, malformed or does not fit
+	 */
+	public static long parseLong(char[] number, int start, int end, int radix) {
+		long value = parse(null, number, null, start, end, radix, TYPE_LONG);
+		if(value == ERROR) {
+			int status = status(null, number, null, start, end, radix, TYPE_LONG);
+			if(status != OK) {
+				throw exception(status, null, number, null, start, end);
+			}
+		}
+		
+		return value;
+	}
+	
+	/**
+	 * Parse the number in the given range of the byte array,
+	 * the bytes being ASCII characters, as
+	 * a signed <code>long</code> in the given radix.
+	 * 
+	 * @param number the bytes holding the number
+	 * @param start the index of the first byte, inclusive
+	 * @param end the index of the last byte, exclusive
+	 * @param radix the radix, between 2 and 36
+	 * @return the parsed value
+	 * @throws NumberFormatException if the radix is out of range, or the number is empty, malformed or does not fit
+	 */
+	public static long parseLong(byte[] number, int start, int end, int radix) {
+		long value = parse(null, null, number, start, end, radix, TYPE_LONG);
+		if(value == ERROR) {
+			int status = status(null, null, number, start, end, radix, TYPE_LONG);
+			if(status != OK) {
+				throw exception(status, null, null, number, start, end);
+			}
+		}
+		
+		return value;
+	}
+	
+	/**
+	 * Parse the number in the given range of the character sequence as
+	 * an unsigned <code>long</code> in the given radix. Values above
+	 * {@link Long#MAX_VALUE} are returned as negative numbers, the same as
+	 * {@link Long#parseUnsignedLong(String, int)} does.
+	 * 
+	 * @param number the characters holding the number
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @param radix the radix, between 2 and 36
+	 * @return the parsed value
+	 * @throws NumberFormatException if the radix is out of range, or the number is empty, malformed or does not fit
+	 */
+	public static long parseUnsignedLong(CharSequence number, int start, int end, int radix) {
+		long value = parse(number, null, null, start, end, radix, TYPE_UNSIGNED_LONG);
+		if(value == ERROR) {
+			int status = status(number, null, null, start, end, radix, TYPE_UNSIGNED_LONG);
+			if(status != OK) {
+				throw exception(status, number, null, null, start, end);
+			}
+		}
+		
+		return value;
+	}
+	
+	/**
+	 * Parse the number in the given range of the character array as
+	 * an unsigned <code>long</code> in the given radix. Values above
+	 * {@link Long#MAX_VALUE} are returned as negative numbers, the same as
+	 * {@link Long#parseUnsignedLong(String, int)} does.
+	 * 
+	 * @param number the characters holding the number
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @param radix the radix, between 2 and 36
+	 * @return the parsed value
+	 * @throws NumberFormatException if the radix is out of range, or the number is empty, malformed or does not fit
+	 */
+	public static long parseUnsignedLong(char[] number, int start, int end, int radix) {
+		long value = parse(null, number, null, start, end, radix, TYPE_UNSIGNED_LONG);
+		if(value == ERROR) {
+			int status = status(null, number, null, start, end, radix, TYPE_UNSIGNED_LONG);
+			if(status != OK) {
+				throw exception(status, null, number, null, start, end);
+			}
+		}
+		
+		return value;
+	}
+	
+	/**
+	 * Parse the number in the given range of the byte array,
+	 * the bytes being ASCII characters, as
+	 * an unsigned <code>long</code> in the given radix. Values above
+	 * {@link Long#MAX_VALUE} are returned as negative numbers, the same as
+	 * {@link Long#parseUnsignedLong(String, int)} does.
+	 * 
+	 * @param number the bytes holding the number
+	 * @param start the index of the first byte, inclusive
+	 * @param end the index of the last byte, exclusive
+	 * @param radix the radix, between 2 and 36
+	 * @return the parsed value
+	 * @throws NumberFormatException if the radix is out of range, or the number is empty, malformed or does not fit
+	 */
+	public static long parseUnsignedLong(byte[] number, int start, int end, int radix) {
+		long value = parse(null, null, number, start, end, radix, TYPE_UNSIGNED_LONG);
+		if(value == ERROR) {
+			int status = status(null, null, number, start, end, radix, TYPE_UNSIGNED_LONG);
+			if(status != OK) {
+				throw exception(status, null, null, number, start, end);
+			}
+		}
+		
+		return value;
+	}
+	
+	/**
+	 * Write a signed <code>int</code> in the given radix into the
+	 * buffer, starting at the given offset, with lower case letters and a
+	 * leading minus sign for negative values. At most 33 characters are
+	 * written. Decimal numbers are written two digits at a time, powers of
+	 * two with shifts and masks.
+	 * 
+	 * @param value the value to format
+	 * @param radix the radix, between 2 and 36
+	 * @param buffer the buffer to write to
+	 * @param offset the index to write the first character at
+	 * @return the number of characters written
+	 */
+	public static int format(int value, int radix, char[] buffer, int offset) {
+		return format(value < 0, value < 0 ? -(long) value : value, radix, buffer, null, offset);
+	}
+	
+	/**
+	 * Write a signed <code>int</code> in the given radix into the
+	 * buffer, starting at the given offset, with lower case letters and a
+	 * leading minus sign for negative values. At most 33 bytes are
+	 * written.
+	 * 
+	 * @param value the value to format
+	 * @param radix the radix, between 2 and 36
+	 * @param buffer the buffer to write to
+	 * @param offset the index to write the first byte at
+	 * @return the number of bytes written
+	 */
+	public static int format(int value, int radix, byte[] buffer, int offset) {
+		return format(value < 0, value < 0 ? -(long) value : value, radix, null, buffer, offset);
+	}
+	
+	/**
+	 * Write a signed <code>long</code> in the given radix into the
+	 * buffer, starting at the given offset, with lower case letters and a
+	 * leading minus sign for negative values. At most 65 characters are
+	 * written.
+	 * 
+	 * @param value the value to format
+	 * @param radix the radix, between 2 and 36
+	 * @param buffer the buffer to write to
+	 * @param offset the index to write the first character at
+	 * @return the number of characters written
+	 */
+	public static int format(long value, int radix, char[] buffer, int offset) {
+		return format(value < 0, value < 0 ? -value : value, radix, buffer, null, offset);
+	}
+	
+	/**
+	 * Write a signed <code>long</code> in the given radix into the
+	 * buffer, starting at the given offset, with lower case letters and a
+	 * leading minus sign for negative values. At most 65 bytes are
+	 * written.
+	 * 
+	 * @param value the value to format
+	 * @param radix the radix, between 2 and 36
+	 * @param buffer the buffer to write to
+	 * @param offset the index to write the first byte at
+	 * @return the number of bytes written
+	 */
+	public static int format(long value, int radix, byte[] buffer, int offset) {
+		return format(value < 0, value < 0 ? -value : value, radix, null, buffer, offset);
+	}
+	
+	/**
+	 * Write an unsigned <code>long</code> in the given radix into the
+	 * buffer, starting at the given offset, with lower case letters. At
+	 * most 64 characters are written.
+	 * 
+	 * @param value the value to format
+	 * @param radix the radix, between 2 and 36
+	 * @param buffer the buffer to write to
+	 * @param offset the index to write the first character at
+	 * @return the number of characters written
+	 */
+	public static int formatUnsigned(long value, int radix, char[] buffer, int offset) {
+		return format(false, value, radix, buffer, null, offset);
+	}
+	
+	/**
+	 * Write an unsigned <code>long</code> in the given radix into the
+	 * buffer, starting at the given offset, with lower case letters. At
+	 * most 64 bytes are written.
+	 * 
+	 * @param value the value to format
+	 * @param radix the radix, between 2 and 36
+	 * @param buffer the buffer to write to
+	 * @param offset the index to write the first byte at
+	 * @return the number of bytes written
+	 */
+	public static int formatUnsigned(long value, int radix, byte[] buffer, int offset) {
+		return format(false, value, radix, null, buffer, offset);
+	}
+	
+	/**
+	 * The actual parser. Exactly one of the three sources is non-null.
+	 * Leading and trailing white space is ignored.
+	 * 
+	 * @param cs the character sequence source, or <code>null</code>
+	 * @param ca the character array source, or <code>null</code>
+	 * @param ba the byte array source, or <code>null</code>
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @param type {@link #TYPE_INT} or {@link #TYPE_LONG}
+	 * @return the parsed value, or {@link #ERROR} if the input is not valid
+	 */
+	private static long parse(CharSequence cs, char[] ca, byte[] ba, int start, int end, int type) {
+		// remove any leading or trailing spaces
+		while(start < end && isWhitespace(charAt(cs, ca, ba, start))) {
+			start++;
+		}
+		
+		while(end > start && isWhitespace(charAt(cs, ca, ba, end - 1))) {
+			end--;
+		}
+		
+		if(start == end) {
+			return ERROR;
+		}
 		
 		// check for sign as the first character
+		int index = start;
 		boolean negate = false;
-		char sign = number.charAt(0);
-		
+		int sign = charAt(cs, ca, ba, index);
 		if(sign == '+' || sign == '-') {
-			if(sign == '-') {
-				negate = true;
+			negate = sign == '-';
+			index++;
+			if(index == end) {
+				return ERROR;
+			}
+		}
+		
+		// leading zeros do not count towards the digits of the type
+		while(index < end && charAt(cs, ca, ba, index) == '0') {
+			index++;
+		}
+		
+		final int digitsStart = index;
+		if(end - digitsStart > (type == TYPE_INT ? MAX_INT_DIGITS : MAX_LONG_DIGITS)) {
+			return ERROR;
+		}
+		
+		// eight digits at a time, the value stays below 10^19 which fits
+		// in 64 bits when treated as unsigned
+		long value = 0;
+		while(end - index >= 8) {
+			long chunk = read8(cs, ca, ba, index);
+			if(!isEightDigits(chunk)) {
+				break;
+			}
+			
+			value = value * 100000000L + parseEightDigits(chunk);
+			index += 8;
+		}
+		
+		// and the rest one at a time
+		for( ; index < end; index++) {
+			int digit = charAt(cs, ca, ba, index) - '0';
+			if(digit < 0 || digit > 9) {
+				return ERROR;
+			}
+			
+			value = value * 10 + digit;
+		}
+		
+		return checkRange(value, negate, type);
+	}
+	
+	/**
+	 * Parse a number in the given radix. Exactly one of the three sources is
+	 * non-null. Leading and trailing white space is ignored, and letters may
+	 * be in either case.
+	 * 
+	 * @param cs the character sequence source, or <code>null</code>
+	 * @param ca the character array source, or <code>null</code>
+	 * @param ba the byte array source, or <code>null</code>
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @param radix the radix, between 2 and 36
+	 * @param type {@link #TYPE_INT}, {@link #TYPE_LONG} or {@link #TYPE_UNSIGNED_LONG}
+	 * @return the parsed value, or {@link #ERROR} if the input is not valid
+	 */
+	private static long parse(CharSequence cs, char[] ca, byte[] ba, int start, int end, int radix, int type) {
+		if(radix < Character.MIN_RADIX || radix > Character.MAX_RADIX) {
+			throw new NumberFormatException("Radix out of range: " + radix);
+		}
+		
+		if(radix == 10 && type != TYPE_UNSIGNED_LONG) {
+			return parse(cs, ca, ba, start, end, type);
+		}
+		
+		while(start < end && isWhitespace(charAt(cs, ca, ba, start))) {
+			start++;
+		}
+		
+		while(end > start && isWhitespace(charAt(cs, ca, ba, end - 1))) {
+			end--;
+		}
+		
+		if(start == end) {
+			return ERROR;
+		}
+		
+		int index = start;
+		boolean negate = false;
+		int sign = charAt(cs, ca, ba, index);
+		if(sign == '+' || (sign == '-' && type != TYPE_UNSIGNED_LONG)) {
+			negate = sign == '-';
+			index++;
+			if(index == end) {
+				return ERROR;
+			}
+		}
+		
+		long value = 0;
+		if((radix & (radix - 1)) == 0) {
+			// power of two, shift the digits in and watch the bits that fall off
+			final int shift = Integer.numberOfTrailingZeros(radix);
+			final int overflowShift = Long.SIZE - shift;
+			for( ; index < end; index++) {
+				int digit = digit(charAt(cs, ca, ba, index), radix);
+				if(digit < 0 || (value >>> overflowShift) != 0) {
+					return ERROR;
+				}
+				
+				value = (value << shift) | digit;
+			}
+		} else {
+			final long maxValue = UNSIGNED_DIVIDEND[radix];
+			final int maxDigit = UNSIGNED_REMAINDER[radix];
+			for( ; index < end; index++) {
+				int digit = digit(charAt(cs, ca, ba, index), radix);
+				if(digit < 0) {
+					return ERROR;
+				}
+				
+				if(Long.compareUnsigned(value, maxValue) >= 0 && (value != maxValue || digit > maxDigit)) {
+					return ERROR;
+				}
+				
+				value = value * radix + digit;
+			}
+		}
+		
+		return checkRange(value, negate, type);
+	}
+	
+	/**
+	 * Check that the magnitude of a parsed number fits in the target type
+	 * and apply the sign. The magnitude of a negative number may be one more
+	 * than the largest positive value.
+	 * 
+	 * @param value the magnitude, as an unsigned value
+	 * @param negate whether the number had a minus sign
+	 * @param type the target type
+	 * @return the signed value, or {@link #ERROR} if it does not fit
+	 */
+	private static long checkRange(long value, boolean negate, int type) {
+		switch(type) {
+			case TYPE_INT:
+				if(Long.compareUnsigned(value, negate ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE) > 0) {
+					return ERROR;
+				}
+				break;
+				
+			case TYPE_LONG:
+				if(Long.compareUnsigned(value, negate ? Long.MIN_VALUE : Long.MAX_VALUE) > 0) {
+					return ERROR;
+				}
+				break;
+		}
+		
+		return negate ? -value : value;
+	}
+	
+	/**
+	 * Work out why the parser rejected the given input, one character at a
+	 * time. Only called on the error path.
+	 * 
+	 * @param cs the character sequence source, or <code>null</code>
+	 * @param ca the character array source, or <code>null</code>
+	 * @param ba the byte array source, or <code>null</code>
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @param radix the radix, between 2 and 36
+	 * @param type the target type
+	 * @return the status code, {@link #OK} if the input was actually valid
+	 */
+	private static int status(CharSequence cs, char[] ca, byte[] ba, int start, int end, int radix, int type) {
+		while(start < end && isWhitespace(charAt(cs, ca, ba, start))) {
+			start++;
+		}
+		
+		while(end > start && isWhitespace(charAt(cs, ca, ba, end - 1))) {
+			end--;
+		}
+		
+		if(start == end) {
+			return ERROR_EMPTY;
+		}
+		
+		int index = start;
+		boolean negate = false;
+		int sign = charAt(cs, ca, ba, index);
+		if(sign == '+' || (sign == '-' && type != TYPE_UNSIGNED_LONG)) {
+			negate = sign == '-';
+			index++;
+		}
+		
+		if(index == end) {
+			return ERROR_MALFORMED;
+		}
+		
+		boolean overflow = false;
+		long value = 0;
+		if(type == TYPE_UNSIGNED_LONG) {
+			final long maxValue = UNSIGNED_DIVIDEND[radix];
+			final int maxDigit = UNSIGNED_REMAINDER[radix];
+			for( ; index < end; index++) {
+				int digit = digit(charAt(cs, ca, ba, index), radix);
+				if(digit < 0) {
+					return ERROR_MALFORMED;
+				}
+				
+				if(Long.compareUnsigned(value, maxValue) >= 0 && (value != maxValue || digit > maxDigit)) {
+					overflow = true;
+					continue;
+				}
+				
+				value = value * radix + digit;
+			}
+			
+			return overflow ? ERROR_OVERFLOW : OK;
+		}
+		
+		// accumulate as a negative number so that the smallest value fits
+		final long limit = type == TYPE_LONG ? (negate ? Long.MIN_VALUE : -Long.MAX_VALUE) : (negate ? Integer.MIN_VALUE : -Integer.MAX_VALUE);
+		final long multiplyMin = limit / radix;
+		for( ; index < end; index++) {
+			int digit = digit(charAt(cs, ca, ba, index), radix);
+			if(digit < 0) {
+				return ERROR_MALFORMED;
+			}
+			
+			if(value < multiplyMin || value * radix < limit + digit) {
+				overflow = true;
+				continue;
 			}
 			
-			number = number.substring(1);
+			value = value * radix - digit;
+		}
+		
+		return overflow ? ERROR_OVERFLOW : OK;
+	}
+	
+	/**
+	 * Read eight characters starting at the given index and pack them into a
+	 * <code>long</code>, the first character in the lowest byte. Characters
+	 * outside the ASCII range result in a value that is not all digits.
+	 * 
+	 * @param cs the character sequence source, or <code>null</code>
+	 * @param ca the character array source, or <code>null</code>
+	 * @param ba the byte array source, or <code>null</code>
+	 * @param index the index of the first character
+	 * @return the packed characters
+	 */
+	private static long read8(CharSequence cs, char[] ca, byte[] ba, int index) {
+		if(ba != null) {
+			return (ba[index] & 0xFFL)
+					| (ba[index + 1] & 0xFFL) << 8
+					| (ba[index + 2] & 0xFFL) << 16
+					| (ba[index + 3] & 0xFFL) << 24
+					| (ba[index + 4] & 0xFFL) << 32
+					| (ba[index + 5] & 0xFFL) << 40
+					| (ba[index + 6] & 0xFFL) << 48
+					| (ba[index + 7] & 0xFFL) << 56;
+		}
+		
+		long packed = 0;
+		int wide = 0;
+		for(int offset = 7; offset >= 0; offset--) {
+			int c = ca != null ? ca[index + offset] : cs.charAt(index + offset);
+			wide |= c;
+			packed = (packed << 8) | (c & 0xFF);
+		}
+		
+		return wide < 0x80 ? packed : 0;
+	}
+	
+	/**
+	 * Check if all eight packed bytes are ASCII digits.
+	 * 
+	 * @param chunk the packed bytes
+	 * @return <code>true</code> if all of them are digits
+	 */
+	private static boolean isEightDigits(long chunk) {
+		return (((chunk + 0x4646464646464646L) | (chunk - 0x3030303030303030L)) & 0x8080808080808080L) == 0;
+	}
+	
+	/**
+	 * Convert eight packed ASCII digits to their value. Pairs of digits are
+	 * combined first, then pairs of pairs, then the two halves.
+	 * 
+	 * @param chunk the packed digits, the first digit in the lowest byte
+	 * @return the value of the eight digits
+	 */
+	private static long parseEightDigits(long chunk) {
+		final long mask = 0x000000FF000000FFL;
+		final long multiplier1 = 0x000F424000000064L; // 100 + (1000000 << 32)
+		final long multiplier2 = 0x0000271000000001L; // 1 + (10000 << 32)
+		
+		chunk -= 0x3030303030303030L;
+		chunk = (chunk * 10) + (chunk >>> 8);
+		return (((chunk & mask) * multiplier1) + (((chunk >>> 16) & mask) * multiplier2)) >>> 32;
+	}
+	
+	/**
+	 * Write the given magnitude, with an optional minus sign, into whichever
+	 * buffer is set. The number of digits is worked out first so that the
+	 * digits can be written from right to left straight into place.
+	 * 
+	 * @param negative whether to write a minus sign
+	 * @param magnitude the value to write, as an unsigned value
+	 * @param radix the radix, between 2 and 36
+	 * @param ca the character buffer, or <code>null</code>
+	 * @param ba the byte buffer, or <code>null</code>
+	 * @param offset the index to write the first character at
+	 * @return the number of characters written
+	 */
+	private static int format(boolean negative, long magnitude, int radix, char[] ca, byte[] ba, int offset) {
+		if(radix < Character.MIN_RADIX || radix > Character.MAX_RADIX) {
+			throw new IllegalArgumentException("Radix out of range: " + radix);
+		}
+		
+		final long[] powers = RADIX_POWERS[radix];
+		int digits = 1;
+		while(digits <= powers.length && Long.compareUnsigned(magnitude, powers[digits - 1]) >= 0) {
+			digits++;
 		}
 		
-		int length = number.length();
-		for(int index = 0; index < length; index++) {
-			char digit = number.charAt(index);
+		final int length = negative ? digits + 1 : digits;
+		int index = offset + length;
+		long value = magnitude;
+		if((radix & (radix - 1)) == 0) {
+			final int shift = Integer.numberOfTrailingZeros(radix);
+			final int mask = radix - 1;
+			do {
+				put(ca, ba, --index, DIGITS[(int) value & mask]);
+				value >>>= shift;
+			} while(value != 0);
+		} else if(radix == 10) {
+			// bring unsigned values into the signed range first
+			if(value < 0) {
+				long quotient = Long.divideUnsigned(value, 100);
+				int pair = (int) (value - quotient * 100);
+				put(ca, ba, --index, DIGIT_PAIRS[2 * pair + 1]);
+				put(ca, ba, --index, DIGIT_PAIRS[2 * pair]);
+				value = quotient;
+			}
+			
+			while(value > Integer.MAX_VALUE) {
+				long quotient = value / 100;
+				int pair = (int) (value - quotient * 100);
+				put(ca, ba, --index, DIGIT_PAIRS[2 * pair + 1]);
+				put(ca, ba, --index, DIGIT_PAIRS[2 * pair]);
+				value = quotient;
+			}
 			
-			// sanitize the digit
-			if(!(digit >= '0' && digit <= '9')) {
-				throw new IllegalArgumentException("Number contains characters other than digits at index " + index);
+			// the rest fits in an int, which divides faster
+			int small = (int) value;
+			while(small >= 100) {
+				int quotient = small / 100;
+				int pair = small - quotient * 100;
+				put(ca, ba, --index, DIGIT_PAIRS[2 * pair + 1]);
+				put(ca, ba, --index, DIGIT_PAIRS[2 * pair]);
+				small = quotient;
 			}
 			
-			digit = (char) (digit - '0');
+			if(small >= 10) {
+				put(ca, ba, --index, DIGIT_PAIRS[2 * small + 1]);
+				put(ca, ba, --index, DIGIT_PAIRS[2 * small]);
+			} else {
+				put(ca, ba, --index, DIGITS[small]);
+			}
+		} else {
+			if(value < 0) {
+				long quotient = Long.divideUnsigned(value, radix);
+				put(ca, ba, --index, DIGITS[(int) (value - quotient * radix)]);
+				value = quotient;
+			}
 			
-			result += (digit * Math.pow(10, (length - index - 1)));
+			do {
+				long quotient = value / radix;
+				put(ca, ba, --index, DIGITS[(int) (value - quotient * radix)]);
+				value = quotient;
+			} while(value != 0);
+		}
+		
+		if(negative) {
+			put(ca, ba, --index, '-');
+		}
+		
+		return length;
+	}
+	
+	/**
+	 * Return the value of the given character as a digit in the radix.
+	 * 
+	 * @param c the character
+	 * @param radix the radix
+	 * @return the value of the digit, or <code>-1</code> if it is not a digit in the radix
+	 */
+	private static int digit(int c, int radix) {
+		if(c >= DIGIT_VALUES.length) {
+			return -1;
+		}
+		
+		int digit = DIGIT_VALUES[c];
+		return digit < radix ? digit : -1;
+	}
+	
+	/**
+	 * Store a character into whichever buffer is set.
+	 * 
+	 * @param ca the character buffer, or <code>null</code>
+	 * @param ba the byte buffer, or <code>null</code>
+	 * @param index the index to write at
+	 * @param c the character
+	 */
+	private static void put(char[] ca, byte[] ba, int index, char c) {
+		if(ca != null) {
+			ca[index] = c;
+		} else {
+			ba[index] = (byte) c;
+		}
+	}
+	
+	/**
+	 * Return the character at the given index from whichever source is set.
+	 * 
+	 * @param cs the character sequence source, or <code>null</code>
+	 * @param ca the character array source, or <code>null</code>
+	 * @param ba the byte array source, or <code>null</code>
+	 * @param index the index to read
+	 * @return the character
+	 */
+	private static int charAt(CharSequence cs, char[] ca, byte[] ba, int index) {
+		if(ba != null) {
+			return ba[index] & 0xFF;
+		}
+		
+		if(ca != null) {
+			return ca[index];
+		}
+		
+		return cs.charAt(index);
+	}
+	
+	/**
+	 * Check if the given character is white space to be trimmed.
+	 * 
+	 * @param c the character to check
+	 * @return <code>true</code> for control characters and space
+	 */
+	private static boolean isWhitespace(int c) {
+		return c <= ' ';
+	}
+	
+	/**
+	 * Create the exception for the given error status.
+	 * 
+	 * @param status the error status
+	 * @param cs the character sequence source, or <code>null</code>
+	 * @param ca the character array source, or <code>null</code>
+	 * @param ba the byte array source, or <code>null</code>
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @return the exception to throw
+	 */
+	private static NumberFormatException exception(int status, CharSequence cs, char[] ca, byte[] ba, int start, int end) {
+		if(status == ERROR_EMPTY) {
+			return new NumberFormatException("Number cannot be null/empty.");
+		}
+		
+		StringBuilder number = new StringBuilder(end - start);
+		for(int index = start; index < end; index++) {
+			number.append((char) charAt(cs, ca, ba, index));
 		}
 		
-		// if negative, do it
-		if(negate) {
-			result = 0 - result;
+		if(status == ERROR_OVERFLOW) {
+			return new NumberFormatException("Number is out of range: " + number);
 		}
 		
-		// return the final result
-		return result;
+		return new NumberFormatException("Number contains characters other than digits: " + number);
 	}
 
 }
@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ * 
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * 
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.sangupta.keepwalking;
+
+import java.util.Random;
+
+/**
+ * Compares {@link AsciiToInteger} against {@link Integer#parseInt(String)}
+ * and {@link Long#parseLong(String)} on random numbers of varying length.
+ * Each round is run a few times to let the JIT warm up, and only the last
+ * timings should be taken seriously.
+ * 
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class AsciiToIntegerBenchmark {
+	
+	private static final int COUNT = 1000000;
+	
+	private static final int ROUNDS = 10;
+	
+	/**
+	 * Command line entry point.
+	 * 
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		Random random = new Random(42);
+		
+		String[] ints = new String[COUNT];
+		String[] longs = new String[COUNT];
+		for(int index = 0; index < COUNT; index++) {
+			ints[index] = String.valueOf(random.nextInt());
+			longs[index] = String.valueOf(random.nextLong());
+		}
+		
+		for(int round = 0; round < ROUNDS; round++) {
+			long sum = 0;
+			
+			long start = System.nanoTime();
+			for(String number : ints) {
+				sum += Integer.parseInt(number);
+			}
+			long jdkInt = System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			for(String number : ints) {
+				sum -= AsciiToInteger.parseInt(number, 0, number.length());
+			}
+			long swarInt = System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			for(String number : longs) {
+				sum += Long.parseLong(number);
+			}
+			long jdkLong = System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			for(String number : longs) {
+				sum -= AsciiToInteger.parseLong(number, 0, number.length());
+			}
+			long swarLong = System.nanoTime() - start;
+			
+			if(sum != 0) {
+				throw new IllegalStateException("Parsers disagree.");
+			}
+			
+			System.out.println("Round " + (round + 1) + ": "
+					+ "Integer.parseInt " + nanosPerCall(jdkInt) + " ns, AsciiToInteger.parseInt " + nanosPerCall(swarInt) + " ns, "
+					+ "Long.parseLong " + nanosPerCall(jdkLong) + " ns, AsciiToInteger.parseLong " + nanosPerCall(swarLong) + " ns");
+		}
+	}
+	
+	private static String nanosPerCall(long nanos) {
+		return String.format("%.1f", (double) nanos / COUNT);
+	}
+	
+}
@@ -0,0 +1,445 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Describes a file as a list of blocks taken from an older version of it and
+ * literal bytes, the way rsync does. The older file, the base, is cut into
+ * blocks and a weak rolling checksum and a strong MD5 hash are kept for each.
+ * The newer file is then scanned one byte at a time: the weak checksum of
+ * the window at each position is updated in constant time, and only when it
+ * matches a block is the strong hash computed. A matching window becomes a
+ * reference to the block; bytes between matches are written out as they are.
+ * The size of the delta thus follows the size of the edits, not of the file.
+ *
+ * A delta is the block size followed by a list of operations:
+ * <code>COPY start count</code> to copy a run of blocks of the base,
+ * <code>LITERAL length bytes</code> to insert bytes, and <code>END</code>.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class BlockDelta {
+
+	/**
+	 * Smallest block size used.
+	 */
+	public static final int MIN_BLOCK_SIZE = 512;
+
+	/**
+	 * Largest block size used.
+	 */
+	public static final int MAX_BLOCK_SIZE = 64 * 1024;
+
+	private static final byte OP_END = 0;
+
+	private static final byte OP_COPY = 1;
+
+	private static final byte OP_LITERAL = 2;
+
+	/**
+	 * Size of the window buffer the newer file is scanned through, as a
+	 * multiple of the block size.
+	 */
+	private static final int WINDOW_BLOCKS = 16;
+
+	/**
+	 * Return the block size used for a base of the given size: about the
+	 * square root of the size, so that the number of blocks and the size
+	 * of each grow alike.
+	 *
+	 * @param size the size of the base in bytes
+	 * @return the block size
+	 */
+	public static int blockSizeFor(long size) {
+		long blockSize = (long) Math.sqrt(size);
+		blockSize = (blockSize + 7) & ~7L;
+		return (int) Math.max(MIN_BLOCK_SIZE, Math.min(MAX_BLOCK_SIZE, blockSize));
+	}
+
+	/**
+	 * Write the delta that turns the base into the target.
+	 *
+	 * @param base the older version of the file
+	 * @param target the newer version of the file
+	 * @param out the stream to write the delta to
+	 * @return the number of literal bytes written
+	 * @throws IOException if a file cannot be read or the delta written
+	 */
+	public static long write(Path base, Path target, DataOutputStream out) throws IOException {
+		final int blockSize = blockSizeFor(Files.size(base));
+		final Signature signature = new Signature(base, blockSize);
+
+		out.writeInt(blockSize);
+
+		final MessageDigest md5 = md5();
+		final InputStream in = Files.newInputStream(target);
+		try {
+			byte[] buffer = new byte[blockSize * WINDOW_BLOCKS];
+			int end = fill(in, buffer, 0);
+			int position = 0;
+			int literalStart = 0;
+			long literals = 0;
+
+			// the pending run of consecutive blocks
+			int runStart = -1;
+			int runCount = 0;
+
+			boolean rolling = false;
+			int a = 0;
+			int b = 0;
+			while(true) {
+				if(position + blockSize > end) {
+					// make room for the next window, writing out the literal so far
+					if(position > literalStart) {
+						runCount = flushRun(out, runStart, runCount);
+						literals += writeLiteral(out, buffer, literalStart, position);
+					}
+
+					System.arraycopy(buffer, position, buffer, 0, end - position);
+					end -= position;
+					position = 0;
+					literalStart = 0;
+					end = fill(in, buffer, end);
+					if(end < blockSize) {
+						break;
+					}
+				}
+
+				if(!rolling) {
+					a = 0;
+					b = 0;
+					for(int index = 0; index < blockSize; index++) {
+						int value = buffer[position + index] & 0xff;
+						a += value;
+						b += (blockSize - index) * value;
+					}
+
+					rolling = true;
+				}
+
+				int block = signature.find(a & 0xffff, b & 0xffff, buffer, position, md5);
+				if(block >= 0) {
+					if(position > literalStart) {
+						runCount = flushRun(out, runStart, runCount);
+						literals += writeLiteral(out, buffer, literalStart, position);
+					}
+
+					if(runCount > 0 && runStart + runCount == block) {
+						runCount++;
+					} else {
+						flushRun(out, runStart, runCount);
+						runStart = block;
+						runCount = 1;
+					}
+
+					position += blockSize;
+					literalStart = position;
+					rolling = false;
+					continue;
+				}
+
+				if(position + blockSize == end) {
+					// load more before rolling past the end of the buffer
+					if(end < buffer.length) {
+						int more = fill(in, buffer, end);
+						if(more == end) {
+							break;
+						}
+
+						end = more;
+					} else {
+						rolling = false;
+						position++;
+						continue;
+					}
+				}
+
+				int out0 = buffer[position] & 0xff;
+				int in0 = buffer[position + blockSize] & 0xff;
+				a += in0 - out0;
+				b += a - blockSize * out0;
+				position++;
+			}
+
+			flushRun(out, runStart, runCount);
+			if(end > literalStart) {
+				literals += writeLiteral(out, buffer, literalStart, end);
+			}
+
+			out.writeByte(OP_END);
+			return literals;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Rebuild the target from the base and a delta.
+	 *
+	 * @param base the older version of the file
+	 * @param in the stream to read the delta from
+	 * @param out the stream to write the target to
+	 * @throws IOException if the base cannot be read or the delta is invalid
+	 */
+	public static void apply(Path base, DataInputStream in, OutputStream out) throws IOException {
+		final int blockSize = in.readInt();
+		if(blockSize < MIN_BLOCK_SIZE || blockSize > MAX_BLOCK_SIZE) {
+			throw new IOException("Invalid block size in delta: " + blockSize);
+		}
+
+		final FileChannel channel = FileChannel.open(base, StandardOpenOption.READ);
+		try {
+			final long baseSize = channel.size();
+			final byte[] buffer = new byte[blockSize * WINDOW_BLOCKS];
+			final ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+			while(true) {
+				byte op = in.readByte();
+				if(op == OP_END) {
+					return;
+				}
+
+				if(op == OP_COPY) {
+					long start = (long) in.readInt() * blockSize;
+					long length = (long) in.readInt() * blockSize;
+					if(start < 0 || length < 0 || start + length > baseSize) {
+						throw new IOException("Delta refers to blocks outside of the base file");
+					}
+
+					while(length > 0) {
+						wrapped.clear();
+						wrapped.limit((int) Math.min(buffer.length, length));
+						while(wrapped.hasRemaining()) {
+							if(channel.read(wrapped, start + wrapped.position()) == -1) {
+								throw new EOFException("Base file ended early");
+							}
+						}
+
+						out.write(buffer, 0, wrapped.position());
+						start += wrapped.position();
+						length -= wrapped.position();
+					}
+				} else if(op == OP_LITERAL) {
+					int length = in.readInt();
+					if(length < 0) {
+						throw new IOException("Invalid literal length in delta: " + length);
+					}
+
+					while(length > 0) {
+						int chunk = Math.min(buffer.length, length);
+						in.readFully(buffer, 0, chunk);
+						out.write(buffer, 0, chunk);
+						length -= chunk;
+					}
+				} else {
+					throw new IOException("Invalid operation in delta: " + op);
+				}
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Write the pending run of blocks, if any.
+	 *
+	 * @return the length of the run left pending, always zero
+	 */
+	private static int flushRun(DataOutputStream out, int runStart, int runCount) throws IOException {
+		if(runCount > 0) {
+			out.writeByte(OP_COPY);
+			out.writeInt(runStart);
+			out.writeInt(runCount);
+		}
+
+		return 0;
+	}
+
+	private static int writeLiteral(DataOutputStream out, byte[] buffer, int from, int to) throws IOException {
+		out.writeByte(OP_LITERAL);
+		out.writeInt(to - from);
+		out.write(buffer, from, to - from);
+		return to - from;
+	}
+
+	/**
+	 * Read from the stream until the buffer is full or the stream ends.
+	 *
+	 * @return the new end of the data in the buffer
+	 */
+	private static int fill(InputStream in, byte[] buffer, int end) throws IOException {
+		while(end < buffer.length) {
+			int read = in.read(buffer, end, buffer.length - end);
+			if(read == -1) {
+				break;
+			}
+
+			end += read;
+		}
+
+		return end;
+	}
+
+	private static MessageDigest md5() {
+		try {
+			return MessageDigest.getInstance("MD5");
+		} catch(NoSuchAlgorithmException e) {
+			throw new IllegalStateException("MD5 is not available", e);
+		}
+	}
+
+	/**
+	 * The checksums of the full blocks of a base file, with an index from
+	 * weak checksum to blocks.
+	 */
+	private static class Signature {
+
+		private final int blockSize;
+
+		/**
+		 * Weak checksum of each block.
+		 */
+		private final int[] weak;
+
+		/**
+		 * Strong hash of each block, MD5 cut to eight bytes.
+		 */
+		private final long[] strong;
+
+		/**
+		 * First block of each hash bucket, <code>-1</code> if none.
+		 */
+		private final int[] heads;
+
+		/**
+		 * Next block of the same bucket, <code>-1</code> if none.
+		 */
+		private final int[] next;
+
+		Signature(Path base, int blockSize) throws IOException {
+			this.blockSize = blockSize;
+
+			final int blocks = (int) Math.min(Integer.MAX_VALUE - 8, Files.size(base) / blockSize);
+			this.weak = new int[blocks];
+			this.strong = new long[blocks];
+			this.next = new int[blocks];
+
+			int buckets = Integer.highestOneBit(Math.max(1, blocks) * 2);
+			this.heads = new int[buckets];
+			Arrays.fill(this.heads, -1);
+
+			final MessageDigest md5 = md5();
+			final byte[] block = new byte[blockSize];
+			final InputStream in = Files.newInputStream(base);
+			try {
+				for(int index = 0; index < blocks; index++) {
+					if(fill(in, block, 0) != blockSize) {
+						throw new EOFException("Base file changed while reading");
+					}
+
+					int a = 0;
+					int b = 0;
+					for(int i = 0; i < blockSize; i++) {
+						int value = block[i] & 0xff;
+						a += value;
+						b += (blockSize - i) * value;
+					}
+
+					int checksum = (a & 0xffff) | ((b & 0xffff) << 16);
+					this.weak[index] = checksum;
+
+					md5.update(block, 0, blockSize);
+					this.strong[index] = toLong(md5.digest());
+
+					int bucket = mix(checksum) & (buckets - 1);
+					this.next[index] = this.heads[bucket];
+					this.heads[bucket] = index;
+				}
+			} finally {
+				in.close();
+			}
+		}
+
+		/**
+		 * Find a block equal to the window at the given position.
+		 *
+		 * @return the index of the block, or <code>-1</code> if none
+		 */
+		int find(int a, int b, byte[] buffer, int position, MessageDigest md5) {
+			if(this.weak.length == 0) {
+				return -1;
+			}
+
+			final int checksum = a | (b << 16);
+			boolean hashed = false;
+			long hash = 0;
+			int block = this.heads[mix(checksum) & (this.heads.length - 1)];
+			for(; block != -1; block = this.next[block]) {
+				if(this.weak[block] != checksum) {
+					continue;
+				}
+
+				// the strong hash is only needed once the weak checksum matches
+				if(!hashed) {
+					md5.update(buffer, position, this.blockSize);
+					hash = toLong(md5.digest());
+					hashed = true;
+				}
+
+				if(this.strong[block] == hash) {
+					return block;
+				}
+			}
+
+			return -1;
+		}
+
+		private static int mix(int checksum) {
+			return checksum ^ (checksum >>> 16) * 0x45d9f3b;
+		}
+
+		private static long toLong(byte[] digest) {
+			long value = 0;
+			for(int index = 0; index < 8; index++) {
+				value = (value << 8) | (digest[index] & 0xff);
+			}
+
+			return value;
+		}
+
+	}
+
+}
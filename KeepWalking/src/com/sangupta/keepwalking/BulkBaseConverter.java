@@ -0,0 +1,520 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.text.ParsePosition;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Batch version of {@link NumberToBase10}: converts many numbers of unknown
+ * base held in one buffer, like a column of identifiers, straight into a
+ * primitive array. The base of each number is inferred in the same pass that
+ * reads its digits, as one more than its largest digit; letters in either
+ * case are digits from 10 to 35. Numbers are separated by the given delimiter
+ * or by line breaks, the same way as in {@link BulkNumberParser}, and white
+ * space around a number is ignored.
+ *
+ * Conversion stops at the end of the input, when the output array is full,
+ * or at the first number that is malformed or, for <code>long</code> output,
+ * too large. The given {@link ParsePosition} receives the index to resume
+ * from and, for a bad number, the index where that number starts as its
+ * error index.
+ *
+ * Large inputs can be converted in parallel on a {@link ForkJoinPool}: the
+ * input is cut into chunks at line breaks, the numbers in every chunk are
+ * counted in parallel, a prefix sum over the counts gives each chunk its
+ * place in the output, and then all chunks are converted in parallel. The
+ * results are the same as those of the sequential methods, except that
+ * values after a bad number may also have been written to the output.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class BulkBaseConverter {
+
+	/**
+	 * Approximate number of characters converted by a single task.
+	 */
+	public static final int PARALLEL_CHUNK_SIZE = 256 * 1024;
+
+	/**
+	 * Value of each ASCII digit or letter, <code>-1</code> for other characters.
+	 */
+	private static final byte[] DIGIT_VALUES = new byte[128];
+
+	static {
+		Arrays.fill(DIGIT_VALUES, (byte) -1);
+		for(int index = 0; index < 10; index++) {
+			DIGIT_VALUES['0' + index] = (byte) index;
+		}
+
+		for(int index = 0; index < 26; index++) {
+			DIGIT_VALUES['A' + index] = (byte) (10 + index);
+			DIGIT_VALUES['a' + index] = (byte) (10 + index);
+		}
+	}
+
+	/**
+	 * Convert the delimited numbers in the given range of the array to longs.
+	 *
+	 * @param data the ASCII bytes to convert
+	 * @param from the index of the first byte, inclusive
+	 * @param to the index of the last byte, exclusive
+	 * @param delimiter the character between two numbers on the same line
+	 * @param out the array to store the values in
+	 * @param outOffset the index in the array to store the first value at
+	 * @param position receives the index to resume from and the error index
+	 * @return the number of values stored
+	 */
+	public static int toLongs(byte[] data, int from, int to, char delimiter, long[] out, int outOffset, ParsePosition position) {
+		return convert(null, data, from, to, delimiter, null, out, outOffset, out.length - outOffset, false, position);
+	}
+
+	/**
+	 * Convert the delimited numbers in the given range of the characters to
+	 * longs.
+	 *
+	 * @param data the characters to convert
+	 * @param from the index of the first character, inclusive
+	 * @param to the index of the last character, exclusive
+	 * @param delimiter the character between two numbers on the same line
+	 * @param out the array to store the values in
+	 * @param outOffset the index in the array to store the first value at
+	 * @param position receives the index to resume from and the error index
+	 * @return the number of values stored
+	 */
+	public static int toLongs(CharSequence data, int from, int to, char delimiter, long[] out, int outOffset, ParsePosition position) {
+		return convert(data, null, from, to, delimiter, null, out, outOffset, out.length - outOffset, false, position);
+	}
+
+	/**
+	 * Convert the delimited numbers in the given range of the array to
+	 * doubles. Each value is the double nearest to the exact value.
+	 *
+	 * @param data the ASCII bytes to convert
+	 * @param from the index of the first byte, inclusive
+	 * @param to the index of the last byte, exclusive
+	 * @param delimiter the character between two numbers on the same line
+	 * @param out the array to store the values in
+	 * @param outOffset the index in the array to store the first value at
+	 * @param position receives the index to resume from and the error index
+	 * @return the number of values stored
+	 */
+	public static int toDoubles(byte[] data, int from, int to, char delimiter, double[] out, int outOffset, ParsePosition position) {
+		return convert(null, data, from, to, delimiter, out, null, outOffset, out.length - outOffset, false, position);
+	}
+
+	/**
+	 * Convert the delimited numbers in the given range of the characters to
+	 * doubles. Each value is the double nearest to the exact value.
+	 *
+	 * @param data the characters to convert
+	 * @param from the index of the first character, inclusive
+	 * @param to the index of the last character, exclusive
+	 * @param delimiter the character between two numbers on the same line
+	 * @param out the array to store the values in
+	 * @param outOffset the index in the array to store the first value at
+	 * @param position receives the index to resume from and the error index
+	 * @return the number of values stored
+	 */
+	public static int toDoubles(CharSequence data, int from, int to, char delimiter, double[] out, int outOffset, ParsePosition position) {
+		return convert(data, null, from, to, delimiter, out, null, outOffset, out.length - outOffset, false, position);
+	}
+
+	/**
+	 * Convert the delimited numbers in the given range of the array to longs,
+	 * in parallel on the given pool.
+	 *
+	 * @param data the ASCII bytes to convert
+	 * @param from the index of the first byte, inclusive
+	 * @param to the index of the last byte, exclusive
+	 * @param delimiter the character between two numbers on the same line
+	 * @param out the array to store the values in
+	 * @param outOffset the index in the array to store the first value at
+	 * @param position receives the index to resume from and the error index
+	 * @param pool the pool to run on
+	 * @return the number of values stored
+	 */
+	public static int toLongsParallel(byte[] data, int from, int to, char delimiter, long[] out, int outOffset, ParsePosition position, ForkJoinPool pool) {
+		return convertParallel(null, data, from, to, delimiter, null, out, outOffset, position, pool);
+	}
+
+	/**
+	 * Convert the delimited numbers in the given range of the characters to
+	 * longs, in parallel on the given pool.
+	 *
+	 * @param data the characters to convert
+	 * @param from the index of the first character, inclusive
+	 * @param to the index of the last character, exclusive
+	 * @param delimiter the character between two numbers on the same line
+	 * @param out the array to store the values in
+	 * @param outOffset the index in the array to store the first value at
+	 * @param position receives the index to resume from and the error index
+	 * @param pool the pool to run on
+	 * @return the number of values stored
+	 */
+	public static int toLongsParallel(CharSequence data, int from, int to, char delimiter, long[] out, int outOffset, ParsePosition position, ForkJoinPool pool) {
+		return convertParallel(data, null, from, to, delimiter, null, out, outOffset, position, pool);
+	}
+
+	/**
+	 * Convert the delimited numbers in the given range of the array to
+	 * doubles, in parallel on the given pool.
+	 *
+	 * @param data the ASCII bytes to convert
+	 * @param from the index of the first byte, inclusive
+	 * @param to the index of the last byte, exclusive
+	 * @param delimiter the character between two numbers on the same line
+	 * @param out the array to store the values in
+	 * @param outOffset the index in the array to store the first value at
+	 * @param position receives the index to resume from and the error index
+	 * @param pool the pool to run on
+	 * @return the number of values stored
+	 */
+	public static int toDoublesParallel(byte[] data, int from, int to, char delimiter, double[] out, int outOffset, ParsePosition position, ForkJoinPool pool) {
+		return convertParallel(null, data, from, to, delimiter, out, null, outOffset, position, pool);
+	}
+
+	/**
+	 * Convert the delimited numbers in the given range of the characters to
+	 * doubles, in parallel on the given pool.
+	 *
+	 * @param data the characters to convert
+	 * @param from the index of the first character, inclusive
+	 * @param to the index of the last character, exclusive
+	 * @param delimiter the character between two numbers on the same line
+	 * @param out the array to store the values in
+	 * @param outOffset the index in the array to store the first value at
+	 * @param position receives the index to resume from and the error index
+	 * @param pool the pool to run on
+	 * @return the number of values stored
+	 */
+	public static int toDoublesParallel(CharSequence data, int from, int to, char delimiter, double[] out, int outOffset, ParsePosition position, ForkJoinPool pool) {
+		return convertParallel(data, null, from, to, delimiter, out, null, outOffset, position, pool);
+	}
+
+	/**
+	 * Split the input into numbers and convert them into whichever output
+	 * array is set. Exactly one of the two inputs is non-null.
+	 *
+	 * @param cs the character input, or <code>null</code>
+	 * @param ba the byte input, or <code>null</code>
+	 * @param from the index of the first character, inclusive
+	 * @param to the index of the last character, exclusive
+	 * @param delimiter the character between two numbers on the same line
+	 * @param doubles the output for doubles, or <code>null</code>
+	 * @param longs the output for longs, or <code>null</code>
+	 * @param outOffset the index in the output to store the first value at
+	 * @param capacity the largest number of values to store
+	 * @param countOnly <code>true</code> to only count the numbers
+	 * @param position receives the index to resume from and the error index
+	 * @return the number of values stored, or counted
+	 */
+	private static int convert(CharSequence cs, byte[] ba, int from, int to, char delimiter, double[] doubles, long[] longs, int outOffset, int capacity, boolean countOnly, ParsePosition position) {
+		byte[] digits = new byte[64];
+
+		position.setErrorIndex(-1);
+
+		int count = 0;
+		int index = from;
+		boolean afterDelimiter = false;
+		while(count < capacity) {
+			// a delimiter must be followed by a number, even if empty
+			if(!afterDelimiter) {
+				while(index < to && isLineBreak(charAt(cs, ba, index))) {
+					index++;
+				}
+
+				if(index == to) {
+					break;
+				}
+			}
+
+			final int start = index;
+			int radix = 1;
+			int length = 0;
+			boolean malformed = false;
+			boolean trailingSpace = false;
+			int c = 0;
+			for( ; index < to; index++) {
+				c = charAt(cs, ba, index);
+				if(c == delimiter || isLineBreak(c)) {
+					break;
+				}
+
+				if(countOnly) {
+					continue;
+				}
+
+				int digit = c < 128 ? DIGIT_VALUES[c] : -1;
+				if(digit == -1) {
+					// white space is allowed only around the number
+					if(c > ' ') {
+						malformed = true;
+					} else if(length > 0) {
+						trailingSpace = true;
+					}
+					continue;
+				}
+
+				if(trailingSpace) {
+					// a digit after the white space that ended the number
+					malformed = true;
+				}
+
+				if(length == digits.length) {
+					digits = Arrays.copyOf(digits, length * 2);
+				}
+
+				digits[length++] = (byte) digit;
+				if(digit >= radix) {
+					radix = digit + 1;
+				}
+			}
+
+			afterDelimiter = index < to && c == delimiter;
+			final int end = index;
+			if(afterDelimiter) {
+				index++;
+			}
+
+			if(!countOnly) {
+				if(malformed || length == 0 || !store(cs, ba, start, end, digits, length, radix, doubles, longs, outOffset + count)) {
+					position.setErrorIndex(start);
+					break;
+				}
+			}
+
+			count++;
+		}
+
+		position.setIndex(index);
+		return count;
+	}
+
+	/**
+	 * Compute the value of the digits and store it. Short numbers are worked
+	 * out with Horner's rule on the digits already read, longer ones go
+	 * through {@link NumberToBase10#toBigInteger(CharSequence, int)}.
+	 *
+	 * @return <code>false</code> if the value does not fit in a <code>long</code> output
+	 */
+	private static boolean store(CharSequence cs, byte[] ba, int start, int end, byte[] digits, int length, int radix, double[] doubles, long[] longs, int outIndex) {
+		if(length <= NumberToBase10.DIGITS_PER_LONG[radix]) {
+			long value = 0;
+			for(int index = 0; index < length; index++) {
+				value = value * radix + digits[index];
+			}
+
+			if(longs != null) {
+				longs[outIndex] = value;
+			} else {
+				doubles[outIndex] = value;
+			}
+
+			return true;
+		}
+
+		CharSequence number = cs != null ? cs.subSequence(start, end) : new String(ba, start, end - start, StandardCharsets.ISO_8859_1);
+		number = number.toString().trim();
+		BigInteger value = NumberToBase10.toBigInteger(number, radix);
+		if(longs != null) {
+			if(value.bitLength() >= Long.SIZE) {
+				return false;
+			}
+
+			longs[outIndex] = value.longValue();
+		} else {
+			doubles[outIndex] = value.doubleValue();
+		}
+
+		return true;
+	}
+
+	/**
+	 * Convert in parallel, as described in the class documentation.
+	 */
+	private static int convertParallel(CharSequence cs, byte[] ba, int from, int to, char delimiter, double[] doubles, long[] longs, int outOffset, ParsePosition position, ForkJoinPool pool) {
+		final int capacity = (doubles != null ? doubles.length : longs.length) - outOffset;
+		if(to - from <= PARALLEL_CHUNK_SIZE) {
+			return convert(cs, ba, from, to, delimiter, doubles, longs, outOffset, capacity, false, position);
+		}
+
+		// cut the input after line breaks, so that no number spans two chunks
+		int[] bounds = new int[16];
+		int chunks = 0;
+		bounds[0] = from;
+		while(bounds[chunks] < to) {
+			int end = Math.min(bounds[chunks] + PARALLEL_CHUNK_SIZE, to);
+			while(end < to && !isLineBreak(charAt(cs, ba, end))) {
+				end++;
+			}
+
+			while(end < to && isLineBreak(charAt(cs, ba, end))) {
+				end++;
+			}
+
+			if(chunks + 2 > bounds.length) {
+				bounds = Arrays.copyOf(bounds, bounds.length * 2);
+			}
+
+			bounds[++chunks] = end;
+		}
+
+		// count, then place every chunk after the ones before it
+		final int[] counts = new int[chunks];
+		final ParsePosition[] positions = new ParsePosition[chunks];
+		pool.invoke(new ChunkTask(cs, ba, bounds, delimiter, null, null, null, 0, 0, counts, positions, 0, chunks));
+
+		final int[] offsets = new int[chunks];
+		int total = 0;
+		for(int chunk = 0; chunk < chunks; chunk++) {
+			offsets[chunk] = total;
+			total += counts[chunk];
+		}
+
+		pool.invoke(new ChunkTask(cs, ba, bounds, delimiter, doubles, longs, offsets, outOffset, capacity, counts, positions, 0, chunks));
+
+		// the first chunk that stopped early decides where the whole run stopped
+		position.setErrorIndex(-1);
+		position.setIndex(to);
+		int converted = 0;
+		for(int chunk = 0; chunk < chunks; chunk++) {
+			converted += counts[chunk];
+			if(positions[chunk].getErrorIndex() != -1 || positions[chunk].getIndex() < bounds[chunk + 1]) {
+				position.setIndex(positions[chunk].getIndex());
+				position.setErrorIndex(positions[chunk].getErrorIndex());
+				break;
+			}
+		}
+
+		return converted;
+	}
+
+	/**
+	 * Task that counts or converts the numbers in a range of chunks.
+	 */
+	private static class ChunkTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final CharSequence cs;
+
+		private final byte[] ba;
+
+		/**
+		 * The start of every chunk, followed by the end of the last one.
+		 */
+		private final int[] bounds;
+
+		private final char delimiter;
+
+		private final double[] doubles;
+
+		private final long[] longs;
+
+		/**
+		 * Where each chunk starts in the output, <code>null</code> to count.
+		 */
+		private final int[] offsets;
+
+		private final int outOffset;
+
+		private final int capacity;
+
+		/**
+		 * Receives the number of values counted or stored for every chunk.
+		 */
+		private final int[] counts;
+
+		/**
+		 * Receives where conversion stopped in every chunk.
+		 */
+		private final ParsePosition[] positions;
+
+		private final int first;
+
+		private final int last;
+
+		ChunkTask(CharSequence cs, byte[] ba, int[] bounds, char delimiter, double[] doubles, long[] longs, int[] offsets, int outOffset, int capacity, int[] counts, ParsePosition[] positions, int first, int last) {
+			this.cs = cs;
+			this.ba = ba;
+			this.bounds = bounds;
+			this.delimiter = delimiter;
+			this.doubles = doubles;
+			this.longs = longs;
+			this.offsets = offsets;
+			this.outOffset = outOffset;
+			this.capacity = capacity;
+			this.counts = counts;
+			this.positions = positions;
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		protected void compute() {
+			if(this.last - this.first > 1) {
+				int mid = (this.first + this.last) >>> 1;
+				invokeAll(split(this.first, mid), split(mid, this.last));
+				return;
+			}
+
+			final int chunk = this.first;
+			final ParsePosition position = new ParsePosition(this.bounds[chunk]);
+			if(this.offsets == null) {
+				this.counts[chunk] = convert(this.cs, this.ba, this.bounds[chunk], this.bounds[chunk + 1], this.delimiter, null, null, 0, Integer.MAX_VALUE, true, position);
+				return;
+			}
+
+			final int room = Math.max(this.capacity - this.offsets[chunk], 0);
+			this.counts[chunk] = convert(this.cs, this.ba, this.bounds[chunk], this.bounds[chunk + 1], this.delimiter, this.doubles, this.longs, this.outOffset + this.offsets[chunk], room, false, position);
+			this.positions[chunk] = position;
+		}
+
+		private ChunkTask split(int from, int to) {
+			return new ChunkTask(this.cs, this.ba, this.bounds, this.delimiter, this.doubles, this.longs, this.offsets, this.outOffset, this.capacity, this.counts, this.positions, from, to);
+		}
+
+	}
+
+	/**
+	 * Return the character at the given index from whichever input is set.
+	 */
+	private static int charAt(CharSequence cs, byte[] ba, int index) {
+		return ba != null ? ba[index] & 0xFF : cs.charAt(index);
+	}
+
+	/**
+	 * Check if the given character ends a line.
+	 *
+	 * @param c the character to check
+	 * @return <code>true</code> for carriage return and line feed
+	 */
+	private static boolean isLineBreak(int c) {
+		return c == '\n' || c == '\r';
+	}
+
+}
@@ -0,0 +1,274 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.nio.ByteBuffer;
+import java.text.ParsePosition;
+import java.util.Arrays;
+
+/**
+ * Parses buffers of delimited ASCII numbers, like a CSV file of telemetry
+ * values, straight into primitive arrays. Values are separated by the given
+ * delimiter or by line breaks; runs of line breaks are treated as one. No
+ * object is created per value.
+ *
+ * Parsing stops at the end of the input, when the output array is full, or at
+ * the first value that is not a valid number. The given {@link ParsePosition}
+ * receives the index to resume parsing from and, for a bad value, the index
+ * where that value starts as its error index. The input should end on a
+ * value boundary.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class BulkNumberParser {
+
+	/**
+	 * Initial size of the scratch buffer used to copy values out of buffers
+	 * that are not backed by an array.
+	 */
+	private static final int SCRATCH_SIZE = 64;
+
+	/**
+	 * Parse the delimited numbers in the given range of the array as doubles.
+	 *
+	 * @param data the bytes to parse
+	 * @param from the index of the first byte, inclusive
+	 * @param to the index of the last byte, exclusive
+	 * @param delimiter the character between two values on the same line
+	 * @param out the array to store the values in
+	 * @param outOffset the index in the array to store the first value at
+	 * @param position receives the index to resume from and the error index
+	 * @return the number of values stored
+	 */
+	public static int parseDoubles(byte[] data, int from, int to, char delimiter, double[] out, int outOffset, ParsePosition position) {
+		return parse(data, from, to, delimiter, out, null, outOffset, position);
+	}
+
+	/**
+	 * Parse the delimited numbers in the given range of the array as longs.
+	 *
+	 * @param data the bytes to parse
+	 * @param from the index of the first byte, inclusive
+	 * @param to the index of the last byte, exclusive
+	 * @param delimiter the character between two values on the same line
+	 * @param out the array to store the values in
+	 * @param outOffset the index in the array to store the first value at
+	 * @param position receives the index to resume from and the error index
+	 * @return the number of values stored
+	 */
+	public static int parseLongs(byte[] data, int from, int to, char delimiter, long[] out, int outOffset, ParsePosition position) {
+		return parse(data, from, to, delimiter, null, out, outOffset, position);
+	}
+
+	/**
+	 * Parse the delimited numbers between the position and the limit of the
+	 * buffer as doubles. The position of the buffer is moved to where parsing
+	 * stopped; the indices set in the parse position are absolute buffer
+	 * indices.
+	 *
+	 * @param data the buffer to parse
+	 * @param delimiter the character between two values on the same line
+	 * @param out the array to store the values in
+	 * @param outOffset the index in the array to store the first value at
+	 * @param position receives the index to resume from and the error index
+	 * @return the number of values stored
+	 */
+	public static int parseDoubles(ByteBuffer data, char delimiter, double[] out, int outOffset, ParsePosition position) {
+		return parse(data, delimiter, out, null, outOffset, position);
+	}
+
+	/**
+	 * Parse the delimited numbers between the position and the limit of the
+	 * buffer as longs. The position of the buffer is moved to where parsing
+	 * stopped; the indices set in the parse position are absolute buffer
+	 * indices.
+	 *
+	 * @param data the buffer to parse
+	 * @param delimiter the character between two values on the same line
+	 * @param out the array to store the values in
+	 * @param outOffset the index in the array to store the first value at
+	 * @param position receives the index to resume from and the error index
+	 * @return the number of values stored
+	 */
+	public static int parseLongs(ByteBuffer data, char delimiter, long[] out, int outOffset, ParsePosition position) {
+		return parse(data, delimiter, null, out, outOffset, position);
+	}
+
+	/**
+	 * Parse an array range into whichever output array is set.
+	 *
+	 * @param data the bytes to parse
+	 * @param from the index of the first byte, inclusive
+	 * @param to the index of the last byte, exclusive
+	 * @param delimiter the character between two values on the same line
+	 * @param doubles the output for doubles, or <code>null</code>
+	 * @param longs the output for longs, or <code>null</code>
+	 * @param outOffset the index in the output to store the first value at
+	 * @param position receives the index to resume from and the error index
+	 * @return the number of values stored
+	 */
+	private static int parse(byte[] data, int from, int to, char delimiter, double[] doubles, long[] longs, int outOffset, ParsePosition position) {
+		final byte separator = (byte) delimiter;
+		final int capacity = (doubles != null ? doubles.length : longs.length) - outOffset;
+
+		position.setErrorIndex(-1);
+
+		int count = 0;
+		int index = from;
+		boolean afterDelimiter = false;
+		while(count < capacity) {
+			// a delimiter must be followed by a value, even if empty
+			if(!afterDelimiter) {
+				while(index < to && isLineBreak(data[index])) {
+					index++;
+				}
+
+				if(index == to) {
+					break;
+				}
+			}
+
+			final int start = index;
+			while(index < to && data[index] != separator && !isLineBreak(data[index])) {
+				index++;
+			}
+
+			final int end = index;
+			afterDelimiter = index < to && data[index] == separator;
+			if(afterDelimiter) {
+				index++;
+			}
+
+			boolean parsed;
+			if(doubles != null) {
+				parsed = ParseDouble.tryParse(data, start, end, ParseDouble.NO_SEPARATOR, doubles, outOffset + count) == ParseDouble.OK;
+			} else {
+				parsed = AsciiToInteger.tryParseLong(data, start, end, longs, outOffset + count) == AsciiToInteger.OK;
+			}
+
+			if(!parsed) {
+				position.setErrorIndex(start);
+				break;
+			}
+
+			count++;
+		}
+
+		position.setIndex(index);
+		return count;
+	}
+
+	/**
+	 * Parse a buffer into whichever output array is set, copying each value
+	 * into a scratch array if the buffer is not backed by an array.
+	 *
+	 * @param data the buffer to parse
+	 * @param delimiter the character between two values on the same line
+	 * @param doubles the output for doubles, or <code>null</code>
+	 * @param longs the output for longs, or <code>null</code>
+	 * @param outOffset the index in the output to store the first value at
+	 * @param position receives the index to resume from and the error index
+	 * @return the number of values stored
+	 */
+	private static int parse(ByteBuffer data, char delimiter, double[] doubles, long[] longs, int outOffset, ParsePosition position) {
+		if(data.hasArray()) {
+			final int offset = data.arrayOffset();
+			int count = parse(data.array(), offset + data.position(), offset + data.limit(), delimiter, doubles, longs, outOffset, position);
+
+			position.setIndex(position.getIndex() - offset);
+			if(position.getErrorIndex() != -1) {
+				position.setErrorIndex(position.getErrorIndex() - offset);
+			}
+
+			data.position(position.getIndex());
+			return count;
+		}
+
+		final byte separator = (byte) delimiter;
+		final int capacity = (doubles != null ? doubles.length : longs.length) - outOffset;
+		final int to = data.limit();
+		byte[] scratch = new byte[SCRATCH_SIZE];
+
+		position.setErrorIndex(-1);
+
+		int count = 0;
+		int index = data.position();
+		boolean afterDelimiter = false;
+		while(count < capacity) {
+			if(!afterDelimiter) {
+				while(index < to && isLineBreak(data.get(index))) {
+					index++;
+				}
+
+				if(index == to) {
+					break;
+				}
+			}
+
+			final int start = index;
+			int length = 0;
+			byte b;
+			while(index < to && (b = data.get(index)) != separator && !isLineBreak(b)) {
+				if(length == scratch.length) {
+					scratch = Arrays.copyOf(scratch, length * 2);
+				}
+
+				scratch[length++] = b;
+				index++;
+			}
+
+			afterDelimiter = index < to && data.get(index) == separator;
+			if(afterDelimiter) {
+				index++;
+			}
+
+			boolean parsed;
+			if(doubles != null) {
+				parsed = ParseDouble.tryParse(scratch, 0, length, ParseDouble.NO_SEPARATOR, doubles, outOffset + count) == ParseDouble.OK;
+			} else {
+				parsed = AsciiToInteger.tryParseLong(scratch, 0, length, longs, outOffset + count) == AsciiToInteger.OK;
+			}
+
+			if(!parsed) {
+				position.setErrorIndex(start);
+				break;
+			}
+
+			count++;
+		}
+
+		position.setIndex(index);
+		data.position(index);
+		return count;
+	}
+
+	/**
+	 * Check if the given byte ends a line.
+	 *
+	 * @param b the byte to check
+	 * @return <code>true</code> for carriage return and line feed
+	 */
+	private static boolean isLineBreak(byte b) {
+		return b == '\n' || b == '\r';
+	}
+
+}
@@ -0,0 +1,334 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Searches for a byte sequence in data that is too large to be held in memory
+ * as a {@link String}. Data is read from a {@link ReadableByteChannel} into a
+ * single buffer, or mapped from a {@link FileChannel} one window at a time, and
+ * matches that cross chunk boundaries are found by carrying the last
+ * <code>needle length - 1</code> bytes over to the next chunk. All reported
+ * offsets are absolute byte offsets from where the search started.
+ *
+ * The search uses Boyer-Moore-Horspool over bytes. Instances are immutable
+ * and can be shared between threads; each search allocates its own buffer.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class ChannelSearcher {
+
+	/**
+	 * Default size of the read buffer.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Size of each window mapped from a file.
+	 */
+	static final int MAPPED_WINDOW_SIZE = 64 * 1024 * 1024;
+
+	/**
+	 * Callback used to report matches.
+	 */
+	public interface MatchHandler {
+
+		/**
+		 * Invoked for every occurrence of the needle, in increasing order.
+		 *
+		 * @param offset the absolute byte offset where the match starts
+		 * @return <code>true</code> to continue searching, <code>false</code> to stop
+		 */
+		public boolean onMatch(long offset);
+
+	}
+
+	/**
+	 * The bytes being searched for.
+	 */
+	private final byte[] needle;
+
+	/**
+	 * The Horspool shift for each byte value.
+	 */
+	private final int[] skip;
+
+	/**
+	 * The number of bytes read from the channel in one go.
+	 */
+	private final int bufferSize;
+
+	public ChannelSearcher(String needle, Charset charset) {
+		this(needle.getBytes(charset));
+	}
+
+	public ChannelSearcher(byte[] needle) {
+		this(needle, DEFAULT_BUFFER_SIZE);
+	}
+
+	public ChannelSearcher(byte[] needle, int bufferSize) {
+		if(needle == null || needle.length == 0) {
+			throw new IllegalArgumentException("Needle cannot be null/empty.");
+		}
+
+		if(bufferSize <= 0) {
+			throw new IllegalArgumentException("Buffer size must be positive.");
+		}
+
+		this.needle = needle.clone();
+		this.bufferSize = bufferSize;
+
+		final int length = this.needle.length;
+		this.skip = new int[256];
+		for(int index = 0; index < 256; index++) {
+			this.skip[index] = length;
+		}
+
+		for(int index = 0; index < length - 1; index++) {
+			this.skip[this.needle[index] & 0xFF] = length - 1 - index;
+		}
+	}
+
+	/**
+	 * Find the first occurrence of the needle in the data read from the given
+	 * channel. The channel is read till a match is found or it is exhausted.
+	 *
+	 * @param channel the channel to read from
+	 * @return the offset of the first match relative to the position of the
+	 *         channel when the search started, or <code>-1</code> if not found
+	 * @throws IOException if reading the channel fails
+	 */
+	public long indexOf(ReadableByteChannel channel) throws IOException {
+		final long[] first = { -1 };
+		findAll(channel, new MatchHandler() {
+
+			@Override
+			public boolean onMatch(long offset) {
+				first[0] = offset;
+				return false;
+			}
+
+		});
+
+		return first[0];
+	}
+
+	/**
+	 * Report all occurrences, including overlapping ones, of the needle in the
+	 * data read from the given channel. At most one buffer plus the needle
+	 * length is held in memory at any time.
+	 *
+	 * @param channel the channel to read from
+	 * @param handler the handler to report matches to
+	 * @throws IOException if reading the channel fails
+	 */
+	public void findAll(ReadableByteChannel channel, MatchHandler handler) throws IOException {
+		final int length = this.needle.length;
+		final byte[] data = new byte[this.bufferSize + length - 1];
+		final ByteBuffer buffer = ByteBuffer.wrap(data);
+
+		long base = 0;
+		int filled = 0;
+		int from = 0;
+		boolean eof = false;
+		while(!eof) {
+			// fill up the buffer as much as possible
+			buffer.limit(data.length).position(filled);
+			while(buffer.hasRemaining()) {
+				if(channel.read(buffer) == -1) {
+					eof = true;
+					break;
+				}
+			}
+
+			filled = buffer.position();
+
+			// report all matches in this chunk
+			int position = search(data, from, filled);
+			while(position != -1) {
+				if(!handler.onMatch(base + position)) {
+					return;
+				}
+
+				from = position + 1;
+				position = search(data, from, filled);
+			}
+
+			// carry over the bytes that may start a match in the next chunk
+			int keepFrom = Math.max(filled - length + 1, 0);
+			from = Math.max(from, keepFrom) - keepFrom;
+			System.arraycopy(data, keepFrom, data, 0, filled - keepFrom);
+			filled -= keepFrom;
+			base += keepFrom;
+		}
+	}
+
+	/**
+	 * Find the first occurrence of the needle in the given buffer, between its
+	 * current position and limit. Works on heap, direct and memory-mapped
+	 * buffers alike; the position of the buffer is not modified.
+	 *
+	 * @param buffer the buffer to search in
+	 * @return the absolute index in the buffer of the first match, or
+	 *         <code>-1</code> if not found
+	 */
+	public int indexOf(ByteBuffer buffer) {
+		if(buffer.hasArray()) {
+			final int offset = buffer.arrayOffset();
+			int index = search(buffer.array(), offset + buffer.position(), offset + buffer.limit());
+			return index == -1 ? -1 : index - offset;
+		}
+
+		return search(buffer, buffer.position(), buffer.limit());
+	}
+
+	/**
+	 * Find the first occurrence of the needle in the given file by mapping it
+	 * into memory one window at a time.
+	 *
+	 * @param channel the file channel to search in
+	 * @return the absolute offset of the first match in the file, or
+	 *         <code>-1</code> if not found
+	 * @throws IOException if mapping the file fails
+	 */
+	public long indexOfMapped(FileChannel channel) throws IOException {
+		final long[] first = { -1 };
+		findAllMapped(channel, new MatchHandler() {
+
+			@Override
+			public boolean onMatch(long offset) {
+				first[0] = offset;
+				return false;
+			}
+
+		});
+
+		return first[0];
+	}
+
+	/**
+	 * Report all occurrences, including overlapping ones, of the needle in the
+	 * given file by mapping it into memory one window at a time. Consecutive
+	 * windows overlap by <code>needle length - 1</code> bytes.
+	 *
+	 * @param channel the file channel to search in
+	 * @param handler the handler to report matches to
+	 * @throws IOException if mapping the file fails
+	 */
+	public void findAllMapped(FileChannel channel, MatchHandler handler) throws IOException {
+		final int length = this.needle.length;
+		final long size = channel.size();
+
+		for(long start = 0; start + length <= size; start += MAPPED_WINDOW_SIZE) {
+			int windowSize = (int) Math.min(MAPPED_WINDOW_SIZE + length - 1, size - start);
+			MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start, windowSize);
+
+			// only matches starting in this window belong to it
+			int position = search(window, 0, windowSize);
+			while(position != -1 && position < MAPPED_WINDOW_SIZE) {
+				if(!handler.onMatch(start + position)) {
+					return;
+				}
+
+				position = search(window, position + 1, windowSize);
+			}
+		}
+	}
+
+	/**
+	 * Search for the needle in the given range of the array.
+	 *
+	 * @param data the array to search in
+	 * @param fromIndex the index to start from, inclusive
+	 * @param toIndex the index where the match must end, exclusive
+	 * @return the index of the first match, or <code>-1</code> if not found
+	 */
+	private int search(byte[] data, int fromIndex, int toIndex) {
+		final byte[] needle = this.needle;
+		final int[] skip = this.skip;
+		final int lastOffset = needle.length - 1;
+		final byte last = needle[lastOffset];
+		final int limit = toIndex - needle.length;
+
+		int index = fromIndex;
+		while(index <= limit) {
+			byte current = data[index + lastOffset];
+			if(current == last) {
+				int matched = 0;
+				while(matched < lastOffset && data[index + matched] == needle[matched]) {
+					matched++;
+				}
+
+				if(matched == lastOffset) {
+					return index;
+				}
+			}
+
+			index += skip[current & 0xFF];
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Search for the needle in the given range of the buffer using absolute
+	 * reads.
+	 *
+	 * @param data the buffer to search in
+	 * @param fromIndex the index to start from, inclusive
+	 * @param toIndex the index where the match must end, exclusive
+	 * @return the index of the first match, or <code>-1</code> if not found
+	 */
+	private int search(ByteBuffer data, int fromIndex, int toIndex) {
+		final byte[] needle = this.needle;
+		final int[] skip = this.skip;
+		final int lastOffset = needle.length - 1;
+		final byte last = needle[lastOffset];
+		final int limit = toIndex - needle.length;
+
+		int index = fromIndex;
+		while(index <= limit) {
+			byte current = data.get(index + lastOffset);
+			if(current == last) {
+				int matched = 0;
+				while(matched < lastOffset && data.get(index + matched) == needle[matched]) {
+					matched++;
+				}
+
+				if(matched == lastOffset) {
+					return index;
+				}
+			}
+
+			index += skip[current & 0xFF];
+		}
+
+		return -1;
+	}
+
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+/**
+ * A needle that has been pre-processed once so that it can be searched for in
+ * any number of haystacks. Instances are immutable and can be shared freely
+ * between threads. None of the lookup methods do any setup work or allocate
+ * memory.
+ *
+ * Obtain an instance using {@link FirstOccurrence#compile(String)}.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public final class CompiledNeedle {
+
+	/**
+	 * The searcher used for all forward lookups.
+	 */
+	private final StringSearcher searcher;
+
+	/**
+	 * The characters of the needle.
+	 */
+	private final char[] pattern;
+
+	/**
+	 * Shift table for backward lookups, indexed by the lower byte of the
+	 * character aligned with the first character of the needle.
+	 */
+	private final int[] reverseSkip;
+
+	CompiledNeedle(String needle) {
+		this.searcher = StringSearcher.forNeedle(needle);
+		this.pattern = needle.toCharArray();
+
+		final int length = this.pattern.length;
+		this.reverseSkip = new int[256];
+		for(int index = 0; index < 256; index++) {
+			this.reverseSkip[index] = length;
+		}
+
+		for(int index = length - 1; index > 0; index--) {
+			this.reverseSkip[this.pattern[index] & 0xFF] = index;
+		}
+	}
+
+	/**
+	 * Find the first occurrence of the needle in the given text.
+	 *
+	 * @param text the text to search in
+	 * @return the index of the first occurrence, or <code>-1</code> if not found
+	 */
+	public int indexOf(CharSequence text) {
+		return this.searcher.indexOf(text);
+	}
+
+	/**
+	 * Find the first occurrence of the needle in the given text starting at the
+	 * given index.
+	 *
+	 * @param text the text to search in
+	 * @param fromIndex the index to start searching from
+	 * @return the index of the first occurrence, or <code>-1</code> if not found
+	 */
+	public int indexOf(CharSequence text, int fromIndex) {
+		return this.searcher.indexOf(text, fromIndex);
+	}
+
+	/**
+	 * Find the last occurrence of the needle in the given text.
+	 *
+	 * @param text the text to search in
+	 * @return the index of the last occurrence, or <code>-1</code> if not found
+	 */
+	public int lastIndexOf(CharSequence text) {
+		return lastIndexOf(text, text.length());
+	}
+
+	/**
+	 * Find the last occurrence of the needle in the given text that starts at
+	 * or before the given index, similar to <code>String.lastIndexOf()</code>.
+	 *
+	 * @param text the text to search in
+	 * @param fromIndex the largest index at which the match may start
+	 * @return the index of the last occurrence, or <code>-1</code> if not found
+	 */
+	public int lastIndexOf(CharSequence text, int fromIndex) {
+		final char[] pattern = this.pattern;
+		final int length = pattern.length;
+		final int[] reverseSkip = this.reverseSkip;
+
+		int index = Math.min(fromIndex, text.length() - length);
+		if(index < 0) {
+			return -1;
+		}
+
+		if(length == 0) {
+			return index;
+		}
+
+		final char first = pattern[0];
+		while(index >= 0) {
+			char current = text.charAt(index);
+			if(current == first && matchesAt(text, index)) {
+				return index;
+			}
+
+			index -= reverseSkip[current & 0xFF];
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Count the number of non-overlapping occurrences of the needle in the
+	 * given text. An empty needle is never counted.
+	 *
+	 * @param text the text to search in
+	 * @return the number of occurrences found
+	 */
+	public int countAll(CharSequence text) {
+		final int length = this.pattern.length;
+		if(length == 0) {
+			return 0;
+		}
+
+		int count = 0;
+		int index = this.searcher.indexOf(text, 0);
+		while(index != -1) {
+			count++;
+			index = this.searcher.indexOf(text, index + length);
+		}
+
+		return count;
+	}
+
+	/**
+	 * Return the needle this instance looks for.
+	 *
+	 * @return the needle
+	 */
+	public String getNeedle() {
+		return this.searcher.getNeedle();
+	}
+
+	/**
+	 * Return the length of the needle.
+	 *
+	 * @return the needle length
+	 */
+	public int length() {
+		return this.pattern.length;
+	}
+
+	/**
+	 * Check if the needle matches the text at the given position, skipping the
+	 * first character which has already been compared.
+	 *
+	 * @param text the text to search in
+	 * @param position the starting position in the text
+	 * @return <code>true</code> if the needle matches
+	 */
+	private boolean matchesAt(CharSequence text, int position) {
+		final char[] pattern = this.pattern;
+		for(int index = 1; index < pattern.length; index++) {
+			if(text.charAt(position + index) != pattern[index]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+}
@@ -0,0 +1,328 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Checks if two files have the same content, ignoring the differences in
+ * line endings, the way {@link MergeRepo} needs it. The check is done in
+ * tiers, each one cheaper than the next:
+ *
+ * 1. files with the same size and last modified time are taken as equal,
+ * if the comparator is told to trust modified times;
+ * 2. files with the same size are compared byte for byte, eight bytes at a
+ * time, through memory mappings for large files and buffered reads for
+ * small ones;
+ * 3. only when the raw bytes differ, both files are read again with CR LF
+ * and lone CR turned into LF, and a line break at the very end of either
+ * file ignored, as a line by line comparison would.
+ *
+ * Line endings are normalized on the bytes, without decoding characters,
+ * which is exact for ASCII-compatible encodings like UTF-8 and ISO-8859-1.
+ * Instances are thread-safe.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class ContentComparator {
+
+	/**
+	 * Files at least this big are compared through memory mappings.
+	 */
+	private static final long MAP_THRESHOLD = 1024 * 1024;
+
+	/**
+	 * Largest part of a file mapped at once.
+	 */
+	private static final long MAP_WINDOW = 64L * 1024 * 1024;
+
+	/**
+	 * Size of the buffers used to read smaller files.
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Whether files with the same size and last modified time are taken as
+	 * equal without reading them.
+	 */
+	private final boolean trustModifiedTime;
+
+	/**
+	 * The read buffers of each thread.
+	 */
+	private final ThreadLocal<ByteBuffer[]> buffers = new ThreadLocal<ByteBuffer[]>() {
+
+		@Override
+		protected ByteBuffer[] initialValue() {
+			return new ByteBuffer[] { ByteBuffer.allocateDirect(BUFFER_SIZE), ByteBuffer.allocateDirect(BUFFER_SIZE) };
+		}
+
+	};
+
+	public ContentComparator() {
+		this(false);
+	}
+
+	public ContentComparator(boolean trustModifiedTime) {
+		this.trustModifiedTime = trustModifiedTime;
+	}
+
+	/**
+	 * Check if two files have the same content, ignoring line endings.
+	 *
+	 * @param first the first file
+	 * @param second the second file
+	 * @return <code>true</code> if the contents are equal
+	 * @throws IOException if a file cannot be read
+	 */
+	public boolean contentEquals(Path first, Path second) throws IOException {
+		final long size = Files.size(first);
+		if(size == Files.size(second)) {
+			if(this.trustModifiedTime && Files.getLastModifiedTime(first).equals(Files.getLastModifiedTime(second))) {
+				return true;
+			}
+
+			if(bytesEqual(first, second, size)) {
+				return true;
+			}
+		}
+
+		return contentEqualsIgnoreEOL(first, second);
+	}
+
+	/**
+	 * Check if a file of one snapshot has the same content as a file of
+	 * another, ignoring line endings. The content hashes of the snapshots
+	 * stand in for the byte comparison.
+	 *
+	 * @param older the first snapshot
+	 * @param olderIndex the index of the file in the first snapshot
+	 * @param newer the second snapshot
+	 * @param newerIndex the index of the file in the second snapshot
+	 * @return <code>true</code> if the contents are equal
+	 * @throws IOException if a file cannot be read
+	 */
+	public boolean contentEquals(RepoSnapshot older, int olderIndex, RepoSnapshot newer, int newerIndex) throws IOException {
+		if(older.getSize(olderIndex) == newer.getSize(newerIndex)) {
+			if(this.trustModifiedTime && older.getLastModified(olderIndex) == newer.getLastModified(newerIndex)) {
+				return true;
+			}
+
+			if(older.sameHash(olderIndex, newer, newerIndex)) {
+				return true;
+			}
+		}
+
+		return contentEqualsIgnoreEOL(older.getFile(olderIndex).toPath(), newer.getFile(newerIndex).toPath());
+	}
+
+	/**
+	 * Compare the raw bytes of two files of the same size.
+	 */
+	private boolean bytesEqual(Path first, Path second, long size) throws IOException {
+		FileChannel firstChannel = FileChannel.open(first, StandardOpenOption.READ);
+		try {
+			FileChannel secondChannel = FileChannel.open(second, StandardOpenOption.READ);
+			try {
+				if(size >= MAP_THRESHOLD) {
+					for(long position = 0; position < size; position += MAP_WINDOW) {
+						long length = Math.min(MAP_WINDOW, size - position);
+						MappedByteBuffer firstBuffer = firstChannel.map(FileChannel.MapMode.READ_ONLY, position, length);
+						MappedByteBuffer secondBuffer = secondChannel.map(FileChannel.MapMode.READ_ONLY, position, length);
+						if(!buffersEqual(firstBuffer, secondBuffer)) {
+							return false;
+						}
+					}
+
+					return true;
+				}
+
+				final ByteBuffer[] pair = this.buffers.get();
+				final ByteBuffer firstBuffer = pair[0];
+				final ByteBuffer secondBuffer = pair[1];
+				while(true) {
+					firstBuffer.clear();
+					secondBuffer.clear();
+					int read = fill(firstChannel, firstBuffer);
+					if(fill(secondChannel, secondBuffer) != read) {
+						// the file changed size while reading
+						return false;
+					}
+
+					if(read == 0) {
+						return true;
+					}
+
+					firstBuffer.flip();
+					secondBuffer.flip();
+					if(!buffersEqual(firstBuffer, secondBuffer)) {
+						return false;
+					}
+				}
+			} finally {
+				secondChannel.close();
+			}
+		} finally {
+			firstChannel.close();
+		}
+	}
+
+	/**
+	 * Read from the channel until the buffer is full or the file ends.
+	 */
+	private static int fill(FileChannel channel, ByteBuffer buffer) throws IOException {
+		int total = 0;
+		while(buffer.hasRemaining()) {
+			int read = channel.read(buffer);
+			if(read == -1) {
+				break;
+			}
+
+			total += read;
+		}
+
+		return total;
+	}
+
+	/**
+	 * Compare the remaining bytes of two buffers of the same length, eight
+	 * bytes at a time.
+	 */
+	private static boolean buffersEqual(ByteBuffer first, ByteBuffer second) {
+		final int length = first.remaining();
+		final int firstStart = first.position();
+		final int secondStart = second.position();
+
+		int index = 0;
+		for(; index + 8 <= length; index += 8) {
+			if(first.getLong(firstStart + index) != second.getLong(secondStart + index)) {
+				return false;
+			}
+		}
+
+		for(; index < length; index++) {
+			if(first.get(firstStart + index) != second.get(secondStart + index)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Compare two files with their line endings normalized. As when
+	 * comparing them line by line, a line break at the very end of a file
+	 * does not count if it ends a line that is not empty.
+	 */
+	private static boolean contentEqualsIgnoreEOL(Path first, Path second) throws IOException {
+		LineEndingInput firstInput = new LineEndingInput(Files.newInputStream(first));
+		try {
+			LineEndingInput secondInput = new LineEndingInput(Files.newInputStream(second));
+			try {
+				int last = '\n';
+				while(true) {
+					int firstByte = firstInput.read();
+					int secondByte = secondInput.read();
+					if(firstByte == secondByte) {
+						if(firstByte == -1) {
+							return true;
+						}
+
+						last = firstByte;
+						continue;
+					}
+
+					if(last == '\n') {
+						return false;
+					}
+
+					// a final line break against the end of the other file
+					if(firstByte == '\n' && secondByte == -1) {
+						return firstInput.read() == -1;
+					}
+
+					if(secondByte == '\n' && firstByte == -1) {
+						return secondInput.read() == -1;
+					}
+
+					return false;
+				}
+			} finally {
+				secondInput.close();
+			}
+		} finally {
+			firstInput.close();
+		}
+	}
+
+	/**
+	 * Reads the bytes of a stream with CR LF and lone CR turned into LF.
+	 */
+	private static class LineEndingInput {
+
+		private final InputStream in;
+
+		/**
+		 * The byte read ahead after a CR, or <code>-2</code> if none.
+		 */
+		private int pending = -2;
+
+		LineEndingInput(InputStream in) {
+			this.in = new BufferedInputStream(in, BUFFER_SIZE);
+		}
+
+		int read() throws IOException {
+			int b;
+			if(this.pending != -2) {
+				b = this.pending;
+				this.pending = -2;
+			} else {
+				b = this.in.read();
+			}
+
+			if(b == '\r') {
+				int next = this.in.read();
+				if(next != '\n') {
+					this.pending = next;
+				}
+
+				return '\n';
+			}
+
+			return b;
+		}
+
+		void close() throws IOException {
+			this.in.close();
+		}
+
+	}
+
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+/**
+ * Searcher for short needles. Skips quickly to the next occurrence of the
+ * first character of the needle and only then compares the remaining
+ * characters. When the haystack is a {@link String} the skip is done using
+ * <code>String.indexOf(char)</code> which the JVM compiles down to a vectorized
+ * scan.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class FirstCharSearcher extends StringSearcher {
+
+	public FirstCharSearcher(String needle) {
+		super(needle);
+	}
+
+	@Override
+	protected int search(CharSequence text, int fromIndex, int toIndex) {
+		final char first = this.pattern[0];
+		final char last = this.pattern[this.pattern.length - 1];
+		final int lastOffset = this.pattern.length - 1;
+		final int limit = toIndex - this.pattern.length;
+
+		if(text instanceof String) {
+			final String string = (String) text;
+			int index = string.indexOf(first, fromIndex);
+			while(index != -1 && index <= limit) {
+				if(string.charAt(index + lastOffset) == last && matchesAt(string, index, 1)) {
+					return index;
+				}
+
+				index = string.indexOf(first, index + 1);
+			}
+
+			return -1;
+		}
+
+		for(int index = fromIndex; index <= limit; index++) {
+			if(text.charAt(index) == first && text.charAt(index + lastOffset) == last && matchesAt(text, index, 1)) {
+				return index;
+			}
+		}
+
+		return -1;
+	}
+
+}
@@ -39,51 +39,52 @@ public class FirstOccurrence {
 	}
 
 	/**
-	 * Method that looks to search for a given string in another string.
+	 * Method that looks to search for a given string in another string. The
+	 * search strategy is picked based on the needle, see
+	 * {@link StringSearcher#forNeedle(String)}.
 	 * 
 	 * @param stringToSearchIn The source string
 	 * @param stringToSearchFor String that needs to be searched for.
 	 * @return the index of the first occurence of this string.
 	 */
 	public static int findStringInString(String stringToSearchIn, String stringToSearchFor) {
-		int lengthIn = stringToSearchIn.length();
-		int lengthFor = stringToSearchFor.length();
-
-		if (lengthFor > lengthIn) {
-			// Sub-string candidate is larger than original string
-			return -1;
-		}
+		return StringSearcher.forNeedle(stringToSearchFor).indexOf(stringToSearchIn);
+	}
 
-		if (lengthFor == lengthIn) {
-			for (int index = 0; index < lengthIn; index++) {
-				if (stringToSearchIn.charAt(index) != stringToSearchFor.charAt(index)) {
-					// no match found
-					return -1;
-				}
-			}
-			return 0;
-		}
+	/**
+	 * Method that looks to search for a given string in a very large text by
+	 * splitting it into segments searched in parallel on the common
+	 * fork-join pool.
+	 *
+	 * @param stringToSearchIn The source text
+	 * @param stringToSearchFor String that needs to be searched for.
+	 * @return the index of the first occurence of this string.
+	 */
+	public static int findStringInStringParallel(CharSequence stringToSearchIn, String stringToSearchFor) {
+		return new ParallelStringSearcher(stringToSearchFor).indexOf(stringToSearchIn);
+	}
 
-		// lengthFor < lengthIn
-		for (int index = 0; index < (lengthIn - lengthFor); index++) {
-			if (stringToSearchIn.charAt(index) == stringToSearchFor.charAt(0)) {
-				boolean found = true;
-				// first char match found
-				// check if the string beyond this is equal
-				for (int subIndex = 0; subIndex < lengthFor; subIndex++) {
-					if (stringToSearchIn.charAt(index + subIndex) != stringToSearchFor.charAt(subIndex)) {
-						// no match
-						found = false;
-						break;
-					}
-				}
-				if (found) {
-					// match found
-					return index;
-				}
-			}
-		}
+	/**
+	 * Method that finds all occurrences, overlapping ones included, of a given
+	 * string in a very large text by searching segments of it in parallel on
+	 * the common fork-join pool.
+	 *
+	 * @param stringToSearchIn The source text
+	 * @param stringToSearchFor String that needs to be searched for.
+	 * @return the sorted indices of all occurences of this string.
+	 */
+	public static int[] findAllInStringParallel(CharSequence stringToSearchIn, String stringToSearchFor) {
+		return new ParallelStringSearcher(stringToSearchFor).findAll(stringToSearchIn);
+	}
 
-		return -1;
+	/**
+	 * Pre-process the given needle so that it can be searched for repeatedly
+	 * without redoing any setup work on each lookup.
+	 *
+	 * @param stringToSearchFor String that needs to be searched for.
+	 * @return an immutable, thread-safe matcher for the needle
+	 */
+	public static CompiledNeedle compile(String stringToSearchFor) {
+		return new CompiledNeedle(stringToSearchFor);
 	}
 }
@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+/**
+ * Boyer-Moore-Horspool searcher, best suited for long needles made up of many
+ * different characters. The bad character table is indexed by the lower byte
+ * of each character; characters sharing a bucket keep the smallest shift which
+ * keeps the skips safe for the full <code>char</code> range.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class HorspoolSearcher extends StringSearcher {
+
+	/**
+	 * The shift to apply based on the character aligned with the last
+	 * character of the needle.
+	 */
+	private final int[] skip;
+
+	public HorspoolSearcher(String needle) {
+		super(needle);
+
+		final int length = this.pattern.length;
+		this.skip = new int[256];
+		for(int index = 0; index < 256; index++) {
+			this.skip[index] = length;
+		}
+
+		for(int index = 0; index < length - 1; index++) {
+			this.skip[this.pattern[index] & 0xFF] = length - 1 - index;
+		}
+	}
+
+	@Override
+	protected int search(CharSequence text, int fromIndex, int toIndex) {
+		final char[] pattern = this.pattern;
+		final int[] skip = this.skip;
+		final int lastOffset = pattern.length - 1;
+		final char last = pattern[lastOffset];
+		final int limit = toIndex - pattern.length;
+
+		int index = fromIndex;
+		while(index <= limit) {
+			char current = text.charAt(index + lastOffset);
+			if(current == last && text.charAt(index) == pattern[0] && matchesAt(text, index, 1)) {
+				return index;
+			}
+
+			index += skip[current & 0xFF];
+		}
+
+		return -1;
+	}
+
+}
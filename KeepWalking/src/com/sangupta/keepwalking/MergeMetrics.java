@@ -0,0 +1,366 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts what a run of {@link MergeRepo} does and how long each phase takes.
+ * The counters are updated from the worker threads as the work is done, so
+ * that a {@link ProgressReporter} can show them while the run goes on, and
+ * are written out as a JSON summary at the end.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class MergeMetrics {
+
+	/**
+	 * Walking and hashing both trees.
+	 */
+	public static final String PHASE_SCAN = "scan";
+
+	/**
+	 * Finding the removed, added and common files.
+	 */
+	public static final String PHASE_DIFF = "diff";
+
+	/**
+	 * Comparing the content of the common files.
+	 */
+	public static final String PHASE_COMPARE = "compare";
+
+	/**
+	 * Writing the merged repository.
+	 */
+	public static final String PHASE_MATERIALIZE = "materialize";
+
+	/**
+	 * Writing the delta archive.
+	 */
+	public static final String PHASE_DELTA = "delta";
+
+	/**
+	 * Applying a delta archive to a tree.
+	 */
+	public static final String PHASE_APPLY = "apply";
+
+	private final AtomicLong filesScanned = new AtomicLong();
+
+	private final AtomicLong filesHashed = new AtomicLong();
+
+	private final AtomicLong bytesHashed = new AtomicLong();
+
+	private final AtomicLong pathsDiffed = new AtomicLong();
+
+	private final AtomicLong filesCompared = new AtomicLong();
+
+	private final AtomicLong filesCopied = new AtomicLong();
+
+	private final AtomicLong filesLinked = new AtomicLong();
+
+	private final AtomicLong filesDeleted = new AtomicLong();
+
+	private final AtomicLong bytesCopied = new AtomicLong();
+
+	private final AtomicLong deltaRecords = new AtomicLong();
+
+	private long filesRemoved;
+
+	private long filesAdded;
+
+	private long filesModified;
+
+	/**
+	 * Duration of each finished phase, in nanoseconds, in the order run.
+	 */
+	private final Map<String, Long> durations = new LinkedHashMap<String, Long>();
+
+	/**
+	 * Number of files handled by each finished phase.
+	 */
+	private final Map<String, Long> items = new LinkedHashMap<String, Long>();
+
+	/**
+	 * The phase running now, or <code>null</code>.
+	 */
+	private volatile String phase;
+
+	private volatile long phaseStart;
+
+	private final long start = System.nanoTime();
+
+	/**
+	 * Start a phase, ending the one running.
+	 *
+	 * @param name the name of the phase
+	 */
+	public synchronized void beginPhase(String name) {
+		endPhase();
+		this.phaseStart = System.nanoTime();
+		this.phase = name;
+	}
+
+	/**
+	 * End the phase running, if any.
+	 */
+	public synchronized void endPhase() {
+		if(this.phase == null) {
+			return;
+		}
+
+		this.durations.put(this.phase, System.nanoTime() - this.phaseStart);
+		this.items.put(this.phase, getPhaseFiles(this.phase));
+		this.phase = null;
+	}
+
+	/**
+	 * Return the phase running now.
+	 *
+	 * @return the name of the phase, or <code>null</code> if none
+	 */
+	public String getPhase() {
+		return this.phase;
+	}
+
+	/**
+	 * Return how long the phase running now has been running.
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getPhaseElapsed() {
+		return System.nanoTime() - this.phaseStart;
+	}
+
+	/**
+	 * Return the number of files handled so far by the given phase.
+	 *
+	 * @param name the name of the phase
+	 * @return the number of files
+	 */
+	public long getPhaseFiles(String name) {
+		if(PHASE_SCAN.equals(name)) {
+			return this.filesScanned.get();
+		}
+
+		if(PHASE_COMPARE.equals(name)) {
+			return this.filesCompared.get();
+		}
+
+		if(PHASE_MATERIALIZE.equals(name) || PHASE_APPLY.equals(name)) {
+			return this.filesCopied.get() + this.filesLinked.get() + this.filesDeleted.get();
+		}
+
+		if(PHASE_DELTA.equals(name)) {
+			return this.deltaRecords.get();
+		}
+
+		// the diff goes over the paths of both trees
+		return this.pathsDiffed.get();
+	}
+
+	/**
+	 * Count a file found by the walk.
+	 */
+	public void addFileScanned() {
+		this.filesScanned.incrementAndGet();
+	}
+
+	/**
+	 * Count a file read and hashed.
+	 *
+	 * @param bytes the size of the file
+	 */
+	public void addFileHashed(long bytes) {
+		this.filesHashed.incrementAndGet();
+		this.bytesHashed.addAndGet(bytes);
+	}
+
+	/**
+	 * Count paths of either tree gone over by the diff.
+	 *
+	 * @param count the number of paths
+	 */
+	public void addPathsDiffed(long count) {
+		this.pathsDiffed.addAndGet(count);
+	}
+
+	/**
+	 * Count a pair of common files compared.
+	 */
+	public void addFileCompared() {
+		this.filesCompared.incrementAndGet();
+	}
+
+	/**
+	 * Count a file written to the destination.
+	 *
+	 * @param bytes the number of bytes written
+	 */
+	public void addFileCopied(long bytes) {
+		this.filesCopied.incrementAndGet();
+		this.bytesCopied.addAndGet(bytes);
+	}
+
+	/**
+	 * Count a file hard-linked into the destination.
+	 */
+	public void addFileLinked() {
+		this.filesLinked.incrementAndGet();
+	}
+
+	/**
+	 * Count a file deleted from the destination.
+	 */
+	public void addFileDeleted() {
+		this.filesDeleted.incrementAndGet();
+	}
+
+	/**
+	 * Count a removed, added or modified file written to the delta archive.
+	 */
+	public void addDeltaRecord() {
+		this.deltaRecords.incrementAndGet();
+	}
+
+	/**
+	 * Record the outcome of the diff and compare phases, or of applying a
+	 * delta archive.
+	 *
+	 * @param removed the number of removed files
+	 * @param added the number of added files
+	 * @param modified the number of modified files
+	 */
+	public synchronized void setChanges(long removed, long added, long modified) {
+		this.filesRemoved = removed;
+		this.filesAdded = added;
+		this.filesModified = modified;
+	}
+
+	public long getFilesScanned() {
+		return this.filesScanned.get();
+	}
+
+	public long getFilesHashed() {
+		return this.filesHashed.get();
+	}
+
+	public long getBytesHashed() {
+		return this.bytesHashed.get();
+	}
+
+	public long getPathsDiffed() {
+		return this.pathsDiffed.get();
+	}
+
+	public long getFilesCompared() {
+		return this.filesCompared.get();
+	}
+
+	public long getFilesCopied() {
+		return this.filesCopied.get();
+	}
+
+	public long getFilesLinked() {
+		return this.filesLinked.get();
+	}
+
+	public long getFilesDeleted() {
+		return this.filesDeleted.get();
+	}
+
+	public long getBytesCopied() {
+		return this.bytesCopied.get();
+	}
+
+	public long getDeltaRecords() {
+		return this.deltaRecords.get();
+	}
+
+	/**
+	 * Return the summary of the run as a JSON object.
+	 *
+	 * @return the JSON text
+	 */
+	public synchronized String toJson() {
+		StringBuilder builder = new StringBuilder(1024);
+		builder.append("{\n");
+		builder.append("  \"totalMillis\": ").append(toMillis(System.nanoTime() - this.start)).append(",\n");
+		builder.append("  \"phases\": {");
+
+		boolean first = true;
+		for(Map.Entry<String, Long> entry : this.durations.entrySet()) {
+			long nanos = entry.getValue();
+			long files = this.items.get(entry.getKey());
+
+			builder.append(first ? "\n" : ",\n");
+			builder.append("    \"").append(entry.getKey()).append("\": { \"millis\": ").append(toMillis(nanos));
+			builder.append(", \"files\": ").append(files);
+			builder.append(", \"filesPerSecond\": ").append(nanos == 0 ? 0 : files * 1000000000L / nanos).append(" }");
+			first = false;
+		}
+
+		builder.append(first ? "},\n" : "\n  },\n");
+		builder.append("  \"filesScanned\": ").append(this.filesScanned.get()).append(",\n");
+		builder.append("  \"filesHashed\": ").append(this.filesHashed.get()).append(",\n");
+		builder.append("  \"bytesHashed\": ").append(this.bytesHashed.get()).append(",\n");
+		builder.append("  \"pathsDiffed\": ").append(this.pathsDiffed.get()).append(",\n");
+		builder.append("  \"filesRemoved\": ").append(this.filesRemoved).append(",\n");
+		builder.append("  \"filesAdded\": ").append(this.filesAdded).append(",\n");
+		builder.append("  \"filesModified\": ").append(this.filesModified).append(",\n");
+		builder.append("  \"filesCompared\": ").append(this.filesCompared.get()).append(",\n");
+		builder.append("  \"filesCopied\": ").append(this.filesCopied.get()).append(",\n");
+		builder.append("  \"filesLinked\": ").append(this.filesLinked.get()).append(",\n");
+		builder.append("  \"filesDeleted\": ").append(this.filesDeleted.get()).append(",\n");
+		builder.append("  \"bytesCopied\": ").append(this.bytesCopied.get()).append(",\n");
+		builder.append("  \"deltaRecords\": ").append(this.deltaRecords.get()).append("\n");
+		builder.append("}\n");
+		return builder.toString();
+	}
+
+	/**
+	 * Write the JSON summary of the run to a file.
+	 *
+	 * @param file the file to write to
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write(File file) throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), Charset.forName("UTF-8"));
+		try {
+			writer.write(toJson());
+		} finally {
+			writer.close();
+		}
+	}
+
+	private static long toMillis(long nanos) {
+		return nanos / 1000000L;
+	}
+
+}
@@ -23,15 +23,12 @@ package com.sangupta.keepwalking;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.filefilter.FileFilterUtils;
-import org.apache.commons.io.filefilter.IOFileFilter;
-import org.apache.commons.io.filefilter.TrueFileFilter;
+import java.util.Locale;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
 
 /**
  * Allows to merge two different snapshots of the same repository which are checked
@@ -46,18 +43,121 @@ public class MergeRepo {
 	 * @throws IOException 
 	 */
 	public static void main(String[] args) throws IOException {
-		if(args.length != 3) {
+		List<String> arguments = new ArrayList<String>();
+		int threads = RepoScanner.DEFAULT_THREADS;
+		File cache = null;
+		RepoMaterializer.Mode mode = RepoMaterializer.Mode.COPY;
+		boolean trustModifiedTime = false;
+		File delta = null;
+		File apply = null;
+		File metricsFile = null;
+		boolean quiet = false;
+		for(String arg : args) {
+			if(arg.startsWith("--delta=")) {
+				delta = new File(arg.substring("--delta=".length()));
+				continue;
+			}
+			
+			if(arg.startsWith("--metrics=")) {
+				metricsFile = new File(arg.substring("--metrics=".length()));
+				continue;
+			}
+			
+			if(arg.equals("--quiet")) {
+				quiet = true;
+				continue;
+			}
+			
+			if(arg.startsWith("--apply=")) {
+				apply = new File(arg.substring("--apply=".length()));
+				continue;
+			}
+			
+			if(arg.startsWith("--cache=")) {
+				cache = new File(arg.substring("--cache=".length()));
+				continue;
+			}
+			
+			if(arg.equals("--trust-mtime")) {
+				trustModifiedTime = true;
+				continue;
+			}
+			
+			if(arg.startsWith("--mode=")) {
+				String value = arg.substring("--mode=".length()).toUpperCase(Locale.ENGLISH).replace('-', '_');
+				try {
+					mode = RepoMaterializer.Mode.valueOf(value);
+				} catch(IllegalArgumentException e) {
+					System.out.println("The mode must be one of copy, link or in-place.");
+					return;
+				}
+				
+				continue;
+			}
+			
+			if(arg.startsWith("--threads=")) {
+				try {
+					threads = Integer.parseInt(arg.substring("--threads=".length()));
+				} catch(NumberFormatException e) {
+					threads = 0;
+				}
+				
+				if(threads <= 0) {
+					System.out.println("The number of threads must be a positive number.");
+					return;
+				}
+				
+				continue;
+			}
+			
+			if(arg.startsWith("--")) {
+				usage();
+				return;
+			}
+			
+			arguments.add(arg);
+		}
+		
+		if(apply != null) {
+			if(arguments.size() != 1 || delta != null) {
+				usage();
+				return;
+			}
+			
+			final File destination = new File(arguments.get(0));
+			if(!(destination.exists() && destination.isDirectory())) {
+				System.out.println("The destination does not exists or is not a directory.");
+				return;
+			}
+			
+			final MergeMetrics metrics = new MergeMetrics();
+			final ProgressReporter reporter = new ProgressReporter(System.out, metrics, quiet);
+			try {
+				reporter.beginPhase(MergeMetrics.PHASE_APPLY, "Applying delta to the older repository...");
+				RepoDelta.apply(apply, destination, metrics, reporter);
+				reporter.println("Files written: " + metrics.getFilesCopied() + ", deleted: " + metrics.getFilesDeleted());
+				reporter.println("Done applying delta.");
+			} finally {
+				reporter.close();
+				if(metricsFile != null) {
+					metrics.write(metricsFile);
+				}
+			}
+			
+			return;
+		}
+		
+		if(arguments.size() != (delta == null ? 3 : 2)) {
 			usage();
 			return;
 		}
 		
-		final String previousRepo = args[0];
-		final String newerRepo = args[1];
-		final String mergedRepo = args[2];
+		final String previousRepo = arguments.get(0);
+		final String newerRepo = arguments.get(1);
 		
 		final File previous =  new File(previousRepo);
 		final File newer = new File(newerRepo);
-		final File merged = new File(mergedRepo);
+		final File merged = delta == null ? new File(arguments.get(2)) : null;
 		
 		if(!(previous.exists() && previous.isDirectory())) {
 			System.out.println("The previous version does not exists or is not a directory.");
@@ -69,85 +169,101 @@ public class MergeRepo {
 			return;
 		}
 		
-		final IOFileFilter directoryFilter = FileFilterUtils.makeCVSAware(FileFilterUtils.makeSVNAware(null));
+		if(merged != null && mode == RepoMaterializer.Mode.IN_PLACE && !merged.isDirectory()) {
+			System.out.println("The destination must exist and hold the previous version to be updated in place.");
+			return;
+		}
+		
+		if(cache != null && !cache.isDirectory() && !cache.mkdirs()) {
+			System.out.println("The cache folder cannot be created.");
+			return;
+		}
 		
-		final Collection<File> olderFiles = FileUtils.listFiles(previous, TrueFileFilter.TRUE, directoryFilter);
-		final Collection<File> newerFiles = FileUtils.listFiles(newer, TrueFileFilter.TRUE, directoryFilter);
-
-		// build a list of unique paths
-		System.out.println("Reading files from older version...");
-		List<String> olderPaths = new ArrayList<String>();
-		for(File oldFile : olderFiles) {
-			olderPaths.add(getRelativePath(oldFile, previous));
+		final MergeMetrics metrics = new MergeMetrics();
+		final ProgressReporter reporter = new ProgressReporter(System.out, metrics, quiet);
+		try {
+			merge(previous, newer, merged, delta, cache, threads, trustModifiedTime, mode, metrics, reporter);
+		} finally {
+			reporter.close();
+			if(metricsFile != null) {
+				metrics.write(metricsFile);
+			}
 		}
-
-		System.out.println("Reading files from newer version...");
-		List<String> newerPaths = new ArrayList<String>();
-		for(File newerFile : newerFiles) {
-			newerPaths.add(getRelativePath(newerFile, newer));
+	}
+	
+	/**
+	 * Runs the merge, or writes the delta if a delta file is given, reporting each phase.
+	 */
+	private static void merge(File previous, File newer, File merged, File delta, File cache, int threads, boolean trustModifiedTime,
+			RepoMaterializer.Mode mode, MergeMetrics metrics, ProgressReporter reporter) throws IOException {
+		
+		// files unchanged since the manifests were written keep their hashes
+		reporter.beginPhase(MergeMetrics.PHASE_SCAN, "Reading files from older and newer versions...");
+		RepoSnapshot olderCached = null;
+		RepoSnapshot newerCached = null;
+		if(cache != null) {
+			olderCached = RepoManifest.read(cache, previous);
+			newerCached = RepoManifest.read(cache, newer);
+		}
+		
+		// read both versions at once, hashing files as they are found
+		final RepoSnapshot older;
+		final RepoSnapshot newest;
+		RepoScanner scanner = new RepoScanner(threads);
+		scanner.setMetrics(metrics);
+		try {
+			RepoSnapshot[] snapshots = scanner.scan(previous, olderCached, newer, newerCached);
+			older = snapshots[0];
+			newest = snapshots[1];
+		} finally {
+			scanner.close();
+		}
+		
+		if(cache != null) {
+			RepoManifest.write(cache, older);
+			RepoManifest.write(cache, newest);
 		}
 		
+		// compare the sorted paths of both versions in a single pass
+		reporter.beginPhase(MergeMetrics.PHASE_DIFF, "Finding removed and added files...");
+		final RepoDiff diff = RepoDiff.compute(older, newest, metrics);
 		
 		// find which files have been removed from Perforce depot
-		List<String> filesRemoved = new ArrayList<String>(olderPaths);
-		filesRemoved.removeAll(newerPaths);
-		System.out.println("Files removed in newer version: " + filesRemoved.size());
-		for(String removed : filesRemoved) {
-			System.out.print("    ");
-			System.out.println(removed);
+		reporter.println("Files removed in newer version: " + diff.getRemovedCount());
+		for(int index = 0; index < diff.getRemovedCount(); index++) {
+			reporter.listPath(older.getPath(diff.getRemoved(index)));
 		}
 		
 		// find which files have been added in Perforce depot
-		List<String> filesAdded = new ArrayList<String>(newerPaths);
-		filesAdded.removeAll(olderPaths);
-		System.out.println("Files added in newer version: " + filesAdded.size());
-		for(String added : filesAdded) {
-			System.out.print("    ");
-			System.out.println(added);
+		reporter.println("Files added in newer version: " + diff.getAddedCount());
+		for(int index = 0; index < diff.getAddedCount(); index++) {
+			reporter.listPath(newest.getPath(diff.getAdded(index)));
 		}
 		
 		// find which files are common 
 		// now check if they have modified or not
-		newerPaths.retainAll(olderPaths);
-		List<String> modified = checkModifiedFiles(newerPaths, previous, newer);
-		System.out.println("Files modified in newer version: " + modified.size());
+		reporter.beginPhase(MergeMetrics.PHASE_COMPARE, "Comparing files present in both versions...");
+		List<String> modified = checkModifiedFiles(diff, older, newest, new ContentComparator(trustModifiedTime), metrics);
+		metrics.setChanges(diff.getRemovedCount(), diff.getAddedCount(), modified.size());
+		reporter.println("Files modified in newer version: " + modified.size());
 		for(String modify : modified) {
-			System.out.print("    ");
-			System.out.println(modify);
-		}
-		
-		// clean any previous existence of merged repo
-		System.out.println("Cleaning any previous merged repositories...");
-		if(merged.exists() && merged.isDirectory()) {
-			FileUtils.deleteDirectory(merged);
-		}
-		
-		System.out.println("Merging from newer to older repository...");
-		// copy the original SVN repo to merged
-		FileUtils.copyDirectory(previous, merged);
-		
-		// now remove all files that need to be
-		for(String removed : filesRemoved) {
-			File toRemove = new File(merged, removed);
-			toRemove.delete();
+			reporter.listPath(modify);
 		}
 		
-		// now add all files that are new in perforce
-		for(String added : filesAdded) {
-			File toAdd = new File(newer, added);
-			File destination = new File(merged, added);
-			FileUtils.copyFile(toAdd, destination);
+		if(delta != null) {
+			reporter.beginPhase(MergeMetrics.PHASE_DELTA, "Writing delta from older to newer repository...");
+			long literals = RepoDelta.write(older, newest, diff, modified, delta, metrics);
+			reporter.println("Delta written: " + delta.length() + " bytes, " + literals + " bytes of new content before compression.");
+			return;
 		}
 		
-		// now over-write modified files
-		for(String changed : modified) {
-			File change = new File(newer, changed);
-			File destination = new File(merged, changed);
-			destination.delete();
-			FileUtils.copyFile(change, destination);
-		}
+		reporter.beginPhase(MergeMetrics.PHASE_MATERIALIZE, "Merging from newer to older repository...");
+		RepoMaterializer materializer = new RepoMaterializer(mode, metrics, reporter);
+		materializer.materialize(older, newest, diff, modified, merged);
+		reporter.println("Files copied: " + materializer.getFilesCopied() + ", linked: " + materializer.getFilesLinked()
+				+ ", deleted: " + materializer.getFilesDeleted());
 		
-		System.out.println("Done merging.");
+		reporter.println("Done merging.");
 	}
 	
 	private static void usage() {
@@ -156,53 +272,71 @@ public class MergeRepo {
 		System.out.println("           code in Perforce. Now you want to merge the code and bring SVN back to the level of");
 		System.out.println("           Perforce.");
 		System.out.println("");
-		System.out.println("Usage:    $ java com.sangupta.keepwalking.MergeRepo <previous> <newer> <destination>");
+		System.out.println("Usage:    $ java com.sangupta.keepwalking.MergeRepo [options] <previous> <newer> <destination>");
+		System.out.println("          $ java com.sangupta.keepwalking.MergeRepo [options] --delta=FILE <previous> <newer>");
+		System.out.println("          $ java com.sangupta.keepwalking.MergeRepo --apply=FILE <destination>");
 		System.out.println("");
 		System.out.println("          previous      The folder corresponding to the older repository snapshot.");
 		System.out.println("          newer         The folder corresponding to the newer repository snapshot.");
 		System.out.println("          destination   The folder where the updated repository will be created.");
+		System.out.println("");
+		System.out.println("Options:");
+		System.out.println("");
+		System.out.println("          --threads=N   The number of threads used to hash files, defaults to the number of cores.");
+		System.out.println("          --mode=MODE   How the destination is written: copy (default) creates it anew,");
+		System.out.println("                        link creates it anew hard-linking unchanged files to the previous");
+		System.out.println("                        version, in-place updates an existing copy of the previous version.");
+		System.out.println("          --trust-mtime Take files with the same size and last modified time as unchanged.");
+		System.out.println("          --delta=FILE  Write a compact delta from the previous to the newer version to the file,");
+		System.out.println("                        instead of creating the destination.");
+		System.out.println("          --apply=FILE  Apply a delta to a destination holding the previous version, updating it");
+		System.out.println("                        to the newer version in place.");
+		System.out.println("          --quiet       Do not list the removed, added and modified files.");
+		System.out.println("          --metrics=FILE");
+		System.out.println("                        Write the timings and counters of the run to the file as JSON.");
+		System.out.println("          --cache=DIR   The folder to keep file hashes in between runs, so that only changed files");
+		System.out.println("                        are read again.");
 	}
 
 	/**
-	 * Checks if the file with given path is different in two different folders/branches
+	 * Checks which of the files present in two different folders/branches have changed.
+	 * The files are compared on a parallel stream, ignoring line endings.
 	 *  
-	 * @param commonPath
+	 * @param diff
 	 * @param svn
 	 * @param perforce
+	 * @param comparator
+	 * @param metrics
 	 * @return
 	 * @throws IOException
 	 */
-	private static List<String> checkModifiedFiles(List<String> commonPath, File svn, File perforce) throws IOException {
-		List<String> changed = new ArrayList<String>();
-		
-		for(String filePath : commonPath) {
-			File svnFile = new File(svn, filePath);
-			File perforceFile = new File(perforce, filePath);
-			
-			boolean equal = FileUtils.contentEqualsIgnoreEOL(svnFile, perforceFile, Charset.defaultCharset().name());
-			if(!equal) {
-				changed.add(filePath);
-			}
+	private static List<String> checkModifiedFiles(final RepoDiff diff, final RepoSnapshot svn, final RepoSnapshot perforce, final ContentComparator comparator,
+			final MergeMetrics metrics) throws IOException {
+		final int[] changed;
+		try {
+			changed = IntStream.range(0, diff.getCommonCount()).parallel().filter(new IntPredicate() {
+				
+				@Override
+				public boolean test(int index) {
+					metrics.addFileCompared();
+					try {
+						return !comparator.contentEquals(svn, diff.getCommonOlder(index), perforce, diff.getCommonNewer(index));
+					} catch(IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}
+				
+			}).toArray();
+		} catch(UncheckedIOException e) {
+			throw e.getCause();
 		}
 		
-		return changed;
-	}
-
-	/**
-	 * Extract the relative path of the file from the absolute path, given the parent.
-	 * 
-	 * @param file
-	 * @param parent
-	 * @return
-	 */
-	private static String getRelativePath(File file, File parent) {
-		String path = file.getAbsolutePath();
-		String parentPath = parent.getAbsolutePath();
-		if(path.startsWith(parentPath)) {
-			return path.substring(parentPath.length() + 1);
+		List<String> paths = new ArrayList<String>(changed.length);
+		for(int index : changed) {
+			paths.add(perforce.getPath(diff.getCommonNewer(index)));
 		}
 		
-		return path;
+		return paths;
 	}
 
 }
@@ -19,17 +19,57 @@
 
 package com.sangupta.keepwalking;
 
+import java.math.BigInteger;
+
 /**
  * Function to convert a given number on base unknown to a base 10 number. To convert
  * a basic assumption is made that the base of the given number, is the maximum value
  * of the occurence of any digit/letter in the number.
  * 
+ * Conversions are exact. Numbers that fit in a <code>long</code> are converted with
+ * Horner's rule; longer ones are split into chunks that fit in a <code>long</code>,
+ * and the chunks are then combined pairwise with cached powers of the base, so that
+ * the big multiplications are balanced and very long numbers convert in less than
+ * quadratic time.
+ * 
  * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
- * @version 1.0
+ * @version 1.1
  * @since 23 Aug 2010
  */
 public class NumberToBase10 {
 	
+	/**
+	 * Largest base that can be inferred, with digits 0-9 and letters A-Z.
+	 */
+	static final int MAX_RADIX = 36;
+	
+	/**
+	 * For each base, the number of digits that always fit in a <code>long</code>.
+	 */
+	static final int[] DIGITS_PER_LONG = new int[MAX_RADIX + 1];
+	
+	/**
+	 * For each base, the powers <code>base^(DIGITS_PER_LONG &times; 2^level)</code>
+	 * computed so far, used to join chunks.
+	 */
+	private static final BigInteger[][] CHUNK_POWERS = new BigInteger[MAX_RADIX + 1][];
+	
+	static {
+		for (int radix = 2; radix <= MAX_RADIX; radix++) {
+			int digits = 0;
+			long limit = Long.MAX_VALUE;
+			while (limit >= radix) {
+				limit /= radix;
+				digits++;
+			}
+			
+			DIGITS_PER_LONG[radix] = digits;
+		}
+		
+		// base one only has the digit zero
+		DIGITS_PER_LONG[1] = Integer.MAX_VALUE;
+	}
+	
 	/**
 	 * Command line test.
 	 * 
@@ -39,49 +79,187 @@ public class NumberToBase10 {
 		System.out.println(convertUnknownBaseNumberToBase10("172"));
 	}
 
+	/**
+	 * Convert the given number to base 10, as a double. The result is the
+	 * double nearest to the exact value.
+	 * 
+	 * @param number the number, digits and letters only
+	 * @return the value of the number, or <code>null</code> for a null/empty number
+	 * @throws IllegalArgumentException if the number has other characters
+	 */
 	public static Double convertUnknownBaseNumberToBase10(String number) {
 		// null check
 		if (number == null || number.length() == 0) {
 			return null;
 		}
 
-		// turn to upper case - so that our logic below is easy
-		number = number.toUpperCase();
+		return toBigInteger(number).doubleValue();
+	}
+
+	/**
+	 * Infer the base of the given number, which is one more than its largest
+	 * digit. Letters, in either case, are digits from 10 to 35.
+	 * 
+	 * @param number the number, digits and letters only
+	 * @return the base, from 1 to 36
+	 * @throws IllegalArgumentException if the number is empty or has other characters
+	 */
+	public static int inferRadix(CharSequence number) {
+		final int length = number.length();
+		if (length == 0) {
+			throw new IllegalArgumentException("Number cannot be null/empty.");
+		}
+
+		int maxDigit = 0;
+		for (int i = 0; i < length; i++) {
+			maxDigit = Math.max(maxDigit, digit(number.charAt(i)));
+		}
 
-		// scan through the string to find out the maximum number or the
-		// character
-		int maxAscii = 0;
-		for (int i = 0; i < number.length(); i++) {
-			int ascii = number.charAt(i);
-			if (!(((ascii >= '0') && (ascii <= '9')) || ((ascii >= 'A') && (ascii <= 'Z')))) {
-				throw new IllegalArgumentException("Illegal number, can have only digits (0-9) and letters (A-Z)");
-			}
+		return maxDigit + 1;
+	}
 
-			maxAscii = Math.max(ascii, maxAscii);
+	/**
+	 * Convert the given number, in its inferred base, exactly.
+	 * 
+	 * @param number the number, digits and letters only
+	 * @return the value of the number
+	 * @throws IllegalArgumentException if the number is empty or has other characters
+	 */
+	public static BigInteger toBigInteger(CharSequence number) {
+		return toBigInteger(number, inferRadix(number));
+	}
+
+	/**
+	 * Convert the given number, in its inferred base, to a <code>long</code>.
+	 * 
+	 * @param number the number, digits and letters only
+	 * @return the value of the number
+	 * @throws IllegalArgumentException if the number is empty or has other characters
+	 * @throws ArithmeticException if the value does not fit in a <code>long</code>
+	 */
+	public static long toLong(CharSequence number) {
+		final int radix = inferRadix(number);
+		if (number.length() <= DIGITS_PER_LONG[radix]) {
+			return horner(number, 0, number.length(), radix);
 		}
 
-		// check if the number has letters or not
-		double finalNumber = 0;
-		int length = number.length();
-		if (maxAscii >= 'A') {
-			int maxNumber = maxAscii - 'A' + 10 + 1;
-			for (int i = 0; i < length; i++) {
-				int charCode = number.charAt(i);
-				if (charCode >= 'A') {
-					charCode = charCode - 'A' + 10;
+		return toBigInteger(number, radix).longValueExact();
+	}
+
+	/**
+	 * Convert the given number in the given base exactly. Short numbers are
+	 * converted in a <code>long</code>. Longer ones are cut into chunks of
+	 * {@link #DIGITS_PER_LONG} digits from the right, each converted in a
+	 * <code>long</code>, and neighbouring chunks are then joined level by
+	 * level, each level multiplying by the square of the power used for the
+	 * level below.
+	 * 
+	 * @param number the number
+	 * @param radix the base, from 1 to 36, larger than every digit
+	 * @return the value of the number
+	 */
+	static BigInteger toBigInteger(CharSequence number, int radix) {
+		final int length = number.length();
+		final int chunk = DIGITS_PER_LONG[radix];
+		if (length <= chunk) {
+			return BigInteger.valueOf(horner(number, 0, length, radix));
+		}
+
+		// least significant chunk first
+		int count = (length + chunk - 1) / chunk;
+		BigInteger[] values = new BigInteger[count];
+		for (int i = 0; i < count; i++) {
+			int end = length - i * chunk;
+			values[i] = BigInteger.valueOf(horner(number, Math.max(0, end - chunk), end, radix));
+		}
+
+		for (int level = 0; count > 1; level++) {
+			final BigInteger power = chunkPower(radix, level);
+			int joined = 0;
+			for (int i = 0; i < count; i += 2) {
+				if (i + 1 < count) {
+					values[joined++] = values[i + 1].multiply(power).add(values[i]);
+				} else {
+					values[joined++] = values[i];
 				}
-				int num = charCode;
-				finalNumber = finalNumber + (num * Math.pow(maxNumber, (length - i - 1)));
 			}
-		} else {
-			int maxNumber = maxAscii - '0' + 1;
-			// just iterate over a normal loop
-			for (int i = 0; i < length; i++) {
-				int num = number.charAt(i) - '0';
-				finalNumber = finalNumber + (num * Math.pow(maxNumber, (length - i - 1)));
+
+			count = joined;
+		}
+
+		return values[0];
+	}
+
+	/**
+	 * Convert the given range of digits in a <code>long</code> with Horner's
+	 * rule. The range must be short enough for the value to fit.
+	 * 
+	 * @param number the number
+	 * @param start the index of the first digit, inclusive
+	 * @param end the index of the last digit, exclusive
+	 * @param radix the base
+	 * @return the value of the digits
+	 */
+	private static long horner(CharSequence number, int start, int end, int radix) {
+		long value = 0;
+		for (int i = start; i < end; i++) {
+			value = value * radix + digit(number.charAt(i));
+		}
+
+		return value;
+	}
+
+	/**
+	 * Return <code>radix^(DIGITS_PER_LONG[radix] &times; 2^level)</code>,
+	 * computing and caching the powers up to it as needed.
+	 * 
+	 * @param radix the base
+	 * @param level the level of the join
+	 * @return the power
+	 */
+	private static BigInteger chunkPower(int radix, int level) {
+		synchronized (CHUNK_POWERS) {
+			BigInteger[] powers = CHUNK_POWERS[radix];
+			if (powers == null || powers.length <= level) {
+				BigInteger[] grown = new BigInteger[level + 1];
+				int from = 0;
+				if (powers != null) {
+					System.arraycopy(powers, 0, grown, 0, powers.length);
+					from = powers.length;
+				}
+
+				for (int i = from; i <= level; i++) {
+					grown[i] = i == 0 ? BigInteger.valueOf(radix).pow(DIGITS_PER_LONG[radix]) : grown[i - 1].multiply(grown[i - 1]);
+				}
+
+				CHUNK_POWERS[radix] = grown;
+				powers = grown;
 			}
+
+			return powers[level];
+		}
+	}
+
+	/**
+	 * Return the value of the given digit or letter.
+	 * 
+	 * @param c the character
+	 * @return its value, from 0 to 35
+	 * @throws IllegalArgumentException if it is not a digit or a letter
+	 */
+	static int digit(char c) {
+		if (c >= '0' && c <= '9') {
+			return c - '0';
+		}
+
+		if (c >= 'A' && c <= 'Z') {
+			return c - 'A' + 10;
+		}
+
+		if (c >= 'a' && c <= 'z') {
+			return c - 'a' + 10;
 		}
 
-		return finalNumber;
+		throw new IllegalArgumentException("Illegal number, can have only digits (0-9) and letters (A-Z)");
 	}
 }
@@ -0,0 +1,250 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Searches very large texts using all available cores. The text is split into
+ * segments of candidate start positions; each segment is searched over its
+ * own range extended by <code>needle length - 1</code> characters so that
+ * matches straddling two segments are not lost, and the segments are run on
+ * a {@link ForkJoinPool}.
+ *
+ * When looking for the first match, segments to the right of an already
+ * found match stop as soon as they notice it. When looking for all matches,
+ * each segment produces its matches in order and the results are joined left
+ * to right, so the final result is sorted.
+ *
+ * Any {@link CharSequence} may be searched as long as it is not modified
+ * during the search. Instances are immutable and thread-safe.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class ParallelStringSearcher {
+
+	/**
+	 * Default number of start positions searched by a single task.
+	 */
+	public static final int DEFAULT_SEGMENT_SIZE = 256 * 1024;
+
+	/**
+	 * Number of start positions searched between two checks for an earlier
+	 * match found by another segment.
+	 */
+	private static final int CANCEL_CHECK_INTERVAL = 16 * 1024;
+
+	/**
+	 * The searcher used within each segment.
+	 */
+	private final StringSearcher searcher;
+
+	/**
+	 * The pool to run the segments on.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Number of start positions searched by a single task.
+	 */
+	private final int segmentSize;
+
+	public ParallelStringSearcher(String needle) {
+		this(needle, ForkJoinPool.commonPool(), DEFAULT_SEGMENT_SIZE);
+	}
+
+	public ParallelStringSearcher(String needle, ForkJoinPool pool, int segmentSize) {
+		if(pool == null) {
+			throw new IllegalArgumentException("Pool cannot be null.");
+		}
+
+		if(segmentSize <= 0) {
+			throw new IllegalArgumentException("Segment size must be positive.");
+		}
+
+		this.searcher = StringSearcher.forNeedle(needle);
+		this.pool = pool;
+		this.segmentSize = segmentSize;
+	}
+
+	/**
+	 * Find the first occurrence of the needle in the given text.
+	 *
+	 * @param text the text to search in
+	 * @return the index of the first occurrence, or <code>-1</code> if not found
+	 */
+	public int indexOf(CharSequence text) {
+		final int starts = text.length() - this.searcher.getNeedle().length() + 1;
+		if(starts <= this.segmentSize) {
+			return this.searcher.indexOf(text);
+		}
+
+		AtomicInteger first = new AtomicInteger(Integer.MAX_VALUE);
+		this.pool.invoke(new FirstMatchTask(text, 0, starts, first));
+
+		int index = first.get();
+		return index == Integer.MAX_VALUE ? -1 : index;
+	}
+
+	/**
+	 * Find all occurrences, including overlapping ones, of the needle in the
+	 * given text.
+	 *
+	 * @param text the text to search in
+	 * @return the sorted indices of all occurrences
+	 */
+	public int[] findAll(CharSequence text) {
+		final int starts = text.length() - this.searcher.getNeedle().length() + 1;
+		if(starts <= 0) {
+			return new int[0];
+		}
+
+		if(starts <= this.segmentSize) {
+			return searchSegment(text, 0, starts);
+		}
+
+		return this.pool.invoke(new AllMatchesTask(text, 0, starts));
+	}
+
+	/**
+	 * Find all matches that start in the given segment.
+	 *
+	 * @param text the text to search in
+	 * @param from the first start position of the segment
+	 * @param to the start position after the segment
+	 * @return the matches found in order
+	 */
+	private int[] searchSegment(CharSequence text, int from, int to) {
+		final int end = to + this.searcher.getNeedle().length() - 1;
+
+		int[] matches = new int[16];
+		int count = 0;
+		int index = from;
+		while(index < to && (index = this.searcher.indexOf(text, index, end)) != -1) {
+			if(count == matches.length) {
+				matches = Arrays.copyOf(matches, count * 2);
+			}
+
+			matches[count++] = index++;
+		}
+
+		return Arrays.copyOf(matches, count);
+	}
+
+	/**
+	 * Task that looks for the first match within a range of start positions.
+	 */
+	private class FirstMatchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final CharSequence text;
+
+		private final int from;
+
+		private final int to;
+
+		private final AtomicInteger first;
+
+		FirstMatchTask(CharSequence text, int from, int to, AtomicInteger first) {
+			this.text = text;
+			this.from = from;
+			this.to = to;
+			this.first = first;
+		}
+
+		@Override
+		protected void compute() {
+			if(this.from >= this.first.get()) {
+				return;
+			}
+
+			if(this.to - this.from > segmentSize) {
+				int mid = (this.from + this.to) >>> 1;
+				invokeAll(new FirstMatchTask(this.text, this.from, mid, this.first), new FirstMatchTask(this.text, mid, this.to, this.first));
+				return;
+			}
+
+			final int extra = searcher.getNeedle().length() - 1;
+			for(int block = this.from; block < this.to; block += CANCEL_CHECK_INTERVAL) {
+				if(block >= this.first.get()) {
+					return;
+				}
+
+				int blockEnd = Math.min(block + CANCEL_CHECK_INTERVAL, this.to);
+				int index = searcher.indexOf(this.text, block, blockEnd + extra);
+				if(index != -1) {
+					int current = this.first.get();
+					while(index < current && !this.first.compareAndSet(current, index)) {
+						current = this.first.get();
+					}
+
+					return;
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Task that collects all matches within a range of start positions.
+	 */
+	private class AllMatchesTask extends RecursiveTask<int[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final CharSequence text;
+
+		private final int from;
+
+		private final int to;
+
+		AllMatchesTask(CharSequence text, int from, int to) {
+			this.text = text;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected int[] compute() {
+			if(this.to - this.from <= segmentSize) {
+				return searchSegment(this.text, this.from, this.to);
+			}
+
+			int mid = (this.from + this.to) >>> 1;
+			AllMatchesTask right = new AllMatchesTask(this.text, mid, this.to);
+			right.fork();
+			int[] leftMatches = new AllMatchesTask(this.text, this.from, mid).compute();
+			int[] rightMatches = right.join();
+
+			int[] matches = Arrays.copyOf(leftMatches, leftMatches.length + rightMatches.length);
+			System.arraycopy(rightMatches, 0, matches, leftMatches.length, rightMatches.length);
+			return matches;
+		}
+
+	}
+
+}
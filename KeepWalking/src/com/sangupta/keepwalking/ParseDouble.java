@@ -19,16 +19,108 @@
 
 package com.sangupta.keepwalking;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 
 /**
  * A simple Java implementation of the Java's <code>Double.parseDouble()</code> function.
  * 
+ * The digits are collected into a 64-bit integer in a single pass and the
+ * result is computed using the Eisel-Lemire algorithm, which gives results
+ * bit-identical to <code>Double.parseDouble()</code>. The rare inputs for
+ * which the 128-bit approximation cannot decide the rounding fall back to an
+ * exact {@link BigDecimal} conversion. Numbers can be parsed straight from a
+ * {@link CharSequence}, a <code>char[]</code> or a <code>byte[]</code> range
+ * without allocating any objects.
+ * 
  * @author Sandeep Gupta <a href="http://www.sangupta.com">[email]</a>
- * @version 1.0
+ * @version 1.1
  * @since 22 Sep 2011
  */
 public class ParseDouble {
 	
+	/**
+	 * Status returned when the number was parsed successfully.
+	 */
+	public static final int OK = 0;
+	
+	/**
+	 * Status returned when the input is empty or only has white space.
+	 */
+	public static final int ERROR_EMPTY = 1;
+	
+	/**
+	 * Status returned when the input is not a valid number.
+	 */
+	public static final int ERROR_MALFORMED = 2;
+	
+	/**
+	 * Separator value that turns off digit grouping.
+	 */
+	public static final char NO_SEPARATOR = '\0';
+	
+	/**
+	 * Quiet NaN with a payload that signals empty input internally.
+	 */
+	private static final long ERROR_EMPTY_BITS = 0x7FFDEAD000000001L;
+	
+	/**
+	 * Value form of {@link #ERROR_EMPTY_BITS}.
+	 */
+	private static final double ERROR_EMPTY_VALUE = Double.longBitsToDouble(ERROR_EMPTY_BITS);
+	
+	/**
+	 * Quiet NaN with a payload that signals malformed input internally.
+	 */
+	private static final long ERROR_MALFORMED_BITS = 0x7FFDEAD000000002L;
+	
+	/**
+	 * Value form of {@link #ERROR_MALFORMED_BITS}.
+	 */
+	private static final double ERROR_MALFORMED_VALUE = Double.longBitsToDouble(ERROR_MALFORMED_BITS);
+	
+	/**
+	 * Exponents are saturated at this value, anything larger over- or
+	 * underflows anyways.
+	 */
+	private static final int MAX_EXPONENT = 100000000;
+	
+	/**
+	 * Maximum number of significant decimal digits that fit in a <code>long</code>.
+	 */
+	private static final int MAX_DIGITS = 19;
+	
+	/**
+	 * Smallest power of ten for which a non-zero result is possible.
+	 */
+	private static final int SMALLEST_POWER_OF_TEN = -342;
+	
+	/**
+	 * Largest power of ten for which a finite result is possible.
+	 */
+	private static final int LARGEST_POWER_OF_TEN = 308;
+	
+	/**
+	 * Bits of positive infinity.
+	 */
+	private static final long INFINITY_BITS = 0x7FF0000000000000L;
+	
+	/**
+	 * Powers of ten that are exactly representable as a double.
+	 */
+	private static final double[] EXACT_POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+	
+	/**
+	 * 128-bit truncated approximations of the powers of five from
+	 * <code>5^-342</code> to <code>5^308</code>, normalized so that the most
+	 * significant bit is set. Each power takes two entries, the high 64 bits
+	 * followed by the low 64 bits.
+	 */
+	private static final long[] POWERS_OF_FIVE = computePowersOfFive();
+	
 	/**
 	 * Some tests to run.
 	 * 
@@ -42,95 +134,805 @@ public class ParseDouble {
 	 * A simple implementation that takes a number as a string and converts it
 	 * to a double method, similar to what <code>Double.parseDouble()</code> does.
 	 * 
-	 * The following number values are supported,
+	 * The full Java floating point literal grammar is supported, for example
 	 * +23
 	 * -23
+	 * 23
 	 * +0.23
 	 * +.23
 	 * 0.23
 	 * .23
+	 * 23.
 	 * 0000.23
 	 * 0.23000
+	 * 1.5e-7
+	 * 1E10
+	 * 2.5d
+	 * 0x1.8p3
+	 * NaN
+	 * -Infinity
 	 * 
-	 * @param string the string representation of the number
+	 * @param num the string representation of the number
 	 * @return the double value
 	 * @throws NumberFormatException if the string does not represent a number or is malformed
 	 */
-	private static double parseDouble(String num) {
-		if(num == null || "".equals(num.trim())) {
+	public static double parseDouble(CharSequence num) {
+		if(num == null) {
 			throw new NumberFormatException("Number cannot be null/empty.");
 		}
 		
+		return check(parse(num, null, null, 0, num.length(), NO_SEPARATOR), num, null, null, 0, num.length());
+	}
+	
+	/**
+	 * Parse the number in the given range of the character sequence.
+	 * 
+	 * @param num the characters holding the number
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @return the double value
+	 * @throws NumberFormatException if the range does not represent a number or is malformed
+	 */
+	public static double parseDouble(CharSequence num, int start, int end) {
+		checkRange(num == null ? -1 : num.length(), start, end);
+		return check(parse(num, null, null, start, end, NO_SEPARATOR), num, null, null, start, end);
+	}
+	
+	/**
+	 * Parse the number in the given range of the character array.
+	 * 
+	 * @param num the characters holding the number
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @return the double value
+	 * @throws NumberFormatException if the range does not represent a number or is malformed
+	 */
+	public static double parseDouble(char[] num, int start, int end) {
+		checkRange(num == null ? -1 : num.length, start, end);
+		return check(parse(null, num, null, start, end, NO_SEPARATOR), null, num, null, start, end);
+	}
+	
+	/**
+	 * Parse the number in the given range of the byte array, the bytes being
+	 * ASCII characters.
+	 * 
+	 * @param num the bytes holding the number
+	 * @param start the index of the first byte, inclusive
+	 * @param end the index of the last byte, exclusive
+	 * @return the double value
+	 * @throws NumberFormatException if the range does not represent a number or is malformed
+	 */
+	public static double parseDouble(byte[] num, int start, int end) {
+		checkRange(num == null ? -1 : num.length, start, end);
+		return check(parse(null, null, num, start, end, NO_SEPARATOR), null, null, num, start, end);
+	}
+	
+	/**
+	 * Parse the number in the given range of the character sequence without
+	 * throwing an exception for malformed input.
+	 * 
+	 * @param num the characters holding the number
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @param separator the digit group separator to accept between digits, or
+	 *        {@link #NO_SEPARATOR}
+	 * @param result the array to store the parsed value in
+	 * @param resultIndex the index in the array to store the value at
+	 * @return {@link #OK} if the number was parsed, else {@link #ERROR_EMPTY} or
+	 *         {@link #ERROR_MALFORMED}
+	 */
+	public static int tryParse(CharSequence num, int start, int end, char separator, double[] result, int resultIndex) {
+		return store(parse(num, null, null, start, end, separator), result, resultIndex);
+	}
+	
+	/**
+	 * Parse the number in the given range of the character array without
+	 * throwing an exception for malformed input.
+	 * 
+	 * @param num the characters holding the number
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @param separator the digit group separator to accept between digits, or
+	 *        {@link #NO_SEPARATOR}
+	 * @param result the array to store the parsed value in
+	 * @param resultIndex the index in the array to store the value at
+	 * @return {@link #OK} if the number was parsed, else {@link #ERROR_EMPTY} or
+	 *         {@link #ERROR_MALFORMED}
+	 */
+	public static int tryParse(char[] num, int start, int end, char separator, double[] result, int resultIndex) {
+		return store(parse(null, num, null, start, end, separator), result, resultIndex);
+	}
+	
+	/**
+	 * Parse the number in the given range of the byte array without throwing
+	 * an exception for malformed input.
+	 * 
+	 * @param num the bytes holding the number
+	 * @param start the index of the first byte, inclusive
+	 * @param end the index of the last byte, exclusive
+	 * @param separator the digit group separator to accept between digits, or
+	 *        {@link #NO_SEPARATOR}
+	 * @param result the array to store the parsed value in
+	 * @param resultIndex the index in the array to store the value at
+	 * @return {@link #OK} if the number was parsed, else {@link #ERROR_EMPTY} or
+	 *         {@link #ERROR_MALFORMED}
+	 */
+	public static int tryParse(byte[] num, int start, int end, char separator, double[] result, int resultIndex) {
+		return store(parse(null, null, num, start, end, separator), result, resultIndex);
+	}
+	
+	/**
+	 * The actual parser. Exactly one of the three sources is non-null, which
+	 * lets a single copy of the grammar serve all source types without
+	 * wrapping them in an object.
+	 * 
+	 * Errors are returned as <code>NaN</code> values carrying a special
+	 * payload, see {@link #ERROR_EMPTY_BITS} and {@link #ERROR_MALFORMED_BITS},
+	 * so that the hot path needs neither exceptions nor a result object.
+	 * 
+	 * @param cs the character sequence source, or <code>null</code>
+	 * @param ca the character array source, or <code>null</code>
+	 * @param ba the byte array source, or <code>null</code>
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @param separator the digit group separator, or {@link #NO_SEPARATOR}
+	 * @return the double value, or one of the error values
+	 */
+	private static double parse(CharSequence cs, char[] ca, byte[] ba, int start, int end, int separator) {
 		// remove any leading or trailing spaces
-		num = num.trim();
-		final int size = num.length();
+		while(start < end && charAt(cs, ca, ba, start) <= ' ') {
+			start++;
+		}
+		
+		while(end > start && charAt(cs, ca, ba, end - 1) <= ' ') {
+			end--;
+		}
 		
-		// holds the starting position of the digits
-		int index = 0;
+		if(start == end) {
+			return ERROR_EMPTY_VALUE;
+		}
+		
+		// a trailing type suffix is allowed for numbers, not for NaN and Infinity
+		int last = charAt(cs, ca, ba, end - 1);
+		boolean hasSuffix = last == 'd' || last == 'D' || last == 'f' || last == 'F';
+		
+		int index = start;
+		
+		// check for unary operators
 		boolean isNegative = false;
+		int first = charAt(cs, ca, ba, index);
+		if(first == '+') {
+			index++;
+		} else if(first == '-') {
+			index++;
+			isNegative = true;
+		}
+		
+		if(index == end) {
+			return ERROR_MALFORMED_VALUE;
+		}
+		
+		double number;
+		int c = charAt(cs, ca, ba, index);
+		if(c == 'N') {
+			return matches(cs, ca, ba, index, end, "NaN") ? Double.NaN : ERROR_MALFORMED_VALUE;
+		} else if(c == 'I') {
+			if(!matches(cs, ca, ba, index, end, "Infinity")) {
+				return ERROR_MALFORMED_VALUE;
+			}
+			
+			number = Double.POSITIVE_INFINITY;
+		} else {
+			if(hasSuffix) {
+				end--;
+			}
+			
+			if(c == '0' && index + 1 < end && (charAt(cs, ca, ba, index + 1) | 0x20) == 'x') {
+				number = parseHex(cs, ca, ba, index + 2, end);
+			} else {
+				number = parseDecimal(cs, ca, ba, index, end, separator);
+			}
+			
+			if(isError(number)) {
+				return number;
+			}
+		}
+		
+		// test for negative
+		if(isNegative) {
+			number = -number;
+		}
+		
+		return number;
+	}
+	
+	/**
+	 * Parse an unsigned decimal number with an optional exponent.
+	 * 
+	 * @param cs the character sequence source, or <code>null</code>
+	 * @param ca the character array source, or <code>null</code>
+	 * @param ba the byte array source, or <code>null</code>
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @param separator the digit group separator, or {@link #NO_SEPARATOR}
+	 * @return the positive double value, or one of the error values
+	 */
+	private static double parseDecimal(CharSequence cs, char[] ca, byte[] ba, int start, int end, int separator) {
+		// collect up to 19 significant digits, keeping track of the
+		// power of ten to scale them with
+		long mantissa = 0;
+		int significant = 0;
+		int exponent = 0;
+		int digits = 0;
+		boolean truncated = false;
 		boolean hasDecimal = false;
+		boolean afterDigit = false;
 		
-		// check for unary operators
-		char first = num.charAt(0);
-		switch(first) {
-			case '+':
-				index++;
+		int index = start;
+		for( ; index < end; index++) {
+			int c = charAt(cs, ca, ba, index);
+			if(isNumeric(c)) {
+				digits++;
+				afterDigit = true;
+				int digit = c - '0';
+				if(significant < MAX_DIGITS) {
+					if(significant > 0 || digit != 0) {
+						mantissa = mantissa * 10 + digit;
+						significant++;
+					}
+					
+					if(hasDecimal) {
+						exponent--;
+					}
+				} else {
+					if(digit != 0) {
+						truncated = true;
+					}
+					
+					if(!hasDecimal) {
+						exponent++;
+					}
+				}
+			} else if(c == separator && separator != NO_SEPARATOR) {
+				// separators may only appear between two digits
+				if(!afterDigit || index + 1 == end || !isNumeric(charAt(cs, ca, ba, index + 1))) {
+					return ERROR_MALFORMED_VALUE;
+				}
+			} else if(c == '.' && !hasDecimal) {
+				hasDecimal = true;
+				afterDigit = false;
+			} else {
 				break;
-				
-			case '-':
+			}
+		}
+		
+		if(digits == 0) {
+			return ERROR_MALFORMED_VALUE;
+		}
+		
+		final int mantissaEnd = index;
+		
+		// the optional exponent
+		int power = 0;
+		if(index < end) {
+			int c = charAt(cs, ca, ba, index);
+			if(c != 'e' && c != 'E') {
+				return ERROR_MALFORMED_VALUE;
+			}
+			
+			power = parseExponent(cs, ca, ba, index + 1, end);
+			if(power == Integer.MIN_VALUE) {
+				return ERROR_MALFORMED_VALUE;
+			}
+		}
+		
+		double number = toDouble(mantissa, exponent + power, truncated);
+		if(Double.isNaN(number)) {
+			number = slowPath(cs, ca, ba, start, mantissaEnd, power);
+		}
+		
+		return number;
+	}
+	
+	/**
+	 * Parse an unsigned hexadecimal number, the part after the <code>0x</code>
+	 * prefix, including the mandatory binary exponent. Up to 60 significant
+	 * bits are kept, the rest only count towards rounding.
+	 * 
+	 * @param cs the character sequence source, or <code>null</code>
+	 * @param ca the character array source, or <code>null</code>
+	 * @param ba the byte array source, or <code>null</code>
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @return the positive double value, or one of the error values
+	 */
+	private static double parseHex(CharSequence cs, char[] ca, byte[] ba, int start, int end) {
+		long mantissa = 0;
+		int exponent = 0;
+		int digits = 0;
+		boolean sticky = false;
+		boolean hasDecimal = false;
+		
+		int index = start;
+		for( ; index < end; index++) {
+			int c = charAt(cs, ca, ba, index);
+			int digit = hexValue(c);
+			if(digit >= 0) {
+				digits++;
+				if((mantissa >>> 56) == 0) {
+					mantissa = (mantissa << 4) | digit;
+					if(hasDecimal) {
+						exponent -= 4;
+					}
+				} else {
+					if(digit != 0) {
+						sticky = true;
+					}
+					
+					if(!hasDecimal) {
+						exponent += 4;
+					}
+				}
+			} else if(c == '.' && !hasDecimal) {
+				hasDecimal = true;
+			} else {
+				break;
+			}
+		}
+		
+		if(digits == 0 || index == end) {
+			return ERROR_MALFORMED_VALUE;
+		}
+		
+		int c = charAt(cs, ca, ba, index);
+		if(c != 'p' && c != 'P') {
+			return ERROR_MALFORMED_VALUE;
+		}
+		
+		int power = parseExponent(cs, ca, ba, index + 1, end);
+		if(power == Integer.MIN_VALUE) {
+			return ERROR_MALFORMED_VALUE;
+		}
+		
+		if(mantissa == 0) {
+			return 0.0;
+		}
+		
+		exponent += power;
+		
+		// round to the number of bits available at the target exponent
+		final int highBit = 63 - Long.numberOfLeadingZeros(mantissa);
+		final int magnitude = highBit + exponent;
+		if(magnitude > 1023) {
+			return Double.POSITIVE_INFINITY;
+		}
+		
+		final int precision = magnitude >= -1022 ? 53 : magnitude + 1075;
+		if(precision < 0) {
+			return 0.0;
+		}
+		
+		final int drop = highBit + 1 - precision;
+		if(drop > 0) {
+			boolean round = ((mantissa >>> (drop - 1)) & 1) != 0;
+			boolean rest = sticky || (mantissa & ((1L << (drop - 1)) - 1)) != 0;
+			mantissa >>>= drop;
+			exponent += drop;
+			if(round && (rest || (mantissa & 1) != 0)) {
+				mantissa++;
+			}
+		}
+		
+		// the mantissa now fits in 53 bits, so this is exact
+		return Math.scalb((double) mantissa, exponent);
+	}
+	
+	/**
+	 * Parse a signed decimal exponent that runs till the end of the range.
+	 * Values too large to matter are saturated.
+	 * 
+	 * @param cs the character sequence source, or <code>null</code>
+	 * @param ca the character array source, or <code>null</code>
+	 * @param ba the byte array source, or <code>null</code>
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @return the exponent, or <code>Integer.MIN_VALUE</code> if malformed
+	 */
+	private static int parseExponent(CharSequence cs, char[] ca, byte[] ba, int start, int end) {
+		int index = start;
+		boolean isNegative = false;
+		if(index < end) {
+			int sign = charAt(cs, ca, ba, index);
+			if(sign == '+') {
 				index++;
+			} else if(sign == '-') {
 				isNegative = true;
-				break;
-				
-			case '.':
 				index++;
-				hasDecimal = true;
-				break;
-				
-			default:
-				throw new NumberFormatException("Number is malformed: " + num); 
+			}
 		}
 		
-		// start the parsing logic
+		if(index == end) {
+			return Integer.MIN_VALUE;
+		}
 		
-		double ip = 0.0, dp = 0.0;
-		double fd = 1.0;
+		int exponent = 0;
+		for( ; index < end; index++) {
+			int c = charAt(cs, ca, ba, index);
+			if(!isNumeric(c)) {
+				return Integer.MIN_VALUE;
+			}
+			
+			if(exponent < MAX_EXPONENT) {
+				exponent = exponent * 10 + (c - '0');
+			}
+		}
+		
+		return isNegative ? -exponent : exponent;
+	}
+	
+	/**
+	 * Convert <code>mantissa * 10^exponent</code> to the nearest double.
+	 * 
+	 * @param mantissa the significant digits, as an unsigned value
+	 * @param exponent the power of ten
+	 * @param truncated whether non-zero digits were dropped from the mantissa
+	 * @return the double value, or <code>NaN</code> if the slow path is needed
+	 */
+	static double toDouble(long mantissa, int exponent, boolean truncated) {
+		if(mantissa == 0) {
+			return 0.0;
+		}
 		
-		for(int i = index; i < size; i++) {
-			char c = num.charAt(i);
-			int digit = c - '0';
+		// Clinger's fast path: both operands are exact so the single
+		// operation rounds correctly
+		if(!truncated && exponent >= -22 && exponent <= 22 && mantissa > 0 && mantissa <= (1L << 53)) {
+			if(exponent < 0) {
+				return mantissa / EXACT_POWERS_OF_TEN[-exponent];
+			}
 			
-			if(isNumeric(c) && digit != '0') {
-				if(!hasDecimal) {
-					ip *= 10;
-					ip += digit;
-				} else {
-					dp *= 10;
-					dp += digit;
-					fd *= 10;
+			return mantissa * EXACT_POWERS_OF_TEN[exponent];
+		}
+		
+		long bits = eiselLemire(mantissa, exponent);
+		if(bits < 0) {
+			return Double.NaN;
+		}
+		
+		// the real value lies between mantissa and mantissa + 1 so both
+		// must round to the same double for the result to be correct
+		if(truncated && bits != eiselLemire(mantissa + 1, exponent)) {
+			return Double.NaN;
+		}
+		
+		return Double.longBitsToDouble(bits);
+	}
+	
+	/**
+	 * Compute the bits of the double nearest to <code>w * 10^q</code> using
+	 * the Eisel-Lemire algorithm.
+	 * 
+	 * @param w the decimal significand, non-zero
+	 * @param q the power of ten
+	 * @return the bits of the positive double, or <code>-1</code> if the
+	 *         result could not be determined
+	 */
+	private static long eiselLemire(long w, int q) {
+		if(q < SMALLEST_POWER_OF_TEN) {
+			return 0;
+		}
+		
+		if(q > LARGEST_POWER_OF_TEN) {
+			return INFINITY_BITS;
+		}
+		
+		final int leadingZeros = Long.numberOfLeadingZeros(w);
+		w <<= leadingZeros;
+		
+		// multiply with the 128-bit power of five, only using the lower
+		// half when the upper half is not precise enough
+		final int index = 2 * (q - SMALLEST_POWER_OF_TEN);
+		long high = multiplyHigh(w, POWERS_OF_FIVE[index]);
+		long low = w * POWERS_OF_FIVE[index];
+		if((high & 0x1FF) == 0x1FF) {
+			long secondHigh = multiplyHigh(w, POWERS_OF_FIVE[index + 1]);
+			long sum = low + secondHigh;
+			if(Long.compareUnsigned(secondHigh, sum) > 0) {
+				high++;
+			}
+			
+			low = sum;
+			if(low == -1L && (q < -27 || q > 55)) {
+				return -1;
+			}
+		}
+		
+		final int upperBit = (int) (high >>> 63);
+		final int shift = upperBit + 9;
+		long mantissa = high >>> shift;
+		int power2 = (((152170 + 65536) * q) >> 16) + 63 + upperBit - leadingZeros + 1023;
+		
+		if(power2 <= 0) {
+			// subnormal number
+			if(-power2 + 1 >= 64) {
+				return 0;
+			}
+			
+			mantissa >>>= -power2 + 1;
+			mantissa += (mantissa & 1);
+			mantissa >>>= 1;
+			power2 = mantissa < (1L << 52) ? 0 : 1;
+			return mantissa | ((long) power2 << 52);
+		}
+		
+		// exactly half-way between two doubles, round to even
+		if(Long.compareUnsigned(low, 1) <= 0 && q >= -4 && q <= 23 && (mantissa & 3) == 1) {
+			if((mantissa << shift) == high) {
+				mantissa &= ~1L;
+			}
+		}
+		
+		mantissa += (mantissa & 1);
+		mantissa >>>= 1;
+		if(mantissa >= (2L << 52)) {
+			mantissa = 1L << 52;
+			power2++;
+		}
+		
+		mantissa &= ~(1L << 52);
+		if(power2 >= 0x7FF) {
+			return INFINITY_BITS;
+		}
+		
+		return mantissa | ((long) power2 << 52);
+	}
+	
+	/**
+	 * Exact conversion used when the fast algorithm cannot decide the result.
+	 * Only the digits and the decimal point of the mantissa are considered,
+	 * the sign is applied by the caller.
+	 * 
+	 * @param cs the character sequence source, or <code>null</code>
+	 * @param ca the character array source, or <code>null</code>
+	 * @param ba the byte array source, or <code>null</code>
+	 * @param start the index of the first character of the mantissa, inclusive
+	 * @param end the index of the last character of the mantissa, exclusive
+	 * @param power the decimal exponent that followed the mantissa
+	 * @return the positive double value
+	 */
+	private static double slowPath(CharSequence cs, char[] ca, byte[] ba, int start, int end, int power) {
+		StringBuilder digits = new StringBuilder(end - start);
+		int scale = -power;
+		boolean hasDecimal = false;
+		for(int index = start; index < end; index++) {
+			int c = charAt(cs, ca, ba, index);
+			if(isNumeric(c)) {
+				if(digits.length() > 0 || c != '0') {
+					digits.append((char) c);
 				}
-			} else if(c == '.') {
+				
 				if(hasDecimal) {
-					throw new NumberFormatException("Number is malformed: " + num);
+					scale++;
 				}
-				
+			} else if(c == '.') {
 				hasDecimal = true;
-			} else {
-				throw new NumberFormatException("Number is malformed: " + num);
 			}
 		}
 		
-		// add the decimal fraction
-		dp = dp / fd;
-		double number = ip + dp;
+		return new BigDecimal(new BigInteger(digits.toString()), scale).doubleValue();
+	}
+	
+	/**
+	 * Return the 64 most significant bits of the unsigned 128-bit product of
+	 * the two given values.
+	 * 
+	 * @param x the first value, unsigned
+	 * @param y the second value, unsigned
+	 * @return the upper half of the product
+	 */
+	private static long multiplyHigh(long x, long y) {
+		final long x0 = x & 0xFFFFFFFFL, x1 = x >>> 32;
+		final long y0 = y & 0xFFFFFFFFL, y1 = y >>> 32;
+		
+		final long p00 = x0 * y0;
+		final long p01 = x0 * y1;
+		final long p10 = x1 * y0;
+		final long p11 = x1 * y1;
 		
-		// test for negative
-		if(isNegative) {
-			number = 0 - number;
+		final long middle = p10 + (p00 >>> 32) + (p01 & 0xFFFFFFFFL);
+		return p11 + (middle >>> 32) + (p01 >>> 32);
+	}
+	
+	/**
+	 * Build the table of 128-bit powers of five.
+	 * 
+	 * @return the table
+	 */
+	private static long[] computePowersOfFive() {
+		final BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+		final int count = LARGEST_POWER_OF_TEN - SMALLEST_POWER_OF_TEN + 1;
+		long[] table = new long[2 * count];
+		
+		BigInteger five = BigInteger.valueOf(5);
+		for(int q = SMALLEST_POWER_OF_TEN; q <= LARGEST_POWER_OF_TEN; q++) {
+			BigInteger value;
+			if(q < 0) {
+				// reciprocal, rounded up
+				BigInteger power = five.pow(-q);
+				int z = power.bitLength();
+				int b = q >= -27 ? z + 127 : 2 * z + 128;
+				value = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+			} else {
+				value = five.pow(q);
+			}
+			
+			// truncate or extend to exactly 128 bits
+			int bits = value.bitLength();
+			value = bits > 128 ? value.shiftRight(bits - 128) : value.shiftLeft(128 - bits);
+			
+			int index = 2 * (q - SMALLEST_POWER_OF_TEN);
+			table[index] = value.shiftRight(64).longValue();
+			table[index + 1] = value.and(mask).longValue();
+		}
+		
+		return table;
+	}
+	
+	/**
+	 * Throw the matching exception if the parsed value signals an error.
+	 * 
+	 * @param number the value returned by the parser
+	 * @param cs the character sequence source, or <code>null</code>
+	 * @param ca the character array source, or <code>null</code>
+	 * @param ba the byte array source, or <code>null</code>
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @return the number itself
+	 * @throws NumberFormatException if the value signals an error
+	 */
+	private static double check(double number, CharSequence cs, char[] ca, byte[] ba, int start, int end) {
+		if(isError(number)) {
+			if(Double.doubleToRawLongBits(number) == ERROR_EMPTY_BITS) {
+				throw new NumberFormatException("Number cannot be null/empty.");
+			}
+			
+			throw malformed(cs, ca, ba, start, end);
 		}
 		
 		return number;
 	}
+	
+	/**
+	 * Store the parsed value in the result array and convert it to a status.
+	 * 
+	 * @param number the value returned by the parser
+	 * @param result the array to store the value in
+	 * @param resultIndex the index to store the value at
+	 * @return the status code
+	 */
+	private static int store(double number, double[] result, int resultIndex) {
+		if(isError(number)) {
+			return Double.doubleToRawLongBits(number) == ERROR_EMPTY_BITS ? ERROR_EMPTY : ERROR_MALFORMED;
+		}
+		
+		result[resultIndex] = number;
+		return OK;
+	}
+	
+	/**
+	 * Check if the value returned by the parser signals an error.
+	 * 
+	 * @param number the value returned by the parser
+	 * @return <code>true</code> if it is one of the error values
+	 */
+	private static boolean isError(double number) {
+		if(number == number) {
+			return false;
+		}
+		
+		long bits = Double.doubleToRawLongBits(number);
+		return bits == ERROR_EMPTY_BITS || bits == ERROR_MALFORMED_BITS;
+	}
+	
+	/**
+	 * Check if the given range is exactly the given word.
+	 * 
+	 * @param cs the character sequence source, or <code>null</code>
+	 * @param ca the character array source, or <code>null</code>
+	 * @param ba the byte array source, or <code>null</code>
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @param word the word to match
+	 * @return <code>true</code> if the range matches the word
+	 */
+	private static boolean matches(CharSequence cs, char[] ca, byte[] ba, int start, int end, String word) {
+		if(end - start != word.length()) {
+			return false;
+		}
+		
+		for(int index = 0; index < word.length(); index++) {
+			if(charAt(cs, ca, ba, start + index) != word.charAt(index)) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Return the value of the given hexadecimal digit.
+	 * 
+	 * @param c the character to convert
+	 * @return the value of the digit, or <code>-1</code> if not a hex digit
+	 */
+	private static int hexValue(int c) {
+		if(c >= '0' && c <= '9') {
+			return c - '0';
+		}
+		
+		c |= 0x20;
+		if(c >= 'a' && c <= 'f') {
+			return c - 'a' + 10;
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Return the character at the given index from whichever source is set.
+	 * 
+	 * @param cs the character sequence source, or <code>null</code>
+	 * @param ca the character array source, or <code>null</code>
+	 * @param ba the byte array source, or <code>null</code>
+	 * @param index the index to read
+	 * @return the character
+	 */
+	static int charAt(CharSequence cs, char[] ca, byte[] ba, int index) {
+		if(ba != null) {
+			return ba[index] & 0xFF;
+		}
+		
+		if(ca != null) {
+			return ca[index];
+		}
+		
+		return cs.charAt(index);
+	}
+	
+	/**
+	 * Validate the given range against the length of the source.
+	 * 
+	 * @param length the length of the source, <code>-1</code> if it is <code>null</code>
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 */
+	private static void checkRange(int length, int start, int end) {
+		if(length < 0) {
+			throw new NumberFormatException("Number cannot be null/empty.");
+		}
+		
+		if(start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for length " + length);
+		}
+	}
+	
+	/**
+	 * Create the exception for a malformed number.
+	 * 
+	 * @param cs the character sequence source, or <code>null</code>
+	 * @param ca the character array source, or <code>null</code>
+	 * @param ba the byte array source, or <code>null</code>
+	 * @param start the index of the first character, inclusive
+	 * @param end the index of the last character, exclusive
+	 * @return the exception to throw
+	 */
+	private static NumberFormatException malformed(CharSequence cs, char[] ca, byte[] ba, int start, int end) {
+		StringBuilder num = new StringBuilder(end - start);
+		for(int index = start; index < end; index++) {
+			num.append((char) charAt(cs, ca, ba, index));
+		}
+		
+		return new NumberFormatException("Number is malformed: " + num);
+	}
 
 	/**
 	 * Tests whether the given character is a digit or not.
@@ -138,7 +940,7 @@ public class ParseDouble {
 	 * @param digit the character to be tested
 	 * @return <code>true</code> if character is a digit, else <code>false</code>
 	 */
-	private static boolean isNumeric(char digit) {
+	private static boolean isNumeric(int digit) {
 		if('0' <= digit && digit <= '9') {
 			return true;
 		}
@@ -0,0 +1,446 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A compact, sorted list of relative file paths. Paths are kept as UTF-8
+ * bytes in unsigned byte order and front-coded: each path stores only the
+ * length of the prefix it shares with the previous path and the bytes that
+ * follow. Every {@link #RESTART_INTERVAL}th path is stored in full, and the
+ * offsets of these restart points allow a binary search. A tree of several
+ * hundred thousand paths fits in a few megabytes this way, as most paths
+ * share their folders with the previous one.
+ *
+ * Paths are read back one at a time with {@link #get(int)}, or in order with
+ * a {@link Cursor}, which decodes each path from the previous one and lets
+ * two indexes be merged in a single pass.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class PathIndex {
+
+	/**
+	 * Number of paths between two paths stored in full.
+	 */
+	public static final int RESTART_INTERVAL = 16;
+
+	/**
+	 * The encoding of the stored paths.
+	 */
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * The front-coded paths.
+	 */
+	private final byte[] data;
+
+	/**
+	 * Offsets in the data of every path stored in full.
+	 */
+	private final int[] restarts;
+
+	/**
+	 * Number of paths in the index.
+	 */
+	private final int size;
+
+	PathIndex(byte[] data, int[] restarts, int size) {
+		this.data = data;
+		this.restarts = restarts;
+		this.size = size;
+	}
+
+	/**
+	 * Encode a path the way it is stored in an index.
+	 *
+	 * @param path the path to encode
+	 * @return the UTF-8 bytes of the path
+	 */
+	public static byte[] encode(String path) {
+		return path.getBytes(UTF_8);
+	}
+
+	/**
+	 * Compare two encoded paths in the order of an index.
+	 *
+	 * @param first the first path
+	 * @param firstLength the number of bytes of the first path
+	 * @param second the second path
+	 * @param secondLength the number of bytes of the second path
+	 * @return a negative value, zero or a positive value as the first path
+	 *         sorts before, equal to, or after the second one
+	 */
+	public static int compare(byte[] first, int firstLength, byte[] second, int secondLength) {
+		final int length = Math.min(firstLength, secondLength);
+		for(int index = 0; index < length; index++) {
+			int difference = (first[index] & 0xff) - (second[index] & 0xff);
+			if(difference != 0) {
+				return difference;
+			}
+		}
+
+		return firstLength - secondLength;
+	}
+
+	/**
+	 * Return the number of paths in the index.
+	 *
+	 * @return the number of paths
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Return the number of bytes the paths take.
+	 *
+	 * @return the size of the encoded paths
+	 */
+	public int byteSize() {
+		return this.data.length + this.restarts.length * 4;
+	}
+
+	/**
+	 * Return the path at the given index.
+	 *
+	 * @param index the index of the path
+	 * @return the path
+	 */
+	public String get(int index) {
+		if(index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + this.size);
+		}
+
+		Cursor cursor = new Cursor(index / RESTART_INTERVAL * RESTART_INTERVAL);
+		while(cursor.index < index) {
+			cursor.next();
+		}
+
+		return cursor.toString();
+	}
+
+	/**
+	 * Find the index of the given path.
+	 *
+	 * @param path the path to look for
+	 * @return the index of the path, or <code>-(insertion point) - 1</code> if
+	 *         it is not in the index
+	 */
+	public int indexOf(String path) {
+		return indexOf(encode(path));
+	}
+
+	/**
+	 * Find the index of the given encoded path.
+	 *
+	 * @param key the encoded path to look for
+	 * @return the index of the path, or <code>-(insertion point) - 1</code> if
+	 *         it is not in the index
+	 */
+	int indexOf(byte[] key) {
+		// find the last restart point not after the key
+		int low = 0;
+		int high = this.restarts.length - 1;
+		while(low <= high) {
+			int mid = (low + high) >>> 1;
+			int offset = this.restarts[mid];
+			int length = readVarInt(this.data, offset + 1);
+			int start = offset + 1 + varIntLength(length);
+			int difference = compare(this.data, start, length, key);
+			if(difference == 0) {
+				return mid * RESTART_INTERVAL;
+			}
+
+			if(difference < 0) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+
+		if(high < 0) {
+			return -1;
+		}
+
+		Cursor cursor = new Cursor(high * RESTART_INTERVAL);
+		do {
+			int difference = compare(cursor.path, cursor.length, key, key.length);
+			if(difference == 0) {
+				return cursor.index;
+			}
+
+			if(difference > 0) {
+				return -cursor.index - 1;
+			}
+		} while(cursor.next());
+
+		return -this.size - 1;
+	}
+
+	/**
+	 * Return the front-coded paths, for {@link RepoManifest}.
+	 */
+	byte[] data() {
+		return this.data;
+	}
+
+	/**
+	 * Return the offsets of the restart points, for {@link RepoManifest}.
+	 */
+	int[] restarts() {
+		return this.restarts;
+	}
+
+	/**
+	 * Return a cursor positioned before the first path.
+	 *
+	 * @return a new cursor
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * Compare part of the data with an encoded path.
+	 */
+	private static int compare(byte[] data, int start, int length, byte[] key) {
+		final int common = Math.min(length, key.length);
+		for(int index = 0; index < common; index++) {
+			int difference = (data[start + index] & 0xff) - (key[index] & 0xff);
+			if(difference != 0) {
+				return difference;
+			}
+		}
+
+		return length - key.length;
+	}
+
+	/**
+	 * Read a variable-length integer, seven bits per byte.
+	 */
+	private static int readVarInt(byte[] data, int offset) {
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = data[offset++];
+			value |= (b & 0x7f) << shift;
+			shift += 7;
+		} while(b < 0);
+
+		return value;
+	}
+
+	/**
+	 * Return the number of bytes a variable-length integer takes.
+	 */
+	private static int varIntLength(int value) {
+		int length = 1;
+		while((value >>>= 7) != 0) {
+			length++;
+		}
+
+		return length;
+	}
+
+	/**
+	 * Reads the paths of the index in order, decoding each one from the
+	 * previous one into a reusable buffer.
+	 */
+	public class Cursor {
+
+		/**
+		 * Index of the current path, <code>-1</code> before the first one.
+		 */
+		private int index;
+
+		/**
+		 * Offset in the data of the next path.
+		 */
+		private int offset;
+
+		/**
+		 * The bytes of the current path.
+		 */
+		private byte[] path = new byte[64];
+
+		/**
+		 * Number of bytes of the current path.
+		 */
+		private int length;
+
+		Cursor() {
+			this.index = -1;
+			this.offset = 0;
+		}
+
+		/**
+		 * Create a cursor positioned on the restart point with the given index.
+		 */
+		Cursor(int restartIndex) {
+			this.index = restartIndex - 1;
+			this.offset = restarts[restartIndex / RESTART_INTERVAL];
+			next();
+		}
+
+		/**
+		 * Move to the next path.
+		 *
+		 * @return <code>false</code> if there are no more paths
+		 */
+		public boolean next() {
+			if(this.index + 1 >= size) {
+				this.index = size;
+				return false;
+			}
+
+			int shared = readVarInt(data, this.offset);
+			this.offset += varIntLength(shared);
+			int suffix = readVarInt(data, this.offset);
+			this.offset += varIntLength(suffix);
+
+			this.length = shared + suffix;
+			if(this.length > this.path.length) {
+				this.path = Arrays.copyOf(this.path, Math.max(this.length, this.path.length * 2));
+			}
+
+			System.arraycopy(data, this.offset, this.path, shared, suffix);
+			this.offset += suffix;
+			this.index++;
+			return true;
+		}
+
+		/**
+		 * Return the index of the current path.
+		 *
+		 * @return the index in the path index
+		 */
+		public int index() {
+			return this.index;
+		}
+
+		/**
+		 * Compare the current path with the current path of another cursor.
+		 *
+		 * @param other the other cursor
+		 * @return a negative value, zero or a positive value as this path
+		 *         sorts before, equal to, or after the other one
+		 */
+		public int compareTo(Cursor other) {
+			return compare(this.path, this.length, other.path, other.length);
+		}
+
+		/**
+		 * Return the current path.
+		 *
+		 * @return the decoded path
+		 */
+		@Override
+		public String toString() {
+			return new String(this.path, 0, this.length, UTF_8);
+		}
+
+	}
+
+	/**
+	 * Builds an index from paths added in sorted order.
+	 */
+	public static class Builder {
+
+		private byte[] data = new byte[4096];
+
+		private int length;
+
+		private int[] restarts = new int[64];
+
+		private int size;
+
+		private byte[] previous = new byte[0];
+
+		/**
+		 * Add the next path.
+		 *
+		 * @param path the encoded path, sorting after the previous one
+		 * @return this builder
+		 */
+		public Builder add(byte[] path) {
+			if(this.size > 0 && compare(this.previous, this.previous.length, path, path.length) >= 0) {
+				throw new IllegalArgumentException("Paths must be added in sorted order without duplicates.");
+			}
+
+			int shared = 0;
+			if(this.size % RESTART_INTERVAL == 0) {
+				if(this.size / RESTART_INTERVAL == this.restarts.length) {
+					this.restarts = Arrays.copyOf(this.restarts, this.restarts.length * 2);
+				}
+
+				this.restarts[this.size / RESTART_INTERVAL] = this.length;
+			} else {
+				final int common = Math.min(this.previous.length, path.length);
+				while(shared < common && this.previous[shared] == path[shared]) {
+					shared++;
+				}
+			}
+
+			final int suffix = path.length - shared;
+			ensureCapacity(10 + suffix);
+			writeVarInt(shared);
+			writeVarInt(suffix);
+			System.arraycopy(path, shared, this.data, this.length, suffix);
+			this.length += suffix;
+
+			this.previous = path;
+			this.size++;
+			return this;
+		}
+
+		/**
+		 * Create the index.
+		 *
+		 * @return the index of all paths added
+		 */
+		public PathIndex build() {
+			final int restartCount = (this.size + RESTART_INTERVAL - 1) / RESTART_INTERVAL;
+			return new PathIndex(Arrays.copyOf(this.data, this.length), Arrays.copyOf(this.restarts, restartCount), this.size);
+		}
+
+		private void ensureCapacity(int extra) {
+			if(this.length + extra > this.data.length) {
+				this.data = Arrays.copyOf(this.data, Math.max(this.length + extra, this.data.length * 2));
+			}
+		}
+
+		private void writeVarInt(int value) {
+			while((value & ~0x7f) != 0) {
+				this.data[this.length++] = (byte) ((value & 0x7f) | 0x80);
+				value >>>= 7;
+			}
+
+			this.data[this.length++] = (byte) value;
+		}
+
+	}
+
+}
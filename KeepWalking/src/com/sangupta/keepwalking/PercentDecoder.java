@@ -0,0 +1,352 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CoderResult;
+
+import com.sangupta.keepwalking.UriComponentUtils.MalformedInputPolicy;
+
+/**
+ * Incremental percent-decoder in the style of {@link java.nio.charset.CharsetDecoder}.
+ * Encoded text is fed one buffer at a time, either as characters or as ASCII
+ * bytes, and the decoded bytes are written to an output buffer. Escapes and
+ * surrogate pairs that are split between two input buffers are kept in the
+ * state of the decoder, so input of any size can be decoded with fixed
+ * memory. A plus sign decodes to a space.
+ *
+ * Each call to <code>decode</code> returns {@link CoderResult#UNDERFLOW} once
+ * all of the input has been consumed, or {@link CoderResult#OVERFLOW} when
+ * the output buffer is full; in that case drain the output and call again.
+ *
+ * A malformed or truncated escape is handled as per the policy given at
+ * construction. With {@link MalformedInputPolicy#REPLACE} the UTF-8 bytes
+ * of U+FFFD are written in place of the <code>%</code>, and decoding goes
+ * on with the characters after it. With {@link MalformedInputPolicy#REPORT}
+ * a malformed-input result is returned, its length being the number of
+ * characters of the broken escape; those were already consumed, and the
+ * input is positioned at the character that broke the escape, so decoding
+ * can simply be resumed. Only the escapes are checked, the decoded bytes
+ * are not validated as UTF-8.
+ *
+ * Instances are not thread-safe.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class PercentDecoder {
+
+	/**
+	 * Not inside an escape.
+	 */
+	private static final int STATE_NONE = 0;
+
+	/**
+	 * Seen the <code>%</code> of an escape.
+	 */
+	private static final int STATE_PERCENT = 1;
+
+	/**
+	 * Seen the <code>%</code> and the first hex digit of an escape.
+	 */
+	private static final int STATE_HIGH_DIGIT = 2;
+
+	/**
+	 * The UTF-8 bytes of U+FFFD.
+	 */
+	private static final byte[] REPLACEMENT = { (byte) 0xEF, (byte) 0xBF, (byte) 0xBD };
+
+	/**
+	 * What to do with malformed escapes.
+	 */
+	private final MalformedInputPolicy policy;
+
+	/**
+	 * How far into an escape the decoder is.
+	 */
+	private int state = STATE_NONE;
+
+	/**
+	 * The first hex digit of the escape, as it appeared in the input.
+	 */
+	private char highDigit;
+
+	/**
+	 * High surrogate seen at the end of the last character input, or
+	 * <code>0</code>.
+	 */
+	private char pendingHighSurrogate;
+
+	public PercentDecoder() {
+		this(MalformedInputPolicy.REPLACE);
+	}
+
+	public PercentDecoder(MalformedInputPolicy policy) {
+		if(policy == null) {
+			throw new IllegalArgumentException("Policy cannot be null.");
+		}
+
+		this.policy = policy;
+	}
+
+	/**
+	 * Decode as many characters as possible from the input into the output.
+	 * Characters that are not ASCII are written as UTF-8.
+	 *
+	 * @param in the encoded characters
+	 * @param out the buffer to write the decoded bytes to
+	 * @param endOfInput <code>true</code> if no more input follows this buffer
+	 * @return the result of the operation
+	 * @throws IllegalArgumentException if an escape is malformed and the
+	 *         policy is {@link MalformedInputPolicy#THROW}
+	 */
+	public CoderResult decode(CharBuffer in, ByteBuffer out, boolean endOfInput) {
+		return decode(in, null, out, endOfInput);
+	}
+
+	/**
+	 * Decode as many bytes as possible from the input into the output. Bytes
+	 * that are not ASCII are copied as they are.
+	 *
+	 * @param in the encoded bytes
+	 * @param out the buffer to write the decoded bytes to
+	 * @param endOfInput <code>true</code> if no more input follows this buffer
+	 * @return the result of the operation
+	 * @throws IllegalArgumentException if an escape is malformed and the
+	 *         policy is {@link MalformedInputPolicy#THROW}
+	 */
+	public CoderResult decode(ByteBuffer in, ByteBuffer out, boolean endOfInput) {
+		return decode(null, in, out, endOfInput);
+	}
+
+	/**
+	 * Forget any partial escape or pending surrogate so that the decoder can
+	 * be used for new input.
+	 *
+	 * @return this decoder
+	 */
+	public PercentDecoder reset() {
+		this.state = STATE_NONE;
+		this.pendingHighSurrogate = 0;
+		return this;
+	}
+
+	/**
+	 * The actual decoder. Exactly one of the two inputs is non-null.
+	 *
+	 * @param chars the character input, or <code>null</code>
+	 * @param bytes the byte input, or <code>null</code>
+	 * @param out the buffer to write the decoded bytes to
+	 * @param endOfInput <code>true</code> if no more input follows
+	 * @return the result of the operation
+	 */
+	private CoderResult decode(CharBuffer chars, ByteBuffer bytes, ByteBuffer out, boolean endOfInput) {
+		while(chars != null ? chars.hasRemaining() : bytes.hasRemaining()) {
+			final int c = chars != null ? chars.get(chars.position()) : bytes.get(bytes.position()) & 0xFF;
+
+			if(this.pendingHighSurrogate != 0) {
+				int codePoint = UriComponentUtils.REPLACEMENT_CHARACTER;
+				if(Character.isLowSurrogate((char) c)) {
+					codePoint = Character.toCodePoint(this.pendingHighSurrogate, (char) c);
+				}
+
+				if(out.remaining() < 4) {
+					return CoderResult.OVERFLOW;
+				}
+
+				putUtf8(out, codePoint);
+				this.pendingHighSurrogate = 0;
+				if(codePoint != UriComponentUtils.REPLACEMENT_CHARACTER) {
+					skip(chars, bytes);
+				}
+				continue;
+			}
+
+			if(this.state != STATE_NONE) {
+				int digit = UriComponentUtils.hexValue((char) c);
+				if(digit == -1) {
+					CoderResult result = malformed(out);
+					if(result != null) {
+						return result;
+					}
+					continue;
+				}
+
+				if(this.state == STATE_PERCENT) {
+					this.highDigit = (char) c;
+					this.state = STATE_HIGH_DIGIT;
+				} else {
+					if(!out.hasRemaining()) {
+						return CoderResult.OVERFLOW;
+					}
+
+					out.put((byte) ((UriComponentUtils.hexValue(this.highDigit) << 4) | digit));
+					this.state = STATE_NONE;
+				}
+
+				skip(chars, bytes);
+				continue;
+			}
+
+			if(c == '%') {
+				this.state = STATE_PERCENT;
+				skip(chars, bytes);
+				continue;
+			}
+
+			if(c < 0x80 || bytes != null) {
+				if(!out.hasRemaining()) {
+					return CoderResult.OVERFLOW;
+				}
+
+				out.put((byte) (c == '+' ? ' ' : c));
+				skip(chars, bytes);
+				continue;
+			}
+
+			// a character that is not ASCII, written as UTF-8
+			int codePoint = c;
+			int consumed = 1;
+			if(Character.isHighSurrogate((char) c)) {
+				if(chars.remaining() == 1) {
+					if(!endOfInput) {
+						this.pendingHighSurrogate = chars.get();
+						return CoderResult.UNDERFLOW;
+					}
+
+					codePoint = UriComponentUtils.REPLACEMENT_CHARACTER;
+				} else {
+					char low = chars.get(chars.position() + 1);
+					if(Character.isLowSurrogate(low)) {
+						codePoint = Character.toCodePoint((char) c, low);
+						consumed = 2;
+					} else {
+						codePoint = UriComponentUtils.REPLACEMENT_CHARACTER;
+					}
+				}
+			} else if(Character.isLowSurrogate((char) c)) {
+				codePoint = UriComponentUtils.REPLACEMENT_CHARACTER;
+			}
+
+			if(out.remaining() < 4) {
+				return CoderResult.OVERFLOW;
+			}
+
+			putUtf8(out, codePoint);
+			chars.position(chars.position() + consumed);
+		}
+
+		if(endOfInput) {
+			if(this.pendingHighSurrogate != 0) {
+				if(out.remaining() < REPLACEMENT.length) {
+					return CoderResult.OVERFLOW;
+				}
+
+				out.put(REPLACEMENT);
+				this.pendingHighSurrogate = 0;
+			}
+
+			// an escape cut short by the end of the input
+			while(this.state != STATE_NONE) {
+				CoderResult result = malformed(out);
+				if(result != null) {
+					return result;
+				}
+			}
+		}
+
+		return CoderResult.UNDERFLOW;
+	}
+
+	/**
+	 * Handle the escape in progress, which has turned out to be malformed,
+	 * as per the policy. When replacing, the replacement character is
+	 * written for the <code>%</code> and the state is set up so that the
+	 * rest of the escape is decoded as ordinary characters.
+	 *
+	 * @param out the buffer to write the replacement to
+	 * @return the result to return, or <code>null</code> to carry on decoding
+	 */
+	private CoderResult malformed(ByteBuffer out) {
+		final int length = this.state;
+		switch(this.policy) {
+			case REPLACE:
+				if(out.remaining() < REPLACEMENT.length + length - 1) {
+					return CoderResult.OVERFLOW;
+				}
+
+				out.put(REPLACEMENT);
+				if(this.state == STATE_HIGH_DIGIT) {
+					out.put((byte) this.highDigit);
+				}
+
+				this.state = STATE_NONE;
+				return null;
+
+			case THROW:
+				this.state = STATE_NONE;
+				throw new IllegalArgumentException("Malformed escape in URI component");
+
+			default:
+				this.state = STATE_NONE;
+				return CoderResult.malformedForLength(length);
+		}
+	}
+
+	/**
+	 * Move past the current character of whichever input is set.
+	 *
+	 * @param chars the character input, or <code>null</code>
+	 * @param bytes the byte input, or <code>null</code>
+	 */
+	private static void skip(CharBuffer chars, ByteBuffer bytes) {
+		if(chars != null) {
+			chars.position(chars.position() + 1);
+		} else {
+			bytes.position(bytes.position() + 1);
+		}
+	}
+
+	/**
+	 * Write the UTF-8 bytes of the given code point, which must fit.
+	 *
+	 * @param out the buffer to write to
+	 * @param codePoint the code point, not ASCII
+	 */
+	private static void putUtf8(ByteBuffer out, int codePoint) {
+		if(codePoint < 0x800) {
+			out.put((byte) (0xC0 | (codePoint >> 6)));
+		} else {
+			if(codePoint < 0x10000) {
+				out.put((byte) (0xE0 | (codePoint >> 12)));
+			} else {
+				out.put((byte) (0xF0 | (codePoint >> 18)));
+				out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+			}
+
+			out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+		}
+
+		out.put((byte) (0x80 | (codePoint & 0x3F)));
+	}
+
+}
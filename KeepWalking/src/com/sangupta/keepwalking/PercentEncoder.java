@@ -0,0 +1,247 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CoderResult;
+
+/**
+ * Incremental percent-encoder in the style of {@link java.nio.charset.CharsetEncoder}.
+ * Input is fed one buffer at a time, either as characters that are encoded
+ * in UTF-8 first, or as raw bytes, and the escaped ASCII form is written to
+ * an output buffer. A high surrogate at the end of one input buffer is kept
+ * in the state of the encoder and joined with the low surrogate at the start
+ * of the next, so input of any size can be encoded with fixed memory.
+ *
+ * Each call to <code>encode</code> returns {@link CoderResult#UNDERFLOW} once
+ * all of the input has been consumed, or {@link CoderResult#OVERFLOW} when
+ * the output buffer has no room for the next encoded character; in that case
+ * drain the output and call again. A character is always written in full or
+ * not at all. Lone surrogates are encoded as U+FFFD, the same as
+ * {@link UriComponentUtils#encodeURIComponent(String)} does.
+ *
+ * Instances are not thread-safe.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class PercentEncoder {
+
+	/**
+	 * Table of the ASCII characters that are not escaped.
+	 */
+	private final boolean[] allowed;
+
+	/**
+	 * High surrogate seen at the end of the last input, or <code>0</code>.
+	 */
+	private char pendingHighSurrogate;
+
+	public PercentEncoder() {
+		this(UriCharacterSet.COMPONENT);
+	}
+
+	public PercentEncoder(UriCharacterSet allowed) {
+		if(allowed == null) {
+			throw new IllegalArgumentException("Character set cannot be null.");
+		}
+
+		this.allowed = allowed.table();
+	}
+
+	/**
+	 * Encode as many characters as possible from the input into the output.
+	 *
+	 * @param in the characters to encode
+	 * @param out the buffer to write escaped ASCII bytes to
+	 * @param endOfInput <code>true</code> if no more input follows this buffer
+	 * @return {@link CoderResult#UNDERFLOW} or {@link CoderResult#OVERFLOW}
+	 */
+	public CoderResult encode(CharBuffer in, ByteBuffer out, boolean endOfInput) {
+		while(in.hasRemaining()) {
+			char c = in.get(in.position());
+
+			// finish off a surrogate pair started in an earlier buffer
+			if(this.pendingHighSurrogate != 0) {
+				int codePoint = UriComponentUtils.REPLACEMENT_CHARACTER;
+				if(Character.isLowSurrogate(c)) {
+					codePoint = Character.toCodePoint(this.pendingHighSurrogate, c);
+				}
+
+				if(out.remaining() < encodedLength(codePoint)) {
+					return CoderResult.OVERFLOW;
+				}
+
+				put(out, codePoint);
+				this.pendingHighSurrogate = 0;
+				if(codePoint != UriComponentUtils.REPLACEMENT_CHARACTER) {
+					in.get();
+				}
+				continue;
+			}
+
+			int codePoint = c;
+			int consumed = 1;
+			if(Character.isHighSurrogate(c)) {
+				if(in.remaining() == 1) {
+					if(!endOfInput) {
+						this.pendingHighSurrogate = in.get();
+						return CoderResult.UNDERFLOW;
+					}
+
+					codePoint = UriComponentUtils.REPLACEMENT_CHARACTER;
+				} else {
+					char low = in.get(in.position() + 1);
+					if(Character.isLowSurrogate(low)) {
+						codePoint = Character.toCodePoint(c, low);
+						consumed = 2;
+					} else {
+						codePoint = UriComponentUtils.REPLACEMENT_CHARACTER;
+					}
+				}
+			} else if(Character.isLowSurrogate(c)) {
+				codePoint = UriComponentUtils.REPLACEMENT_CHARACTER;
+			}
+
+			if(out.remaining() < encodedLength(codePoint)) {
+				return CoderResult.OVERFLOW;
+			}
+
+			put(out, codePoint);
+			in.position(in.position() + consumed);
+		}
+
+		if(endOfInput && this.pendingHighSurrogate != 0) {
+			if(out.remaining() < encodedLength(UriComponentUtils.REPLACEMENT_CHARACTER)) {
+				return CoderResult.OVERFLOW;
+			}
+
+			put(out, UriComponentUtils.REPLACEMENT_CHARACTER);
+			this.pendingHighSurrogate = 0;
+		}
+
+		return CoderResult.UNDERFLOW;
+	}
+
+	/**
+	 * Encode as many raw bytes as possible from the input into the output.
+	 * Each byte that is not an allowed ASCII character is escaped on its
+	 * own, so the input would normally be UTF-8 text.
+	 *
+	 * @param in the bytes to encode
+	 * @param out the buffer to write escaped ASCII bytes to
+	 * @param endOfInput <code>true</code> if no more input follows this buffer
+	 * @return {@link CoderResult#UNDERFLOW} or {@link CoderResult#OVERFLOW}
+	 */
+	public CoderResult encode(ByteBuffer in, ByteBuffer out, boolean endOfInput) {
+		while(in.hasRemaining()) {
+			int b = in.get(in.position()) & 0xFF;
+			if(b < 0x80 && this.allowed[b]) {
+				if(!out.hasRemaining()) {
+					return CoderResult.OVERFLOW;
+				}
+
+				out.put((byte) b);
+			} else {
+				if(out.remaining() < 3) {
+					return CoderResult.OVERFLOW;
+				}
+
+				putEscaped(out, b);
+			}
+
+			in.get();
+		}
+
+		return CoderResult.UNDERFLOW;
+	}
+
+	/**
+	 * Forget any pending surrogate so that the encoder can be used for new
+	 * input.
+	 *
+	 * @return this encoder
+	 */
+	public PercentEncoder reset() {
+		this.pendingHighSurrogate = 0;
+		return this;
+	}
+
+	/**
+	 * Return the number of bytes needed to encode the given code point.
+	 *
+	 * @param codePoint the code point
+	 * @return the length of its encoded form
+	 */
+	private int encodedLength(int codePoint) {
+		if(codePoint < 0x80) {
+			return this.allowed[codePoint] ? 1 : 3;
+		}
+
+		if(codePoint < 0x800) {
+			return 6;
+		}
+
+		return codePoint < 0x10000 ? 9 : 12;
+	}
+
+	/**
+	 * Write the encoded form of the given code point, which must fit.
+	 *
+	 * @param out the buffer to write to
+	 * @param codePoint the code point
+	 */
+	private void put(ByteBuffer out, int codePoint) {
+		if(codePoint < 0x80) {
+			if(this.allowed[codePoint]) {
+				out.put((byte) codePoint);
+			} else {
+				putEscaped(out, codePoint);
+			}
+		} else if(codePoint < 0x800) {
+			putEscaped(out, 0xC0 | (codePoint >> 6));
+			putEscaped(out, 0x80 | (codePoint & 0x3F));
+		} else if(codePoint < 0x10000) {
+			putEscaped(out, 0xE0 | (codePoint >> 12));
+			putEscaped(out, 0x80 | ((codePoint >> 6) & 0x3F));
+			putEscaped(out, 0x80 | (codePoint & 0x3F));
+		} else {
+			putEscaped(out, 0xF0 | (codePoint >> 18));
+			putEscaped(out, 0x80 | ((codePoint >> 12) & 0x3F));
+			putEscaped(out, 0x80 | ((codePoint >> 6) & 0x3F));
+			putEscaped(out, 0x80 | (codePoint & 0x3F));
+		}
+	}
+
+	/**
+	 * Write the escape sequence for the given byte.
+	 *
+	 * @param out the buffer to write to
+	 * @param b the byte value
+	 */
+	private static void putEscaped(ByteBuffer out, int b) {
+		out.put((byte) '%');
+		out.put((byte) UriComponentUtils.HEX_DIGITS[b >> 4]);
+		out.put((byte) UriComponentUtils.HEX_DIGITS[b & 0xF]);
+	}
+
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints what {@link MergeRepo} is doing. Output goes through a large buffer
+ * that is flushed on each progress line and at the end of each phase, not on
+ * every line, so that listing many paths costs little. Progress lines with
+ * the counters of {@link MergeMetrics} are printed from a timer thread at a
+ * fixed interval, however fast the work goes. In quiet mode the per-path
+ * listing is left out.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class ProgressReporter implements Closeable {
+
+	/**
+	 * Default time between two progress lines, in milliseconds.
+	 */
+	public static final long DEFAULT_INTERVAL = 1000;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final long NANOS_PER_SECOND = 1000000000L;
+
+	private final PrintStream out;
+
+	private final MergeMetrics metrics;
+
+	/**
+	 * Whether the per-path listing is left out.
+	 */
+	private final boolean quiet;
+
+	/**
+	 * The thread printing the progress lines.
+	 */
+	private final ScheduledExecutorService timer;
+
+	public ProgressReporter(OutputStream out, MergeMetrics metrics, boolean quiet) {
+		this(out, metrics, quiet, DEFAULT_INTERVAL);
+	}
+
+	public ProgressReporter(OutputStream out, MergeMetrics metrics, boolean quiet, long interval) {
+		if(interval <= 0) {
+			throw new IllegalArgumentException("Interval must be positive.");
+		}
+
+		this.out = new PrintStream(new BufferedOutputStream(out, BUFFER_SIZE), false);
+		this.metrics = metrics;
+		this.quiet = quiet;
+		this.timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "merge-progress");
+				thread.setDaemon(true);
+				return thread;
+			}
+
+		});
+
+		this.timer.scheduleAtFixedRate(new Runnable() {
+
+			@Override
+			public void run() {
+				progress();
+			}
+
+		}, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Start a phase, printing the given message.
+	 *
+	 * @param name the name of the phase
+	 * @param message the line to print
+	 */
+	public synchronized void beginPhase(String name, String message) {
+		this.metrics.beginPhase(name);
+		this.out.println(message);
+		this.out.flush();
+	}
+
+	/**
+	 * Print a line.
+	 *
+	 * @param line the line to print
+	 */
+	public synchronized void println(String line) {
+		this.out.println(line);
+	}
+
+	/**
+	 * Print a path of a listing, unless in quiet mode.
+	 *
+	 * @param path the path to print
+	 */
+	public synchronized void listPath(String path) {
+		if(this.quiet) {
+			return;
+		}
+
+		this.out.print("    ");
+		this.out.println(path);
+	}
+
+	/**
+	 * Print the counters of the phase running now.
+	 */
+	synchronized void progress() {
+		final String phase = this.metrics.getPhase();
+		if(phase == null) {
+			return;
+		}
+
+		final long elapsed = this.metrics.getPhaseElapsed();
+		final long files = this.metrics.getPhaseFiles(phase);
+
+		StringBuilder line = new StringBuilder(96);
+		line.append("  [").append(phase).append(' ').append(elapsed / NANOS_PER_SECOND).append("s] ");
+		line.append(files).append(" files");
+		if(MergeMetrics.PHASE_SCAN.equals(phase)) {
+			line.append(", ").append(megabytes(this.metrics.getBytesHashed())).append(" MB hashed");
+		} else if(MergeMetrics.PHASE_MATERIALIZE.equals(phase) || MergeMetrics.PHASE_APPLY.equals(phase)) {
+			line.append(", ").append(megabytes(this.metrics.getBytesCopied())).append(" MB copied");
+		}
+
+		if(elapsed > 0) {
+			line.append(" (").append(files * NANOS_PER_SECOND / elapsed).append(" files/s)");
+		}
+
+		this.out.println(line);
+		this.out.flush();
+	}
+
+	/**
+	 * End the phase running and stop printing progress lines.
+	 */
+	@Override
+	public synchronized void close() {
+		this.timer.shutdownNow();
+		this.metrics.endPhase();
+		this.out.flush();
+	}
+
+	private static long megabytes(long bytes) {
+		return bytes / (1024 * 1024);
+	}
+
+}
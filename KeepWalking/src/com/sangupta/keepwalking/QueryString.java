@@ -0,0 +1,323 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.sangupta.keepwalking.UriComponentUtils.MalformedInputPolicy;
+
+/**
+ * A parsed query string, like <code>a=1&amp;b=x%20y&amp;a=2</code>. The query
+ * is scanned once when parsed, recording where each key and value starts and
+ * ends and whether it has anything to decode; keys and values are only
+ * decoded, and then cached, when they are first asked for. Keys may repeat,
+ * and the order of the pairs is kept.
+ *
+ * Pairs are separated by <code>&amp;</code>, and a key is separated from its
+ * value by the first <code>=</code>. A pair without <code>=</code> has an
+ * empty value, and empty pairs are skipped. Malformed escapes decode to
+ * U+FFFD.
+ *
+ * Instances are not thread-safe because of the lazy decoding.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class QueryString {
+
+	/**
+	 * Number of ints recorded per pair in {@link #bounds}.
+	 */
+	private static final int FIELDS = 4;
+
+	/**
+	 * The query being viewed.
+	 */
+	private final CharSequence query;
+
+	/**
+	 * The start and end of the key, and the start and end of the value, of
+	 * every pair, one after the other.
+	 */
+	private final int[] bounds;
+
+	/**
+	 * Whether the key and the value of every pair have escapes or plus signs,
+	 * as two bits per pair.
+	 */
+	private final byte[] needsDecode;
+
+	/**
+	 * The number of pairs.
+	 */
+	private final int size;
+
+	/**
+	 * Decoded keys, filled in as they are needed.
+	 */
+	private final String[] keys;
+
+	/**
+	 * Decoded values, filled in as they are needed.
+	 */
+	private final String[] values;
+
+	private QueryString(CharSequence query, int[] bounds, byte[] needsDecode, int size) {
+		this.query = query;
+		this.bounds = bounds;
+		this.needsDecode = needsDecode;
+		this.size = size;
+		this.keys = new String[size];
+		this.values = new String[size];
+	}
+
+	/**
+	 * Parse the given query string. A leading <code>?</code> is skipped, and
+	 * so is anything from a <code>#</code> onwards.
+	 *
+	 * @param query the query string
+	 * @return the parsed view of the query
+	 */
+	public static QueryString parse(CharSequence query) {
+		final int length = query.length();
+
+		int[] bounds = new int[FIELDS * 8];
+		byte[] needsDecode = new byte[8];
+		int size = 0;
+
+		int index = length > 0 && query.charAt(0) == '?' ? 1 : 0;
+		while(index < length) {
+			final int keyStart = index;
+			int keyEnd = -1;
+			int flags = 0;
+			char c = 0;
+			for( ; index < length; index++) {
+				c = query.charAt(index);
+				if(c == '&' || c == '#') {
+					break;
+				}
+
+				if(c == '=' && keyEnd == -1) {
+					keyEnd = index;
+				} else if(c == '%' || c == '+') {
+					flags |= keyEnd == -1 ? 1 : 2;
+				}
+			}
+
+			final int end = index;
+			if(end > keyStart) {
+				if(size == needsDecode.length) {
+					bounds = Arrays.copyOf(bounds, bounds.length * 2);
+					needsDecode = Arrays.copyOf(needsDecode, needsDecode.length * 2);
+				}
+
+				int field = size * FIELDS;
+				bounds[field] = keyStart;
+				bounds[field + 1] = keyEnd == -1 ? end : keyEnd;
+				bounds[field + 2] = keyEnd == -1 ? end : keyEnd + 1;
+				bounds[field + 3] = end;
+				needsDecode[size] = (byte) flags;
+				size++;
+			}
+
+			if(c == '#') {
+				break;
+			}
+
+			index++;
+		}
+
+		return new QueryString(query, bounds, needsDecode, size);
+	}
+
+	/**
+	 * Return the number of pairs in the query.
+	 *
+	 * @return the number of pairs
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Return the decoded key of the pair at the given index.
+	 *
+	 * @param index the index of the pair
+	 * @return the decoded key
+	 */
+	public String getKey(int index) {
+		checkIndex(index);
+
+		String key = this.keys[index];
+		if(key == null) {
+			key = decode(index, 0, 1);
+			this.keys[index] = key;
+		}
+
+		return key;
+	}
+
+	/**
+	 * Return the decoded value of the pair at the given index.
+	 *
+	 * @param index the index of the pair
+	 * @return the decoded value, empty if the pair has no <code>=</code>
+	 */
+	public String getValue(int index) {
+		checkIndex(index);
+
+		String value = this.values[index];
+		if(value == null) {
+			value = decode(index, 2, 2);
+			this.values[index] = value;
+		}
+
+		return value;
+	}
+
+	/**
+	 * Return the value of the first pair with the given key.
+	 *
+	 * @param key the decoded key to look for
+	 * @return the decoded value, or <code>null</code> if there is no such key
+	 */
+	public String getFirst(String key) {
+		for(int index = 0; index < this.size; index++) {
+			if(keyEquals(index, key)) {
+				return getValue(index);
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Return the values of all pairs with the given key, in order.
+	 *
+	 * @param key the decoded key to look for
+	 * @return the decoded values, empty if there is no such key
+	 */
+	public List<String> getAll(String key) {
+		List<String> all = null;
+		for(int index = 0; index < this.size; index++) {
+			if(keyEquals(index, key)) {
+				if(all == null) {
+					all = new ArrayList<String>();
+				}
+
+				all.add(getValue(index));
+			}
+		}
+
+		if(all == null) {
+			return Collections.emptyList();
+		}
+
+		return all;
+	}
+
+	/**
+	 * Check if the query has a pair with the given key.
+	 *
+	 * @param key the decoded key to look for
+	 * @return <code>true</code> if the key is present
+	 */
+	public boolean contains(String key) {
+		for(int index = 0; index < this.size; index++) {
+			if(keyEquals(index, key)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Return the distinct decoded keys, in the order they first appear.
+	 *
+	 * @return the keys of the query
+	 */
+	public Set<String> keys() {
+		Set<String> names = new LinkedHashSet<String>();
+		for(int index = 0; index < this.size; index++) {
+			names.add(getKey(index));
+		}
+
+		return names;
+	}
+
+	/**
+	 * Compare the key of the given pair with a decoded key, without decoding
+	 * the pair's key if it has nothing to decode.
+	 */
+	private boolean keyEquals(int index, String key) {
+		if((this.needsDecode[index] & 1) != 0 || this.keys[index] != null) {
+			return getKey(index).equals(key);
+		}
+
+		final int start = this.bounds[index * FIELDS];
+		final int end = this.bounds[index * FIELDS + 1];
+		if(end - start != key.length()) {
+			return false;
+		}
+
+		for(int offset = 0; offset < key.length(); offset++) {
+			if(this.query.charAt(start + offset) != key.charAt(offset)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Decode a key or a value.
+	 *
+	 * @param index the index of the pair
+	 * @param field <code>0</code> for the key, <code>2</code> for the value
+	 * @param flag the bit in {@link #needsDecode} for the field
+	 * @return the decoded text
+	 */
+	private String decode(int index, int field, int flag) {
+		final int start = this.bounds[index * FIELDS + field];
+		final int end = this.bounds[index * FIELDS + field + 1];
+		CharSequence raw = this.query.subSequence(start, end);
+		if((this.needsDecode[index] & flag) == 0) {
+			return raw.toString();
+		}
+
+		StringBuilder builder = new StringBuilder(end - start);
+		UriComponentUtils.decodeURIComponent(raw, builder, MalformedInputPolicy.REPLACE);
+		return builder.toString();
+	}
+
+	private void checkIndex(int index) {
+		if(index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + this.size);
+		}
+	}
+
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+/**
+ * Builds a query string by percent-encoding keys and values straight into a
+ * single buffer. The buffer is kept between queries, so one builder can be
+ * {@link #reset()} and reused to build many queries without growing it
+ * again.
+ *
+ * Instances are not thread-safe.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class QueryStringBuilder {
+
+	/**
+	 * The buffer holding the query built so far.
+	 */
+	private final StringBuilder buffer;
+
+	/**
+	 * The characters left unescaped in keys and values.
+	 */
+	private final UriCharacterSet allowed;
+
+	public QueryStringBuilder() {
+		this(UriCharacterSet.QUERY_PARAM, 128);
+	}
+
+	public QueryStringBuilder(UriCharacterSet allowed, int capacity) {
+		if(allowed == null) {
+			throw new IllegalArgumentException("Character set cannot be null.");
+		}
+
+		this.allowed = allowed;
+		this.buffer = new StringBuilder(capacity);
+	}
+
+	/**
+	 * Add a pair to the query.
+	 *
+	 * @param key the key, not encoded
+	 * @param value the value, not encoded, or <code>null</code> to add the key alone
+	 * @return this builder
+	 */
+	public QueryStringBuilder add(CharSequence key, CharSequence value) {
+		if(this.buffer.length() > 0) {
+			this.buffer.append('&');
+		}
+
+		UriComponentUtils.encode(key, this.allowed, this.buffer);
+		if(value != null) {
+			this.buffer.append('=');
+			UriComponentUtils.encode(value, this.allowed, this.buffer);
+		}
+
+		return this;
+	}
+
+	/**
+	 * Add a pair with a numeric value to the query.
+	 *
+	 * @param key the key, not encoded
+	 * @param value the value
+	 * @return this builder
+	 */
+	public QueryStringBuilder add(CharSequence key, long value) {
+		if(this.buffer.length() > 0) {
+			this.buffer.append('&');
+		}
+
+		UriComponentUtils.encode(key, this.allowed, this.buffer);
+		this.buffer.append('=').append(value);
+		return this;
+	}
+
+	/**
+	 * Return the length of the query built so far.
+	 *
+	 * @return the number of characters
+	 */
+	public int length() {
+		return this.buffer.length();
+	}
+
+	/**
+	 * Append the query built so far to the given builder.
+	 *
+	 * @param builder the builder to append to
+	 * @return the given builder
+	 */
+	public StringBuilder appendTo(StringBuilder builder) {
+		return builder.append(this.buffer);
+	}
+
+	/**
+	 * Clear the query, keeping the buffer for the next one.
+	 *
+	 * @return this builder
+	 */
+	public QueryStringBuilder reset() {
+		this.buffer.setLength(0);
+		return this;
+	}
+
+	/**
+	 * Return the query built so far, without a leading <code>?</code>.
+	 */
+	@Override
+	public String toString() {
+		return this.buffer.toString();
+	}
+
+}
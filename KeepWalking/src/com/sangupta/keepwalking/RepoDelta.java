@@ -0,0 +1,465 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A single file holding everything needed to turn the previous tree into the
+ * newer one: the paths of the removed files, the content of the added files,
+ * and a {@link BlockDelta} against the previous version for each modified
+ * file. The archive is compressed, and is meant to be shipped to a site that
+ * already has the previous tree and applied there.
+ *
+ * Each modified file carries the hash of the version it was made from and of
+ * the version it produces. Applying checks both, so a delta is never applied
+ * to the wrong base and a damaged archive does not go unnoticed. The whole
+ * archive is read and checked, with the new content of every file written
+ * next to it, before the first file in the tree is deleted or replaced, so
+ * a failed check leaves the tree as it was.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class RepoDelta {
+
+	/**
+	 * Marks the start of a delta archive.
+	 */
+	private static final int MAGIC = 0x4d52444c;
+
+	/**
+	 * Version of the archive format.
+	 */
+	private static final int VERSION = 1;
+
+	private static final byte RECORD_END = 0;
+
+	private static final byte RECORD_REMOVE = 1;
+
+	private static final byte RECORD_ADD = 2;
+
+	private static final byte RECORD_MODIFY = 3;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Write the delta archive from the older snapshot to the newer one.
+	 *
+	 * @param older the snapshot of the previous tree
+	 * @param newer the snapshot of the newer tree
+	 * @param diff the difference between the two snapshots
+	 * @param modified the paths of the common files that changed
+	 * @param deltaFile the file to write the archive to
+	 * @return the number of bytes of file content stored as is, added files
+	 *         and literal runs of modified files
+	 * @throws IOException if a file cannot be read or the archive written
+	 */
+	public static long write(RepoSnapshot older, RepoSnapshot newer, RepoDiff diff, Collection<String> modified, File deltaFile) throws IOException {
+		return write(older, newer, diff, modified, deltaFile, new MergeMetrics());
+	}
+
+	/**
+	 * Write the delta archive from the older snapshot to the newer one,
+	 * counting the records as they are written.
+	 *
+	 * @param older the snapshot of the previous tree
+	 * @param newer the snapshot of the newer tree
+	 * @param diff the difference between the two snapshots
+	 * @param modified the paths of the common files that changed
+	 * @param deltaFile the file to write the archive to
+	 * @param metrics counts the records written
+	 * @return the number of bytes of file content stored as is, added files
+	 *         and literal runs of modified files
+	 * @throws IOException if a file cannot be read or the archive written
+	 */
+	public static long write(RepoSnapshot older, RepoSnapshot newer, RepoDiff diff, Collection<String> modified, File deltaFile, MergeMetrics metrics) throws IOException {
+		final byte[] hash = new byte[RepoSnapshot.HASH_LENGTH];
+		long literals = 0;
+
+		DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(new BufferedOutputStream(new FileOutputStream(deltaFile), BUFFER_SIZE), new Deflater(Deflater.BEST_SPEED), BUFFER_SIZE));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+
+			for(int index = 0; index < diff.getRemovedCount(); index++) {
+				out.writeByte(RECORD_REMOVE);
+				writePath(out, older.getPath(diff.getRemoved(index)));
+				metrics.addDeltaRecord();
+			}
+
+			for(int index = 0; index < diff.getAddedCount(); index++) {
+				int added = diff.getAdded(index);
+				out.writeByte(RECORD_ADD);
+				writePath(out, newer.getPath(added));
+				out.writeLong(newer.getLastModified(added));
+
+				Path file = newer.getFile(added).toPath();
+				long size = Files.size(file);
+				out.writeLong(size);
+				if(Files.copy(file, out) != size) {
+					throw new IOException("File changed while writing the delta: " + file);
+				}
+
+				literals += size;
+				metrics.addDeltaRecord();
+			}
+
+			for(String path : modified) {
+				int olderIndex = older.indexOf(path);
+				int newerIndex = newer.indexOf(path);
+
+				out.writeByte(RECORD_MODIFY);
+				writePath(out, path);
+				out.writeLong(newer.getLastModified(newerIndex));
+				older.copyHash(olderIndex, hash, 0);
+				out.write(hash);
+				newer.copyHash(newerIndex, hash, 0);
+				out.write(hash);
+
+				literals += BlockDelta.write(older.getFile(olderIndex).toPath(), newer.getFile(newerIndex).toPath(), out);
+				metrics.addDeltaRecord();
+			}
+
+			out.writeByte(RECORD_END);
+		} finally {
+			out.close();
+		}
+
+		return literals;
+	}
+
+	/**
+	 * Apply a delta archive to a tree holding the previous version, turning
+	 * it into the newer version in place.
+	 *
+	 * @param deltaFile the archive to apply
+	 * @param tree the root folder of the tree to update
+	 * @throws IOException if the archive is invalid or does not match the tree
+	 */
+	public static void apply(File deltaFile, File tree) throws IOException {
+		apply(deltaFile, tree, new MergeMetrics(), null);
+	}
+
+	/**
+	 * Apply a delta archive to a tree holding the previous version, counting
+	 * the files deleted and written and listing their paths.
+	 *
+	 * @param deltaFile the archive to apply
+	 * @param tree the root folder of the tree to update
+	 * @param metrics counts the files deleted and written
+	 * @param reporter lists the paths changed, or <code>null</code>
+	 * @throws IOException if the archive is invalid or does not match the tree
+	 */
+	public static void apply(File deltaFile, File tree, MergeMetrics metrics, ProgressReporter reporter) throws IOException {
+		final Path root = tree.toPath().toAbsolutePath().normalize();
+		final List<Change> changes = new ArrayList<Change>();
+		final List<Path> folders = new ArrayList<Path>();
+
+		boolean staged = false;
+		try {
+			stage(deltaFile, root, changes, folders);
+			staged = true;
+		} finally {
+			if(!staged) {
+				// leave the tree as it was
+				for(Change change : changes) {
+					if(change.temp != null) {
+						Files.deleteIfExists(change.temp);
+					}
+				}
+
+				for(int index = folders.size() - 1; index >= 0; index--) {
+					try {
+						Files.deleteIfExists(folders.get(index));
+					} catch(DirectoryNotEmptyException e) {
+						// something else was put there meanwhile
+					}
+				}
+			}
+		}
+
+		long removed = 0, added = 0, modified = 0;
+		for(int index = 0; index < changes.size(); index++) {
+			final Change change = changes.get(index);
+			if(change.record == RECORD_REMOVE) {
+				if(Files.deleteIfExists(change.file)) {
+					metrics.addFileDeleted();
+				}
+
+				removed++;
+				list(reporter, "removed", change.path);
+				continue;
+			}
+
+			try {
+				Files.setLastModifiedTime(change.temp, FileTime.fromMillis(change.lastModified));
+				metrics.addFileCopied(Files.size(change.temp));
+				Files.move(change.temp, change.file, StandardCopyOption.REPLACE_EXISTING);
+			} catch(IOException e) {
+				// the files not yet moved are of no use any more
+				for(int next = index; next < changes.size(); next++) {
+					if(changes.get(next).temp != null) {
+						Files.deleteIfExists(changes.get(next).temp);
+					}
+				}
+
+				throw e;
+			}
+
+			if(change.record == RECORD_ADD) {
+				added++;
+				list(reporter, "added", change.path);
+			} else {
+				modified++;
+				list(reporter, "modified", change.path);
+			}
+		}
+
+		metrics.setChanges(removed, added, modified);
+	}
+
+	/**
+	 * Read the whole archive, writing the new content of every added and
+	 * modified file to a temporary file next to it and checking the hashes
+	 * of the modified files, without changing the tree itself.
+	 *
+	 * @param changes receives the changes read, with their temporary files
+	 * @param folders receives the folders created for the temporary files
+	 */
+	private static void stage(File deltaFile, Path root, List<Change> changes, List<Path> folders) throws IOException {
+		final byte[] baseHash = new byte[RepoSnapshot.HASH_LENGTH];
+		final byte[] targetHash = new byte[RepoSnapshot.HASH_LENGTH];
+		final byte[] buffer = new byte[BUFFER_SIZE];
+
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(new FileInputStream(deltaFile), new Inflater(), BUFFER_SIZE), BUFFER_SIZE));
+		try {
+			if(in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Not a delta archive, or of an unsupported version: " + deltaFile);
+			}
+
+			while(true) {
+				final Change change = new Change();
+				change.record = in.readByte();
+				if(change.record == RECORD_END) {
+					return;
+				}
+
+				change.path = in.readUTF();
+				change.file = resolve(root, change.path);
+				if(change.record != RECORD_REMOVE && change.record != RECORD_ADD && change.record != RECORD_MODIFY) {
+					throw new IOException("Invalid record in delta archive: " + change.record);
+				}
+
+				changes.add(change);
+				if(change.record == RECORD_REMOVE) {
+					continue;
+				}
+
+				change.lastModified = in.readLong();
+				change.temp = temporaryFile(change.file, folders);
+				if(change.record == RECORD_ADD) {
+					long size = in.readLong();
+					OutputStream out = new BufferedOutputStream(new FileOutputStream(change.temp.toFile()), BUFFER_SIZE);
+					try {
+						while(size > 0) {
+							int read = (int) Math.min(buffer.length, size);
+							in.readFully(buffer, 0, read);
+							out.write(buffer, 0, read);
+							size -= read;
+						}
+					} finally {
+						out.close();
+					}
+				} else {
+					in.readFully(baseHash);
+					in.readFully(targetHash);
+					if(!Arrays.equals(baseHash, hash(change.file))) {
+						throw new IOException("File does not match the version the delta was made from: " + change.file);
+					}
+
+					MessageDigest digest = sha1();
+					OutputStream out = new DigestOutputStream(new BufferedOutputStream(new FileOutputStream(change.temp.toFile()), BUFFER_SIZE), digest);
+					try {
+						BlockDelta.apply(change.file, in, out);
+					} finally {
+						out.close();
+					}
+
+					if(!Arrays.equals(targetHash, digest.digest())) {
+						throw new IOException("Delta produced a different file than expected: " + change.file);
+					}
+				}
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * List a path changed by the archive, if there is a reporter.
+	 */
+	private static void list(ProgressReporter reporter, String change, String path) {
+		if(reporter != null) {
+			reporter.listPath(change + ": " + path);
+		}
+	}
+
+	/**
+	 * A record read from an archive.
+	 */
+	private static class Change {
+
+		byte record;
+
+		/**
+		 * The path as written in the archive
+		 */
+		String path;
+
+		/**
+		 * The file in the tree
+		 */
+		Path file;
+
+		/**
+		 * The new content of an added or modified file
+		 */
+		Path temp;
+
+		long lastModified;
+
+	}
+
+	/**
+	 * Write a relative path with <code>/</code> as the separator, so that
+	 * the archive can be applied on any platform.
+	 */
+	private static void writePath(DataOutputStream out, String path) throws IOException {
+		out.writeUTF(path.replace(File.separatorChar, '/'));
+	}
+
+	/**
+	 * Resolve a path read from an archive against the root of the tree,
+	 * refusing anything that would end up outside of it.
+	 */
+	private static Path resolve(Path root, String path) throws IOException {
+		if(path.isEmpty() || root.getFileSystem().getPath(path).isAbsolute()) {
+			throw new IOException("Invalid path in delta archive: " + path);
+		}
+
+		Path file = root.resolve(path).normalize();
+		if(!file.startsWith(root) || file.equals(root)) {
+			throw new IOException("Path in delta archive is outside of the tree: " + path);
+		}
+
+		return file;
+	}
+
+	/**
+	 * Create a new file next to the given one to write its new content to,
+	 * creating the folder if needed and adding every folder created to the
+	 * given list, outermost first. A temporary file is only readable by
+	 * its owner, so it is given the permissions of the file it replaces, or
+	 * those of its folder without execute for a new file.
+	 */
+	private static Path temporaryFile(Path file, List<Path> folders) throws IOException {
+		Path parent = file.toAbsolutePath().getParent();
+		int created = folders.size();
+		for(Path missing = parent; missing != null && !Files.exists(missing); missing = missing.getParent()) {
+			folders.add(created, missing);
+		}
+
+		Files.createDirectories(parent);
+
+		Path temp = Files.createTempFile(parent, ".", ".delta-tmp");
+		if(Files.getFileStore(temp).supportsFileAttributeView(PosixFileAttributeView.class)) {
+			Set<PosixFilePermission> permissions;
+			if(Files.exists(file)) {
+				permissions = Files.getPosixFilePermissions(file);
+			} else {
+				permissions = Files.getPosixFilePermissions(parent);
+				permissions.removeAll(EnumSet.of(PosixFilePermission.OWNER_EXECUTE, PosixFilePermission.GROUP_EXECUTE, PosixFilePermission.OTHERS_EXECUTE));
+			}
+
+			Files.setPosixFilePermissions(temp, permissions);
+		}
+
+		return temp;
+	}
+
+	/**
+	 * Compute the SHA-1 hash of a file.
+	 */
+	private static byte[] hash(Path file) throws IOException {
+		MessageDigest digest = sha1();
+		byte[] buffer = new byte[BUFFER_SIZE];
+		InputStream in = Files.newInputStream(file);
+		try {
+			int read;
+			while((read = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		} finally {
+			in.close();
+		}
+
+		return digest.digest();
+	}
+
+	private static MessageDigest sha1() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		} catch(NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-1 is not available", e);
+		}
+	}
+
+}
@@ -0,0 +1,212 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.util.Arrays;
+
+/**
+ * The difference between the paths of two repository snapshots, found in a
+ * single pass over their sorted {@link PathIndex}es. Files are referred to by
+ * their index in the snapshot they come from.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class RepoDiff {
+
+	/**
+	 * Number of paths gone over between two updates of the metrics.
+	 */
+	private static final int PROGRESS_BATCH = 4096;
+
+	/**
+	 * Indexes in the older snapshot of files missing from the newer one.
+	 */
+	private int[] removed = new int[16];
+
+	private int removedCount;
+
+	/**
+	 * Indexes in the newer snapshot of files missing from the older one.
+	 */
+	private int[] added = new int[16];
+
+	private int addedCount;
+
+	/**
+	 * Indexes in the older snapshot of files present in both.
+	 */
+	private int[] commonOlder = new int[16];
+
+	/**
+	 * Indexes in the newer snapshot of files present in both.
+	 */
+	private int[] commonNewer = new int[16];
+
+	private int commonCount;
+
+	private RepoDiff() {
+		// use compute()
+	}
+
+	/**
+	 * Compare the paths of two snapshots.
+	 *
+	 * @param older the older snapshot
+	 * @param newer the newer snapshot
+	 * @return the difference between the two
+	 */
+	public static RepoDiff compute(RepoSnapshot older, RepoSnapshot newer) {
+		return compute(older, newer, new MergeMetrics());
+	}
+
+	/**
+	 * Compare the paths of two snapshots, counting the paths gone over as
+	 * the merge goes on.
+	 *
+	 * @param older the older snapshot
+	 * @param newer the newer snapshot
+	 * @param metrics counts the paths gone over
+	 * @return the difference between the two
+	 */
+	public static RepoDiff compute(RepoSnapshot older, RepoSnapshot newer, MergeMetrics metrics) {
+		RepoDiff diff = new RepoDiff();
+		long paths = 0, reported = 0;
+
+		PathIndex.Cursor olderCursor = older.getPaths().cursor();
+		PathIndex.Cursor newerCursor = newer.getPaths().cursor();
+		boolean hasOlder = olderCursor.next();
+		boolean hasNewer = newerCursor.next();
+		while(hasOlder || hasNewer) {
+			int difference;
+			if(!hasOlder) {
+				difference = 1;
+			} else if(!hasNewer) {
+				difference = -1;
+			} else {
+				difference = olderCursor.compareTo(newerCursor);
+			}
+
+			if(difference < 0) {
+				diff.removed = append(diff.removed, diff.removedCount++, olderCursor.index());
+				hasOlder = olderCursor.next();
+			} else if(difference > 0) {
+				diff.added = append(diff.added, diff.addedCount++, newerCursor.index());
+				hasNewer = newerCursor.next();
+			} else {
+				diff.commonOlder = append(diff.commonOlder, diff.commonCount, olderCursor.index());
+				diff.commonNewer = append(diff.commonNewer, diff.commonCount++, newerCursor.index());
+				hasOlder = olderCursor.next();
+				hasNewer = newerCursor.next();
+				paths++;
+			}
+
+			// counted in batches, to keep the loop free of atomic updates
+			if(++paths - reported >= PROGRESS_BATCH) {
+				metrics.addPathsDiffed(paths - reported);
+				reported = paths;
+			}
+		}
+
+		metrics.addPathsDiffed(paths - reported);
+		return diff;
+	}
+
+	/**
+	 * Return the number of files removed in the newer snapshot.
+	 *
+	 * @return the number of removed files
+	 */
+	public int getRemovedCount() {
+		return this.removedCount;
+	}
+
+	/**
+	 * Return the index in the older snapshot of a removed file.
+	 *
+	 * @param index the number of the removed file
+	 * @return the index in the older snapshot
+	 */
+	public int getRemoved(int index) {
+		return this.removed[index];
+	}
+
+	/**
+	 * Return the number of files added in the newer snapshot.
+	 *
+	 * @return the number of added files
+	 */
+	public int getAddedCount() {
+		return this.addedCount;
+	}
+
+	/**
+	 * Return the index in the newer snapshot of an added file.
+	 *
+	 * @param index the number of the added file
+	 * @return the index in the newer snapshot
+	 */
+	public int getAdded(int index) {
+		return this.added[index];
+	}
+
+	/**
+	 * Return the number of files present in both snapshots.
+	 *
+	 * @return the number of common files
+	 */
+	public int getCommonCount() {
+		return this.commonCount;
+	}
+
+	/**
+	 * Return the index in the older snapshot of a common file.
+	 *
+	 * @param index the number of the common file
+	 * @return the index in the older snapshot
+	 */
+	public int getCommonOlder(int index) {
+		return this.commonOlder[index];
+	}
+
+	/**
+	 * Return the index in the newer snapshot of a common file.
+	 *
+	 * @param index the number of the common file
+	 * @return the index in the newer snapshot
+	 */
+	public int getCommonNewer(int index) {
+		return this.commonNewer[index];
+	}
+
+	/**
+	 * Store a value at the given position, growing the array if needed.
+	 */
+	private static int[] append(int[] array, int position, int value) {
+		if(position == array.length) {
+			array = Arrays.copyOf(array, position * 2);
+		}
+
+		array[position] = value;
+		return array;
+	}
+
+}
@@ -0,0 +1,285 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Stores {@link RepoSnapshot}s on disk so that a later run of
+ * {@link MergeRepo} only needs to hash the files that changed in between.
+ * Each tree gets its own manifest file in the cache folder, named after the
+ * SHA-1 hash of the canonical path of the tree.
+ *
+ * A manifest is a single binary file holding the front-coded paths exactly as
+ * kept in memory by {@link PathIndex}, followed by the sizes, last modified
+ * times and hashes of the files, and ends with a CRC-32 checksum of
+ * everything before it. It is read back with a single read and a handful of
+ * bulk copies, once the checksum matches and every count in it fits in the
+ * file. A manifest that is missing, from another version or damaged is
+ * ignored, and the tree is then hashed in full.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class RepoManifest {
+
+	/**
+	 * Marks the start of a manifest file.
+	 */
+	private static final int MAGIC = 0x4d524d46;
+
+	/**
+	 * Version of the manifest format.
+	 */
+	private static final int VERSION = 2;
+
+	/**
+	 * Length of the checksum at the end of a manifest file.
+	 */
+	private static final int CHECKSUM_LENGTH = 4;
+
+	/**
+	 * Extension of the manifest files.
+	 */
+	private static final String EXTENSION = ".manifest";
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/**
+	 * Return the manifest file of a tree.
+	 *
+	 * @param cacheFolder the folder the manifests are kept in
+	 * @param root the root folder of the tree
+	 * @return the manifest file of the tree
+	 * @throws IOException if the path of the tree cannot be resolved
+	 */
+	public static File fileFor(File cacheFolder, File root) throws IOException {
+		final byte[] hash;
+		try {
+			hash = MessageDigest.getInstance("SHA-1").digest(root.getCanonicalPath().getBytes(UTF_8));
+		} catch(NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-1 is not available", e);
+		}
+
+		char[] name = new char[hash.length * 2];
+		for(int index = 0; index < hash.length; index++) {
+			name[index * 2] = HEX_DIGITS[(hash[index] >> 4) & 0xf];
+			name[index * 2 + 1] = HEX_DIGITS[hash[index] & 0xf];
+		}
+
+		return new File(cacheFolder, new String(name) + EXTENSION);
+	}
+
+	/**
+	 * Load the cached snapshot of a tree.
+	 *
+	 * @param cacheFolder the folder the manifests are kept in
+	 * @param root the root folder of the tree
+	 * @return the cached snapshot, or <code>null</code> if there is no usable
+	 *         manifest for the tree
+	 * @throws IOException if the path of the tree cannot be resolved
+	 */
+	public static RepoSnapshot read(File cacheFolder, File root) throws IOException {
+		final File file = fileFor(cacheFolder, root);
+		if(!file.isFile()) {
+			return null;
+		}
+
+		try {
+			FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			try {
+				if(channel.size() > Integer.MAX_VALUE) {
+					return null;
+				}
+
+				ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+				while(buffer.hasRemaining() && channel.read(buffer) != -1) {
+					// keep reading
+				}
+
+				buffer.flip();
+				if(buffer.remaining() < CHECKSUM_LENGTH) {
+					return null;
+				}
+
+				// nothing is parsed before the whole body is known to be intact
+				final int body = buffer.limit() - CHECKSUM_LENGTH;
+				CRC32 checksum = new CRC32();
+				checksum.update(buffer.array(), 0, body);
+				if(buffer.getInt(body) != (int) checksum.getValue()) {
+					return null;
+				}
+
+				buffer.limit(body);
+				if(buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+					return null;
+				}
+
+				int length = buffer.getInt();
+				if(!fits(buffer, length, 1)) {
+					return null;
+				}
+
+				byte[] rootPath = new byte[length];
+				buffer.get(rootPath);
+				if(!root.getCanonicalPath().equals(new String(rootPath, UTF_8))) {
+					return null;
+				}
+
+				final long scanned = buffer.getLong();
+				final int size = buffer.getInt();
+				if(!fits(buffer, size, 8 + 8 + RepoSnapshot.HASH_LENGTH)) {
+					return null;
+				}
+
+				length = buffer.getInt();
+				if(!fits(buffer, length, 1)) {
+					return null;
+				}
+
+				byte[] data = new byte[length];
+				buffer.get(data);
+
+				length = buffer.getInt();
+				if(!fits(buffer, length, 4)) {
+					return null;
+				}
+
+				int[] restarts = new int[length];
+				buffer.asIntBuffer().get(restarts);
+				buffer.position(buffer.position() + restarts.length * 4);
+
+				long[] sizes = new long[size];
+				buffer.asLongBuffer().get(sizes);
+				buffer.position(buffer.position() + size * 8);
+
+				long[] lastModified = new long[size];
+				buffer.asLongBuffer().get(lastModified);
+				buffer.position(buffer.position() + size * 8);
+
+				byte[] hashes = new byte[size * RepoSnapshot.HASH_LENGTH];
+				buffer.get(hashes);
+
+				if(buffer.hasRemaining() || restarts.length != (size + PathIndex.RESTART_INTERVAL - 1) / PathIndex.RESTART_INTERVAL) {
+					return null;
+				}
+
+				for(int index = 0; index < restarts.length; index++) {
+					if(restarts[index] < 0 || restarts[index] >= data.length || (index > 0 && restarts[index] <= restarts[index - 1])) {
+						return null;
+					}
+				}
+
+				return new RepoSnapshot(root, scanned, new PathIndex(data, restarts, size), sizes, lastModified, hashes);
+			} finally {
+				channel.close();
+			}
+		} catch(BufferUnderflowException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Check that the given number of items of the given width is not negative
+	 * and fits in what is left of the buffer.
+	 */
+	private static boolean fits(ByteBuffer buffer, int count, int width) {
+		return count >= 0 && (long) count * width <= buffer.remaining();
+	}
+
+	/**
+	 * Store the snapshot of a tree, replacing any earlier manifest of it.
+	 *
+	 * @param cacheFolder the folder the manifests are kept in
+	 * @param snapshot the snapshot to store
+	 * @throws IOException if the manifest cannot be written
+	 */
+	public static void write(File cacheFolder, RepoSnapshot snapshot) throws IOException {
+		final File file = fileFor(cacheFolder, snapshot.getRoot());
+		final File temp = new File(cacheFolder, file.getName() + ".tmp");
+
+		final PathIndex paths = snapshot.getPaths();
+		final int size = snapshot.size();
+
+		final CRC32 checksum = new CRC32();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(new FileOutputStream(temp), checksum), 64 * 1024));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+
+			byte[] rootPath = snapshot.getRoot().getCanonicalPath().getBytes(UTF_8);
+			out.writeInt(rootPath.length);
+			out.write(rootPath);
+
+			out.writeLong(snapshot.getScanned());
+			out.writeInt(size);
+
+			out.writeInt(paths.data().length);
+			out.write(paths.data());
+
+			int[] restarts = paths.restarts();
+			out.writeInt(restarts.length);
+			for(int restart : restarts) {
+				out.writeInt(restart);
+			}
+
+			for(int index = 0; index < size; index++) {
+				out.writeLong(snapshot.getSize(index));
+			}
+
+			for(int index = 0; index < size; index++) {
+				out.writeLong(snapshot.getLastModified(index));
+			}
+
+			out.write(snapshot.hashes());
+
+			out.flush();
+			out.writeInt((int) checksum.getValue());
+		} finally {
+			out.close();
+		}
+
+		try {
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch(AtomicMoveNotSupportedException e) {
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+}
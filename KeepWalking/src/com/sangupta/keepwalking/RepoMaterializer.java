@@ -0,0 +1,416 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Writes the merged repository for {@link MergeRepo}: the previous tree with
+ * the removed files deleted and the added and modified files taken from the
+ * newer tree. Files are copied with {@link FileChannel#transferTo(long, long,
+ * java.nio.channels.WritableByteChannel)}, which lets the operating system
+ * move the bytes without passing them through the heap, and each file is
+ * written once.
+ *
+ * How the destination is built depends on the {@link Mode}. A file that is
+ * replaced is always deleted first and written anew, so that a hard link to
+ * the previous tree is broken instead of written through. Symbolic links in
+ * the previous tree are followed, as {@link RepoScanner} does, so the merged
+ * tree holds the files they point to.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class RepoMaterializer {
+
+	/**
+	 * How the merged repository is written.
+	 */
+	public static enum Mode {
+
+		/**
+		 * Create the destination from scratch, copying every file.
+		 */
+		COPY,
+
+		/**
+		 * Create the destination from scratch, hard-linking the files that
+		 * did not change to the previous tree and copying the others. Files
+		 * of <code>.svn</code> and <code>CVS</code> folders are always copied,
+		 * as the SCM client updates them in place. A file that cannot be
+		 * linked is copied instead; linking stops for the rest of the run
+		 * when the trees are on different devices, or when the file system
+		 * refuses two links in a row.
+		 */
+		LINK,
+
+		/**
+		 * Update the destination in place. It must already hold the previous
+		 * tree, for example when it is the previous folder itself or the
+		 * result of an earlier merge; only the removed, added and modified
+		 * files are touched.
+		 */
+		IN_PLACE;
+
+	}
+
+	/**
+	 * How the merged repository is written.
+	 */
+	private final Mode mode;
+
+	/**
+	 * Whether hard links are still being tried.
+	 */
+	private boolean linking;
+
+	/**
+	 * Whether the last hard link failed for a reason other than the file
+	 * itself.
+	 */
+	private boolean linkFailed;
+
+	/**
+	 * Counts the files written, linked and deleted.
+	 */
+	private final MergeMetrics metrics;
+
+	/**
+	 * Where falling back from links to copies is reported, or
+	 * <code>null</code> to print to the console.
+	 */
+	private final ProgressReporter reporter;
+
+	public RepoMaterializer(Mode mode) {
+		this(mode, new MergeMetrics());
+	}
+
+	public RepoMaterializer(Mode mode, MergeMetrics metrics) {
+		this(mode, metrics, null);
+	}
+
+	public RepoMaterializer(Mode mode, MergeMetrics metrics, ProgressReporter reporter) {
+		if(mode == null) {
+			throw new IllegalArgumentException("Mode cannot be null.");
+		}
+
+		if(metrics == null) {
+			throw new IllegalArgumentException("Metrics cannot be null.");
+		}
+
+		this.mode = mode;
+		this.metrics = metrics;
+		this.reporter = reporter;
+		this.linking = mode == Mode.LINK;
+	}
+
+	/**
+	 * Write the merged repository.
+	 *
+	 * @param older the snapshot of the previous tree
+	 * @param newer the snapshot of the newer tree
+	 * @param diff the difference between the two snapshots
+	 * @param modified the paths of the common files that changed
+	 * @param merged the folder to write the merged repository to
+	 * @throws IOException if a file cannot be written
+	 */
+	public void materialize(RepoSnapshot older, RepoSnapshot newer, RepoDiff diff, Collection<String> modified, File merged) throws IOException {
+		if(this.mode != Mode.IN_PLACE) {
+			if(merged.exists() && merged.isDirectory()) {
+				delete(merged.toPath());
+			}
+
+			// write the unchanged files and any SCM metadata
+			copyTree(older, newer, new HashSet<String>(modified), merged);
+		} else {
+			// now remove all files that need to be
+			for(int index = 0; index < diff.getRemovedCount(); index++) {
+				if(Files.deleteIfExists(new File(merged, older.getPath(diff.getRemoved(index))).toPath())) {
+					this.metrics.addFileDeleted();
+				}
+			}
+
+			// now over-write modified files
+			for(String changed : modified) {
+				copy(new File(newer.getRoot(), changed).toPath(), new File(merged, changed).toPath());
+			}
+		}
+
+		// now add all files that are new
+		for(int index = 0; index < diff.getAddedCount(); index++) {
+			String added = newer.getPath(diff.getAdded(index));
+			copy(new File(newer.getRoot(), added).toPath(), new File(merged, added).toPath());
+		}
+	}
+
+	/**
+	 * Return the number of files copied.
+	 *
+	 * @return the number of copied files
+	 */
+	public long getFilesCopied() {
+		return this.metrics.getFilesCopied();
+	}
+
+	/**
+	 * Return the number of files hard-linked to the previous tree.
+	 *
+	 * @return the number of linked files
+	 */
+	public long getFilesLinked() {
+		return this.metrics.getFilesLinked();
+	}
+
+	/**
+	 * Return the number of files deleted from the destination.
+	 *
+	 * @return the number of deleted files
+	 */
+	public long getFilesDeleted() {
+		return this.metrics.getFilesDeleted();
+	}
+
+	/**
+	 * Return the number of bytes copied.
+	 *
+	 * @return the number of copied bytes
+	 */
+	public long getBytesCopied() {
+		return this.metrics.getBytesCopied();
+	}
+
+	/**
+	 * Write the previous tree to the destination, leaving out the removed
+	 * files and taking the modified ones from the newer tree.
+	 */
+	private void copyTree(RepoSnapshot older, final RepoSnapshot newer, final Set<String> modified, File merged) throws IOException {
+		final Path source = older.getRoot().toPath();
+		final Path target = merged.toPath();
+
+		Files.walkFileTree(source, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+
+			/**
+			 * Depth of the SCM metadata folder being copied, zero if none.
+			 */
+			private int metadata;
+
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				if(this.metadata > 0 || (!dir.equals(source) && isMetadata(dir))) {
+					this.metadata++;
+				}
+
+				Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+				if(e != null) {
+					throw e;
+				}
+
+				if(this.metadata > 0) {
+					this.metadata--;
+				}
+
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				if(!attrs.isRegularFile()) {
+					return FileVisitResult.CONTINUE;
+				}
+
+				final String path = source.relativize(file).toString();
+				final Path destination = target.resolve(path);
+				if(this.metadata > 0) {
+					copy(file, destination);
+				} else if(modified.contains(path)) {
+					copy(newer.getRoot().toPath().resolve(path), destination);
+				} else if(newer.indexOf(path) >= 0) {
+					link(file, destination);
+				}
+
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+				if(e instanceof FileSystemLoopException) {
+					return FileVisitResult.CONTINUE;
+				}
+
+				throw e;
+			}
+
+		});
+	}
+
+	/**
+	 * Check if the given folder holds SCM metadata.
+	 */
+	private static boolean isMetadata(Path dir) {
+		String name = dir.getFileName().toString();
+		return ".svn".equals(name) || "CVS".equals(name);
+	}
+
+	/**
+	 * Hard-link a file if links are in use, copy it otherwise.
+	 */
+	private void link(Path source, Path target) throws IOException {
+		if(this.linking) {
+			// a hard link to a symbolic link would be the link itself
+			Path existing = Files.isSymbolicLink(source) ? source.toRealPath() : source;
+
+			try {
+				Files.createLink(target, existing);
+				this.metrics.addFileLinked();
+				this.linkFailed = false;
+				return;
+			} catch(UnsupportedOperationException e) {
+				stopLinking("the file system does not support them");
+			} catch(AccessDeniedException e) {
+				println("Cannot hard-link " + source + ": access denied, copying it instead.");
+			} catch(FileAlreadyExistsException e) {
+				println("Cannot hard-link " + source + ": the destination exists, copying it instead.");
+			} catch(NoSuchFileException e) {
+				println("Cannot hard-link " + source + ": the file no longer exists, copying it instead.");
+			} catch(FileSystemException e) {
+				String reason = e.getReason() == null ? e.toString() : e.getReason();
+				if(reason.toLowerCase().contains("cross-device") || this.linkFailed) {
+					stopLinking(reason);
+				} else {
+					// may be this file only, try linking again with the next one
+					this.linkFailed = true;
+					println("Cannot hard-link " + source + ": " + reason + ", copying it instead.");
+				}
+			}
+		}
+
+		copy(source, target);
+	}
+
+	/**
+	 * Copy all remaining files instead of linking them.
+	 */
+	private void stopLinking(String reason) {
+		this.linking = false;
+		println("Cannot hard-link files to the previous version: " + reason + ", copying them instead.");
+	}
+
+	/**
+	 * Print a line to the reporter, or to the console if there is none.
+	 */
+	private void println(String line) {
+		if(this.reporter != null) {
+			this.reporter.println(line);
+		} else {
+			System.out.println(line);
+		}
+	}
+
+	/**
+	 * Replace the target with a copy of the source, keeping the last
+	 * modified time.
+	 */
+	private void copy(Path source, Path target) throws IOException {
+		Files.deleteIfExists(target);
+
+		Path parent = target.getParent();
+		if(parent != null) {
+			Files.createDirectories(parent);
+		}
+
+		long copied = 0;
+		FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+		try {
+			FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW);
+			try {
+				final long size = in.size();
+				long position = 0;
+				while(position < size) {
+					long transferred = in.transferTo(position, size - position, out);
+					if(transferred <= 0) {
+						// the file was truncated while copying
+						break;
+					}
+
+					position += transferred;
+				}
+
+				copied = position;
+			} finally {
+				out.close();
+			}
+		} finally {
+			in.close();
+		}
+
+		Files.setLastModifiedTime(target, Files.getLastModifiedTime(source));
+		this.metrics.addFileCopied(copied);
+	}
+
+	/**
+	 * Delete a folder with everything in it.
+	 */
+	private static void delete(Path folder) throws IOException {
+		Files.walkFileTree(folder, new SimpleFileVisitor<Path>() {
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				Files.delete(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+				if(e != null) {
+					throw e;
+				}
+
+				Files.delete(dir);
+				return FileVisitResult.CONTINUE;
+			}
+
+		});
+	}
+
+}
@@ -0,0 +1,394 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads repository snapshots for {@link MergeRepo}. Each tree is walked with
+ * {@link Files#walkFileTree(Path, java.nio.file.FileVisitor)}, skipping
+ * <code>.svn</code> and <code>CVS</code> folders, and the size and last
+ * modified time of every file are taken from the attributes the walk already
+ * has. The content of every file is hashed with SHA-1 on a fixed-size pool
+ * of worker threads while the walk goes on, and two trees can be walked at
+ * the same time.
+ *
+ * Symbolic links are followed, as the listing the merge used before did, so
+ * a link to a file is read as the file it points to. Links that point back
+ * into their own parent folders and links whose target is missing are
+ * skipped.
+ *
+ * When an earlier snapshot of the same tree is given, usually one loaded by
+ * {@link RepoManifest}, files whose size and last modified time have not
+ * changed keep their earlier hash and are not read again. Files modified
+ * within {@link #MODIFIED_TIME_SLACK} of the earlier scan are always read,
+ * as they may have changed again without their time changing.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class RepoScanner implements Closeable {
+
+	/**
+	 * Default number of hashing threads.
+	 */
+	public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * How close to the start of an earlier scan a file may have been modified
+	 * before its earlier hash is no longer trusted, in milliseconds. This
+	 * covers the coarse time resolution of some file systems.
+	 */
+	public static final long MODIFIED_TIME_SLACK = 2000;
+
+	/**
+	 * Size of the buffer each hashing thread reads files with.
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The pool the files are hashed on.
+	 */
+	private final ExecutorService hashers;
+
+	/**
+	 * Counts the files found and hashed.
+	 */
+	private volatile MergeMetrics metrics = new MergeMetrics();
+
+	/**
+	 * The digest and read buffer of each hashing thread.
+	 */
+	private final ThreadLocal<Hasher> hasher = new ThreadLocal<Hasher>() {
+
+		@Override
+		protected Hasher initialValue() {
+			return new Hasher();
+		}
+
+	};
+
+	public RepoScanner() {
+		this(DEFAULT_THREADS);
+	}
+
+	public RepoScanner(int threads) {
+		if(threads <= 0) {
+			throw new IllegalArgumentException("Number of threads must be positive.");
+		}
+
+		final AtomicInteger count = new AtomicInteger();
+		this.hashers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "repo-hasher-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+
+		});
+	}
+
+	/**
+	 * Set the metrics to count the files found and hashed in.
+	 *
+	 * @param metrics the metrics of the run
+	 */
+	public void setMetrics(MergeMetrics metrics) {
+		if(metrics == null) {
+			throw new IllegalArgumentException("Metrics cannot be null.");
+		}
+
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Read two trees at the same time, the second one being walked on a
+	 * thread of its own.
+	 *
+	 * @param first the first tree
+	 * @param second the second tree
+	 * @return the snapshots of the two trees, in the same order
+	 * @throws IOException if a tree cannot be read
+	 */
+	public RepoSnapshot[] scan(File first, File second) throws IOException {
+		return scan(first, null, second, null);
+	}
+
+	/**
+	 * Read two trees at the same time, reusing the hashes of files unchanged
+	 * since earlier snapshots.
+	 *
+	 * @param first the first tree
+	 * @param firstEarlier an earlier snapshot of the first tree, or <code>null</code>
+	 * @param second the second tree
+	 * @param secondEarlier an earlier snapshot of the second tree, or <code>null</code>
+	 * @return the snapshots of the two trees, in the same order
+	 * @throws IOException if a tree cannot be read
+	 */
+	public RepoSnapshot[] scan(File first, RepoSnapshot firstEarlier, final File second, final RepoSnapshot secondEarlier) throws IOException {
+		final ExecutorService walker = Executors.newSingleThreadExecutor();
+		try {
+			Future<RepoSnapshot> other = walker.submit(new Callable<RepoSnapshot>() {
+
+				@Override
+				public RepoSnapshot call() throws IOException {
+					return scan(second, secondEarlier);
+				}
+
+			});
+
+			RepoSnapshot snapshot = scan(first, firstEarlier);
+			return new RepoSnapshot[] { snapshot, get(other) };
+		} finally {
+			walker.shutdown();
+		}
+	}
+
+	/**
+	 * Read a single tree.
+	 *
+	 * @param root the root folder of the tree
+	 * @return the snapshot of the tree
+	 * @throws IOException if the tree cannot be read
+	 */
+	public RepoSnapshot scan(File root) throws IOException {
+		return scan(root, (RepoSnapshot) null);
+	}
+
+	/**
+	 * Read a single tree, reusing the hashes of files unchanged since an
+	 * earlier snapshot.
+	 *
+	 * @param root the root folder of the tree
+	 * @param earlier an earlier snapshot of the tree, or <code>null</code>
+	 * @return the snapshot of the tree
+	 * @throws IOException if the tree cannot be read
+	 */
+	public RepoSnapshot scan(File root, final RepoSnapshot earlier) throws IOException {
+		final long scanned = System.currentTimeMillis();
+		final MergeMetrics metrics = this.metrics;
+		final Path rootPath = root.toPath();
+		final List<Entry> entries = new ArrayList<Entry>();
+
+		Files.walkFileTree(rootPath, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+				if(!dir.equals(rootPath)) {
+					String name = dir.getFileName().toString();
+					if(".svn".equals(name) || "CVS".equals(name)) {
+						return FileVisitResult.SKIP_SUBTREE;
+					}
+				}
+
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(final Path file, BasicFileAttributes attrs) {
+				if(attrs.isRegularFile()) {
+					final Entry entry = new Entry();
+					entry.path = PathIndex.encode(rootPath.relativize(file).toString());
+					entry.size = attrs.size();
+					entry.lastModified = attrs.lastModifiedTime().toMillis();
+					entries.add(entry);
+					metrics.addFileScanned();
+
+					if(earlier != null) {
+						int index = earlier.getPaths().indexOf(entry.path);
+						if(index >= 0 && earlier.getSize(index) == entry.size && earlier.getLastModified(index) == entry.lastModified
+								&& entry.lastModified < earlier.getScanned() - MODIFIED_TIME_SLACK) {
+							entry.earlierIndex = index;
+							return FileVisitResult.CONTINUE;
+						}
+					}
+
+					entry.hash = hashers.submit(new Callable<byte[]>() {
+
+						@Override
+						public byte[] call() throws IOException {
+							byte[] hash = hasher.get().hash(file);
+							metrics.addFileHashed(entry.size);
+							return hash;
+						}
+
+					});
+				}
+
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+				if(exc instanceof FileSystemLoopException) {
+					return FileVisitResult.CONTINUE;
+				}
+
+				throw exc;
+			}
+
+		});
+
+		Entry[] sorted = entries.toArray(new Entry[entries.size()]);
+		Arrays.sort(sorted, new Comparator<Entry>() {
+
+			@Override
+			public int compare(Entry first, Entry second) {
+				return PathIndex.compare(first.path, first.path.length, second.path, second.path.length);
+			}
+
+		});
+
+		final int count = sorted.length;
+		final PathIndex.Builder paths = new PathIndex.Builder();
+		final long[] sizes = new long[count];
+		final long[] lastModified = new long[count];
+		final byte[] hashes = new byte[count * RepoSnapshot.HASH_LENGTH];
+		for(int index = 0; index < count; index++) {
+			Entry entry = sorted[index];
+			sorted[index] = null;
+			paths.add(entry.path);
+			sizes[index] = entry.size;
+			lastModified[index] = entry.lastModified;
+			if(entry.hash == null) {
+				earlier.copyHash(entry.earlierIndex, hashes, index * RepoSnapshot.HASH_LENGTH);
+			} else {
+				System.arraycopy(get(entry.hash), 0, hashes, index * RepoSnapshot.HASH_LENGTH, RepoSnapshot.HASH_LENGTH);
+			}
+		}
+
+		return new RepoSnapshot(root, scanned, paths.build(), sizes, lastModified, hashes);
+	}
+
+	/**
+	 * Stop the hashing threads.
+	 */
+	@Override
+	public void close() {
+		this.hashers.shutdown();
+	}
+
+	/**
+	 * Wait for a task, unwrapping any I/O failure.
+	 */
+	private static <T> T get(Future<T> future) throws IOException {
+		try {
+			return future.get();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading the repository", e);
+		} catch(ExecutionException e) {
+			if(e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+
+			throw new IOException("Unable to read the repository", e.getCause());
+		}
+	}
+
+	/**
+	 * A file found by the walk, waiting for its hash.
+	 */
+	private static class Entry {
+
+		byte[] path;
+
+		long size;
+
+		long lastModified;
+
+		/**
+		 * The pending hash, or <code>null</code> if the earlier hash is kept.
+		 */
+		Future<byte[]> hash;
+
+		/**
+		 * Index of the file in the earlier snapshot when its hash is kept.
+		 */
+		int earlierIndex;
+
+	}
+
+	/**
+	 * The SHA-1 digest and read buffer of one hashing thread.
+	 */
+	private static class Hasher {
+
+		private final MessageDigest digest;
+
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+		Hasher() {
+			try {
+				this.digest = MessageDigest.getInstance("SHA-1");
+			} catch(NoSuchAlgorithmException e) {
+				throw new IllegalStateException("SHA-1 is not available", e);
+			}
+		}
+
+		byte[] hash(Path file) throws IOException {
+			FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+			try {
+				this.digest.reset();
+				this.buffer.clear();
+				while(channel.read(this.buffer) != -1) {
+					this.buffer.flip();
+					this.digest.update(this.buffer);
+					this.buffer.clear();
+				}
+
+				return this.digest.digest();
+			} finally {
+				channel.close();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+import java.io.File;
+
+/**
+ * The files of one repository snapshot as found by {@link RepoScanner}:
+ * the relative path, size, last modified time and SHA-1 content hash of
+ * every file, sorted by path. Paths are kept in a {@link PathIndex} and the
+ * rest in parallel arrays.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class RepoSnapshot {
+
+	/**
+	 * Length of a content hash, in bytes.
+	 */
+	public static final int HASH_LENGTH = 20;
+
+	/**
+	 * The folder the snapshot was read from.
+	 */
+	private final File root;
+
+	/**
+	 * Relative paths of the files, sorted.
+	 */
+	private final PathIndex paths;
+
+	/**
+	 * Size of each file, in bytes.
+	 */
+	private final long[] sizes;
+
+	/**
+	 * Last modified time of each file, in milliseconds.
+	 */
+	private final long[] lastModified;
+
+	/**
+	 * The content hashes of all files, one after the other.
+	 */
+	private final byte[] hashes;
+
+	/**
+	 * The time the scan of the tree started, in milliseconds.
+	 */
+	private final long scanned;
+
+	RepoSnapshot(File root, long scanned, PathIndex paths, long[] sizes, long[] lastModified, byte[] hashes) {
+		this.root = root;
+		this.scanned = scanned;
+		this.paths = paths;
+		this.sizes = sizes;
+		this.lastModified = lastModified;
+		this.hashes = hashes;
+	}
+
+	/**
+	 * Return the folder the snapshot was read from.
+	 *
+	 * @return the root folder
+	 */
+	public File getRoot() {
+		return this.root;
+	}
+
+	/**
+	 * Return the time the scan of the tree started. Files modified at or
+	 * after this time may have changed while the scan was running.
+	 *
+	 * @return the time in milliseconds since the epoch
+	 */
+	public long getScanned() {
+		return this.scanned;
+	}
+
+	/**
+	 * Return the number of files in the snapshot.
+	 *
+	 * @return the number of files
+	 */
+	public int size() {
+		return this.paths.size();
+	}
+
+	/**
+	 * Return the path of the file at the given index, relative to the root.
+	 *
+	 * @param index the index of the file
+	 * @return the relative path
+	 */
+	public String getPath(int index) {
+		return this.paths.get(index);
+	}
+
+	/**
+	 * Return the relative paths of all files.
+	 *
+	 * @return the sorted paths
+	 */
+	public PathIndex getPaths() {
+		return this.paths;
+	}
+
+	/**
+	 * Return the size of the file at the given index.
+	 *
+	 * @param index the index of the file
+	 * @return the size in bytes
+	 */
+	public long getSize(int index) {
+		return this.sizes[index];
+	}
+
+	/**
+	 * Return the last modified time of the file at the given index.
+	 *
+	 * @param index the index of the file
+	 * @return the time in milliseconds since the epoch
+	 */
+	public long getLastModified(int index) {
+		return this.lastModified[index];
+	}
+
+	/**
+	 * Return the file at the given index.
+	 *
+	 * @param index the index of the file
+	 * @return the file under the root folder
+	 */
+	public File getFile(int index) {
+		return new File(this.root, this.paths.get(index));
+	}
+
+	/**
+	 * Find the index of the file with the given relative path.
+	 *
+	 * @param path the relative path
+	 * @return the index, or a negative value if there is no such file
+	 */
+	public int indexOf(String path) {
+		return this.paths.indexOf(path);
+	}
+
+	/**
+	 * Copy the content hash of the file at the given index.
+	 *
+	 * @param index the index of the file
+	 * @param target the array to copy the hash to
+	 * @param offset the index in the array to copy the hash to
+	 */
+	void copyHash(int index, byte[] target, int offset) {
+		System.arraycopy(this.hashes, index * HASH_LENGTH, target, offset, HASH_LENGTH);
+	}
+
+	/**
+	 * Return the content hashes of all files, for {@link RepoManifest}.
+	 */
+	byte[] hashes() {
+		return this.hashes;
+	}
+
+	/**
+	 * Check if a file of this snapshot has the same content hash as a file
+	 * of another snapshot.
+	 *
+	 * @param index the index of the file in this snapshot
+	 * @param other the other snapshot
+	 * @param otherIndex the index of the file in the other snapshot
+	 * @return <code>true</code> if the hashes are equal
+	 */
+	public boolean sameHash(int index, RepoSnapshot other, int otherIndex) {
+		final int offset = index * HASH_LENGTH;
+		final int otherOffset = otherIndex * HASH_LENGTH;
+		for(int i = 0; i < HASH_LENGTH; i++) {
+			if(this.hashes[offset + i] != other.hashes[otherOffset + i]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+/**
+ * Base class for all substring search strategies. A searcher is created for a
+ * given needle, does all the pre-processing up front, and can then be used to
+ * look for the needle in any number of haystacks. All implementations return
+ * the same results as <code>String.indexOf()</code>.
+ *
+ * Use {@link #forNeedle(String)} to let the engine pick the best strategy for
+ * the needle at hand.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public abstract class StringSearcher {
+
+	/**
+	 * Needles up to this length are searched using the first character filter.
+	 */
+	static final int SHORT_NEEDLE_LENGTH = 4;
+
+	/**
+	 * Needles of at least this length are considered long enough for the
+	 * Boyer-Moore-Horspool skips to pay off.
+	 */
+	static final int LONG_NEEDLE_LENGTH = 16;
+
+	/**
+	 * Minimum number of distinct characters in a long needle for the bad
+	 * character skips to be effective.
+	 */
+	static final int MIN_DISTINCT_CHARS = 8;
+
+	/**
+	 * The string being searched for.
+	 */
+	protected final String needle;
+
+	/**
+	 * The characters of the needle, kept as an array for faster access.
+	 */
+	protected final char[] pattern;
+
+	protected StringSearcher(String needle) {
+		if(needle == null) {
+			throw new IllegalArgumentException("Needle cannot be null.");
+		}
+
+		this.needle = needle;
+		this.pattern = needle.toCharArray();
+	}
+
+	/**
+	 * Create a searcher for the given needle choosing the strategy based on
+	 * the length and the alphabet of the needle.
+	 *
+	 * @param needle the string to search for
+	 * @return the searcher best suited for the needle
+	 */
+	public static StringSearcher forNeedle(String needle) {
+		if(needle == null) {
+			throw new IllegalArgumentException("Needle cannot be null.");
+		}
+
+		final int length = needle.length();
+		if(length <= SHORT_NEEDLE_LENGTH) {
+			return new FirstCharSearcher(needle);
+		}
+
+		if(length >= LONG_NEEDLE_LENGTH && distinctChars(needle, MIN_DISTINCT_CHARS) >= MIN_DISTINCT_CHARS) {
+			return new HorspoolSearcher(needle);
+		}
+
+		return new TwoWaySearcher(needle);
+	}
+
+	/**
+	 * Find the first occurrence of the needle in the given text.
+	 *
+	 * @param text the text to search in
+	 * @return the index of the first occurrence, or <code>-1</code> if not found
+	 */
+	public int indexOf(CharSequence text) {
+		return indexOf(text, 0, text.length());
+	}
+
+	/**
+	 * Find the first occurrence of the needle in the given text starting at the
+	 * given index.
+	 *
+	 * @param text the text to search in
+	 * @param fromIndex the index to start searching from
+	 * @return the index of the first occurrence, or <code>-1</code> if not found
+	 */
+	public int indexOf(CharSequence text, int fromIndex) {
+		return indexOf(text, fromIndex, text.length());
+	}
+
+	/**
+	 * Find the first occurrence of the needle that lies completely within the
+	 * given range of the text.
+	 *
+	 * @param text the text to search in
+	 * @param fromIndex the index to start searching from, inclusive
+	 * @param toIndex the index where the match must end, exclusive
+	 * @return the index of the first occurrence, or <code>-1</code> if not found
+	 */
+	public int indexOf(CharSequence text, int fromIndex, int toIndex) {
+		if(fromIndex < 0) {
+			fromIndex = 0;
+		}
+
+		if(toIndex > text.length()) {
+			toIndex = text.length();
+		}
+
+		if(pattern.length == 0) {
+			return fromIndex <= toIndex ? fromIndex : toIndex;
+		}
+
+		if(toIndex - fromIndex < pattern.length) {
+			return -1;
+		}
+
+		return search(text, fromIndex, toIndex);
+	}
+
+	/**
+	 * Run the actual search. The range has already been validated and is at
+	 * least as long as the needle, which itself is not empty.
+	 *
+	 * @param text the text to search in
+	 * @param fromIndex the index to start searching from, inclusive
+	 * @param toIndex the index where the match must end, exclusive
+	 * @return the index of the first occurrence, or <code>-1</code> if not found
+	 */
+	protected abstract int search(CharSequence text, int fromIndex, int toIndex);
+
+	/**
+	 * Return the needle this searcher looks for.
+	 *
+	 * @return the needle
+	 */
+	public String getNeedle() {
+		return this.needle;
+	}
+
+	/**
+	 * Check if the needle matches the text at the given position.
+	 *
+	 * @param text the text to search in
+	 * @param position the starting position in the text
+	 * @param from the index in the needle to start comparing from
+	 * @return <code>true</code> if the rest of the needle matches
+	 */
+	protected final boolean matchesAt(CharSequence text, int position, int from) {
+		final char[] pattern = this.pattern;
+		for(int index = from; index < pattern.length; index++) {
+			if(text.charAt(position + index) != pattern[index]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Count the distinct characters in the given string, stopping as soon as
+	 * the given limit is reached.
+	 *
+	 * @param string the string to scan
+	 * @param limit the count after which to stop scanning
+	 * @return the number of distinct characters, capped at the limit
+	 */
+	static int distinctChars(String string, int limit) {
+		boolean[] seen = new boolean[256];
+		int distinct = 0;
+		for(int index = 0; index < string.length() && distinct < limit; index++) {
+			int bucket = string.charAt(index) & 0xFF;
+			if(!seen[bucket]) {
+				seen[bucket] = true;
+				distinct++;
+			}
+		}
+
+		return distinct;
+	}
+
+}
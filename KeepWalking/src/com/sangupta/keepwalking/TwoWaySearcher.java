@@ -0,0 +1,173 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+/**
+ * Crochemore-Perrin Two-Way searcher. Runs in linear time with constant extra
+ * space for any needle, which makes it the general purpose choice and the
+ * safe one for needles with a small alphabet or lots of repetition.
+ *
+ * The needle is split at its critical factorization into a left and a right
+ * half. Each attempt compares the right half left to right and, only if it
+ * matches, the left half right to left. For periodic needles the already
+ * matched prefix is remembered so that no character is compared twice.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class TwoWaySearcher extends StringSearcher {
+
+	/**
+	 * Index of the last character of the left half of the critical
+	 * factorization, may be <code>-1</code>.
+	 */
+	private final int split;
+
+	/**
+	 * The shift to apply after a full match of the right half.
+	 */
+	private final int period;
+
+	/**
+	 * Length of the prefix that is known to match after a shift by the period,
+	 * zero for non-periodic needles.
+	 */
+	private final int memory;
+
+	public TwoWaySearcher(String needle) {
+		super(needle);
+
+		final char[] pattern = this.pattern;
+		final int length = pattern.length;
+
+		// maximal suffix for the natural order
+		int ip = -1, jp = 0, k = 1, p = 1;
+		while(jp + k < length) {
+			char a = pattern[ip + k];
+			char b = pattern[jp + k];
+			if(a == b) {
+				if(k == p) {
+					jp += p;
+					k = 1;
+				} else {
+					k++;
+				}
+			} else if(a > b) {
+				jp += k;
+				k = 1;
+				p = jp - ip;
+			} else {
+				ip = jp++;
+				k = p = 1;
+			}
+		}
+
+		int ms = ip;
+		int p0 = p;
+
+		// maximal suffix for the reversed order
+		ip = -1;
+		jp = 0;
+		k = p = 1;
+		while(jp + k < length) {
+			char a = pattern[ip + k];
+			char b = pattern[jp + k];
+			if(a == b) {
+				if(k == p) {
+					jp += p;
+					k = 1;
+				} else {
+					k++;
+				}
+			} else if(a < b) {
+				jp += k;
+				k = 1;
+				p = jp - ip;
+			} else {
+				ip = jp++;
+				k = p = 1;
+			}
+		}
+
+		if(ip > ms) {
+			ms = ip;
+		} else {
+			p = p0;
+		}
+
+		// check if the needle is periodic
+		boolean periodic = p + ms + 1 <= length;
+		for(int index = 0; periodic && index <= ms; index++) {
+			if(pattern[index] != pattern[index + p]) {
+				periodic = false;
+			}
+		}
+
+		this.split = ms;
+		if(periodic) {
+			this.period = p;
+			this.memory = length - p;
+		} else {
+			this.period = Math.max(ms + 1, length - ms - 1) + 1;
+			this.memory = 0;
+		}
+	}
+
+	@Override
+	protected int search(CharSequence text, int fromIndex, int toIndex) {
+		final char[] pattern = this.pattern;
+		final int length = pattern.length;
+		final int split = this.split;
+		final int limit = toIndex - length;
+
+		int position = fromIndex;
+		int mem = 0;
+		while(position <= limit) {
+			// compare the right half
+			int index = Math.max(split + 1, mem);
+			while(index < length && pattern[index] == text.charAt(position + index)) {
+				index++;
+			}
+
+			if(index < length) {
+				position += index - split;
+				mem = 0;
+				continue;
+			}
+
+			// compare the left half
+			index = split + 1;
+			while(index > mem && pattern[index - 1] == text.charAt(position + index - 1)) {
+				index--;
+			}
+
+			if(index <= mem) {
+				return position;
+			}
+
+			position += this.period;
+			mem = this.memory;
+		}
+
+		return -1;
+	}
+
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ *
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.keepwalking;
+
+/**
+ * An immutable set of ASCII characters that may appear in some part of a URI
+ * without being percent-encoded. Everything outside the set, including all
+ * characters that are not ASCII, is escaped by the encoders that take a set.
+ *
+ * The predefined sets follow RFC 3986; new sets can be made from a string of
+ * characters, or derived from an existing set.
+ *
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public final class UriCharacterSet {
+
+	/**
+	 * Letters, digits and <code>-._~</code>, never escaped anywhere in a URI.
+	 */
+	public static final UriCharacterSet UNRESERVED = of("abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789-._~");
+
+	/**
+	 * The characters left alone by JavaScript's <code>encodeURIComponent</code>,
+	 * same as {@link UriComponentUtils#ALLOWED_CHARS}.
+	 */
+	public static final UriCharacterSet COMPONENT = of(UriComponentUtils.ALLOWED_CHARS);
+
+	/**
+	 * The characters allowed in a path, including the <code>/</code> between
+	 * segments.
+	 */
+	public static final UriCharacterSet PATH = UNRESERVED.with("!$&'()*+,;=:@/");
+
+	/**
+	 * The characters allowed in a single path segment.
+	 */
+	public static final UriCharacterSet PATH_SEGMENT = PATH.without("/");
+
+	/**
+	 * The characters allowed in a query string as a whole.
+	 */
+	public static final UriCharacterSet QUERY = PATH.with("?");
+
+	/**
+	 * The characters allowed in a key or a value of a query string, which
+	 * excludes the separators <code>&amp;</code>, <code>;</code> and
+	 * <code>=</code>, the <code>+</code> that decodes to a space, and the
+	 * <code>?</code> that may start the query.
+	 */
+	public static final UriCharacterSet QUERY_PARAM = QUERY.without("&=+;?");
+
+	/**
+	 * The characters allowed in a fragment.
+	 */
+	public static final UriCharacterSet FRAGMENT = PATH.with("?");
+
+	/**
+	 * Whether each ASCII character is in the set.
+	 */
+	private final boolean[] allowed;
+
+	private UriCharacterSet(boolean[] allowed) {
+		this.allowed = allowed;
+	}
+
+	/**
+	 * Create a set of the given characters.
+	 *
+	 * @param chars the characters in the set, all ASCII
+	 * @return the new set
+	 */
+	public static UriCharacterSet of(String chars) {
+		return new UriCharacterSet(new boolean[128]).with(chars);
+	}
+
+	/**
+	 * Create a set with the characters of this set and the given ones.
+	 *
+	 * @param chars the characters to add, all ASCII
+	 * @return the new set
+	 */
+	public UriCharacterSet with(String chars) {
+		return derive(chars, true);
+	}
+
+	/**
+	 * Create a set with the characters of this set except the given ones.
+	 *
+	 * @param chars the characters to remove, all ASCII
+	 * @return the new set
+	 */
+	public UriCharacterSet without(String chars) {
+		return derive(chars, false);
+	}
+
+	/**
+	 * Check if the given character is in the set.
+	 *
+	 * @param c the character to check
+	 * @return <code>true</code> if it can be left as it is
+	 */
+	public boolean contains(char c) {
+		return c < 0x80 && this.allowed[c];
+	}
+
+	/**
+	 * Return the lookup table of the set, which must not be modified.
+	 *
+	 * @return the table indexed by ASCII character
+	 */
+	boolean[] table() {
+		return this.allowed;
+	}
+
+	private UriCharacterSet derive(String chars, boolean include) {
+		boolean[] table = this.allowed.clone();
+		for(int index = 0; index < chars.length(); index++) {
+			char c = chars.charAt(index);
+			if(c >= 0x80) {
+				throw new IllegalArgumentException("Only ASCII characters can be left unescaped: " + c);
+			}
+
+			table[c] = include;
+		}
+
+		return new UriCharacterSet(table);
+	}
+
+}
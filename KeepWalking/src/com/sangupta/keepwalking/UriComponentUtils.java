@@ -19,7 +19,7 @@
 
 package com.sangupta.keepwalking;
 
-import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 
 /**
  * Java implementation for the encodeUriComponent() and decodeUriComponent() functions
@@ -36,6 +36,43 @@ public class UriComponentUtils {
 	 */
 	public static final String ALLOWED_CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789-_.!~*'()";
 	
+	/**
+	 * Lookup table of the ASCII characters in {@link #ALLOWED_CHARS}.
+	 */
+	static final boolean[] ALLOWED = UriCharacterSet.COMPONENT.table();
+	
+	/**
+	 * Upper case hex digits used in escape sequences.
+	 */
+	static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+	
+	/**
+	 * Code point written in place of a lone surrogate.
+	 */
+	static final int REPLACEMENT_CHARACTER = 0xFFFD;
+	
+	/**
+	 * What the decoder does with malformed escapes and invalid UTF-8.
+	 */
+	public static enum MalformedInputPolicy {
+		
+		/**
+		 * Stop decoding and report where the malformed input is.
+		 */
+		REPORT,
+		
+		/**
+		 * Replace the malformed input with U+FFFD and carry on.
+		 */
+		REPLACE,
+		
+		/**
+		 * Throw an {@link IllegalArgumentException}.
+		 */
+		THROW;
+		
+	}
+	
 	/**
 	 * Command line test.
 	 * 
@@ -55,113 +92,531 @@ public class UriComponentUtils {
 	}
 
 	/**
-	 * Function to convert a given string into URI encoded format.
+	 * Function to convert a given string into URI encoded format. The input
+	 * string itself is returned if nothing in it needs to be escaped.
 	 * 
 	 * @param input the source string
 	 * @return the encoded string
 	 */
 	public static String encodeURIComponent(String input) {
-		if (input == null || input.trim().length() == 0) {
+		return encode(input, UriCharacterSet.COMPONENT);
+	}
+
+	/**
+	 * Function to convert a given string into URI encoded format, leaving
+	 * only the characters of the given set as they are. The input string
+	 * itself is returned if nothing in it needs to be escaped.
+	 * 
+	 * @param input the source string
+	 * @param allowed the characters that are not escaped
+	 * @return the encoded string
+	 */
+	public static String encode(String input, UriCharacterSet allowed) {
+		if (input == null) {
+			return null;
+		}
+
+		final boolean[] table = allowed.table();
+		final int first = firstCharToEscape(input, 0, table);
+		if (first == -1) {
 			return input;
 		}
 
-		int l = input.length();
-		StringBuilder o = new StringBuilder(l * 3);
-		try {
-			for (int i = 0; i < l; i++) {
-				String e = input.substring(i, i + 1);
-				if (ALLOWED_CHARS.indexOf(e) == -1) {
-					byte[] b = e.getBytes("utf-8");
-					o.append(getHex(b));
-					continue;
+		final int length = input.length();
+		StringBuilder builder = new StringBuilder(length + 2 * (length - first) + 16);
+		builder.append(input, 0, first);
+		encode(input, first, table, builder, null, 0, null);
+		return builder.toString();
+	}
+
+	/**
+	 * Function to append the URI encoded form of the given characters to the
+	 * builder, leaving only the characters of the given set as they are.
+	 * 
+	 * @param input the source characters
+	 * @param allowed the characters that are not escaped
+	 * @param builder the builder to append to
+	 */
+	public static void encode(CharSequence input, UriCharacterSet allowed, StringBuilder builder) {
+		final boolean[] table = allowed.table();
+		final int first = firstCharToEscape(input, 0, table);
+		if (first == -1) {
+			builder.append(input);
+			return;
+		}
+
+		builder.append(input, 0, first);
+		encode(input, first, table, builder, null, 0, null);
+	}
+
+	/**
+	 * Function to append the URI encoded form of the given characters to
+	 * the builder.
+	 * 
+	 * @param input the source characters
+	 * @param builder the builder to append to
+	 */
+	public static void encodeURIComponent(CharSequence input, StringBuilder builder) {
+		encode(input, UriCharacterSet.COMPONENT, builder);
+	}
+
+	/**
+	 * Function to write the URI encoded form of the given characters into
+	 * the array. Use {@link #encodedLength(CharSequence)} to find out how
+	 * much room is needed.
+	 * 
+	 * @param input the source characters
+	 * @param buffer the array to write to
+	 * @param offset the index to write the first character at
+	 * @return the number of characters written
+	 * @throws ArrayIndexOutOfBoundsException if the array is too small
+	 */
+	public static int encodeURIComponent(CharSequence input, char[] buffer, int offset) {
+		return encode(input, 0, ALLOWED, null, buffer, offset, null) - offset;
+	}
+
+	/**
+	 * Function to write the URI encoded form of the given characters into
+	 * the buffer as ASCII bytes, starting at its position.
+	 * 
+	 * @param input the source characters
+	 * @param buffer the buffer to write to
+	 * @throws java.nio.BufferOverflowException if the buffer is too small
+	 */
+	public static void encodeURIComponent(CharSequence input, ByteBuffer buffer) {
+		encode(input, 0, ALLOWED, null, null, 0, buffer);
+	}
+
+	/**
+	 * Function to find the number of characters in the URI encoded form of
+	 * the given characters.
+	 * 
+	 * @param input the source characters
+	 * @return the length of the encoded form
+	 */
+	public static int encodedLength(CharSequence input) {
+		final int length = input.length();
+		int encoded = 0;
+		for (int index = 0; index < length; index++) {
+			char c = input.charAt(index);
+			if (c < 0x80) {
+				encoded += ALLOWED[c] ? 1 : 3;
+			} else if (c < 0x800) {
+				encoded += 6;
+			} else if (Character.isHighSurrogate(c) && index + 1 < length && Character.isLowSurrogate(input.charAt(index + 1))) {
+				encoded += 12;
+				index++;
+			} else {
+				encoded += 9;
+			}
+		}
+
+		return encoded;
+	}
+
+	/**
+	 * Function to find the first character that needs to be escaped. A plain
+	 * <code>charAt</code> scan is used on purpose: copying blocks out with
+	 * <code>getChars</code> and testing them as a whole was no faster, see
+	 * {@link UriComponentUtilsBenchmark}.
+	 * 
+	 * @param input the source characters
+	 * @param from the index to start looking at
+	 * @param allowed the table of ASCII characters that are left as they are
+	 * @return the index of the character, or <code>-1</code> if there is none
+	 */
+	static int firstCharToEscape(CharSequence input, int from, boolean[] allowed) {
+		final int length = input.length();
+		for (int index = from; index < length; index++) {
+			char c = input.charAt(index);
+			if (c >= 0x80 || !allowed[c]) {
+				return index;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * The actual encoder, writing to whichever one of the builder, the array
+	 * or the buffer is set. Characters outside the allowed set are encoded
+	 * in UTF-8 and each byte is escaped; a lone surrogate is encoded as the
+	 * replacement character U+FFFD.
+	 * 
+	 * @param input the source characters
+	 * @param from the index of the first character to encode
+	 * @param allowed the table of ASCII characters that are left as they are
+	 * @param builder the builder to append to, or <code>null</code>
+	 * @param array the array to write to, or <code>null</code>
+	 * @param offset the index in the array to write at
+	 * @param buffer the buffer to write to, or <code>null</code>
+	 * @return the index in the array after the last character written
+	 */
+	private static int encode(CharSequence input, int from, boolean[] allowed, StringBuilder builder, char[] array, int offset, ByteBuffer buffer) {
+		final int length = input.length();
+		int position = offset;
+		for (int index = from; index < length; index++) {
+			char c = input.charAt(index);
+			if (c < 0x80) {
+				if (allowed[c]) {
+					// copy the whole run of characters that need no escaping
+					int end = firstCharToEscape(input, index + 1, allowed);
+					if (end == -1) {
+						end = length;
+					}
+
+					position = putRun(input, index, end, builder, array, position, buffer);
+					index = end - 1;
+				} else {
+					position = putEscaped(builder, array, position, buffer, c);
 				}
-				o.append(e);
+				continue;
 			}
-			return o.toString();
-		} catch (UnsupportedEncodingException e) {
-			e.printStackTrace();
+
+			if (c < 0x800) {
+				position = putEscaped(builder, array, position, buffer, 0xC0 | (c >> 6));
+				position = putEscaped(builder, array, position, buffer, 0x80 | (c & 0x3F));
+				continue;
+			}
+
+			int codePoint = c;
+			if (Character.isSurrogate(c)) {
+				if (Character.isHighSurrogate(c) && index + 1 < length && Character.isLowSurrogate(input.charAt(index + 1))) {
+					codePoint = Character.toCodePoint(c, input.charAt(++index));
+				} else {
+					codePoint = REPLACEMENT_CHARACTER;
+				}
+			}
+
+			if (codePoint < 0x10000) {
+				position = putEscaped(builder, array, position, buffer, 0xE0 | (codePoint >> 12));
+			} else {
+				position = putEscaped(builder, array, position, buffer, 0xF0 | (codePoint >> 18));
+				position = putEscaped(builder, array, position, buffer, 0x80 | ((codePoint >> 12) & 0x3F));
+			}
+
+			position = putEscaped(builder, array, position, buffer, 0x80 | ((codePoint >> 6) & 0x3F));
+			position = putEscaped(builder, array, position, buffer, 0x80 | (codePoint & 0x3F));
 		}
-		return input;
+
+		return position;
+	}
+
+	/**
+	 * Write the escape sequence for the given byte.
+	 * 
+	 * @return the index in the array after the escape sequence
+	 */
+	private static int putEscaped(StringBuilder builder, char[] array, int position, ByteBuffer buffer, int b) {
+		position = put(builder, array, position, buffer, '%');
+		position = put(builder, array, position, buffer, HEX_DIGITS[b >> 4]);
+		return put(builder, array, position, buffer, HEX_DIGITS[b & 0xF]);
 	}
 
 	/**
-	 * Function to give a HEX representation of the byte array.
+	 * Write a run of ASCII characters from the input in one go.
 	 * 
-	 * @param bytes the source byte array
-	 * @return the HEX coded string representing the byte array
+	 * @return the index in the array after the run
 	 */
-	private static String getHex(byte bytes[]) {
-		StringBuilder o = new StringBuilder(bytes.length * 3);
-		for (int i = 0; i < bytes.length; i++) {
-			int n = (int) bytes[i] & 0xff;
-			o.append("%");
-			if (n < 0x10) {
-				o.append("0");
+	private static int putRun(CharSequence input, int start, int end, StringBuilder builder, char[] array, int position, ByteBuffer buffer) {
+		if (builder != null) {
+			builder.append(input, start, end);
+		} else if (array != null) {
+			if (input instanceof String) {
+				((String) input).getChars(start, end, array, position);
+			} else {
+				for (int index = start; index < end; index++) {
+					array[position + index - start] = input.charAt(index);
+				}
+			}
+		} else {
+			for (int index = start; index < end; index++) {
+				buffer.put((byte) input.charAt(index));
 			}
-			o.append(Long.toString(n, 16).toUpperCase());
 		}
-		return o.toString();
+
+		return position + end - start;
 	}
 
 	/**
-	 * Function to decode a given string from URI encoded format.
+	 * Write a single ASCII character.
+	 * 
+	 * @return the index in the array after the character
+	 */
+	private static int put(StringBuilder builder, char[] array, int position, ByteBuffer buffer, char c) {
+		if (builder != null) {
+			builder.append(c);
+		} else if (array != null) {
+			array[position] = c;
+		} else {
+			buffer.put((byte) c);
+		}
+
+		return position + 1;
+	}
+
+	/**
+	 * Function to decode a given string from URI encoded format. Malformed
+	 * escapes and invalid UTF-8 sequences are replaced by U+FFFD.
 	 * 
 	 * @param encodedURI the encoded string component
 	 * @return the decoded string
 	 */
 	public static String decodeURIComponent(String encodedURI) {
-		char actualChar;
+		return decodeURIComponent(encodedURI, MalformedInputPolicy.REPLACE);
+	}
+
+	/**
+	 * Function to decode a given string from URI encoded format, handling
+	 * malformed input as per the given policy. The input string itself is
+	 * returned if it has nothing to decode.
+	 * 
+	 * @param encodedURI the encoded string component
+	 * @param policy what to do with malformed input
+	 * @return the decoded string, or <code>null</code> if the input is
+	 *         malformed and the policy is {@link MalformedInputPolicy#REPORT}
+	 * @throws IllegalArgumentException if the input is malformed and the
+	 *         policy is {@link MalformedInputPolicy#THROW}
+	 */
+	public static String decodeURIComponent(String encodedURI, MalformedInputPolicy policy) {
+		if (encodedURI == null) {
+			return null;
+		}
+
+		final int first = firstCharToDecode(encodedURI, 0);
+		if (first == -1) {
+			return encodedURI;
+		}
+
+		StringBuilder builder = new StringBuilder(encodedURI.length());
+		builder.append(encodedURI, 0, first);
+		if (decode(encodedURI, first, builder, policy) != -1) {
+			return null;
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Function to append the decoded form of the given URI encoded
+	 * characters to the builder.
+	 * 
+	 * @param encoded the encoded characters
+	 * @param builder the builder to append to
+	 * @param policy what to do with malformed input
+	 * @return <code>-1</code> if all of the input was decoded, else the index
+	 *         of the malformed input where decoding stopped, for the
+	 *         {@link MalformedInputPolicy#REPORT} policy
+	 * @throws IllegalArgumentException if the input is malformed and the
+	 *         policy is {@link MalformedInputPolicy#THROW}
+	 */
+	public static int decodeURIComponent(CharSequence encoded, StringBuilder builder, MalformedInputPolicy policy) {
+		final int first = firstCharToDecode(encoded, 0);
+		if (first == -1) {
+			builder.append(encoded);
+			return -1;
+		}
+
+		builder.append(encoded, 0, first);
+		return decode(encoded, first, builder, policy);
+	}
+
+	/**
+	 * Function to find the first character that is an escape or a plus sign.
+	 * 
+	 * @param input the encoded characters
+	 * @param from the index to start looking at
+	 * @return the index of the character, or <code>-1</code> if there is none
+	 */
+	static int firstCharToDecode(CharSequence input, int from) {
+		final int length = input.length();
+		for (int index = from; index < length; index++) {
+			char c = input.charAt(index);
+			if (c == '%' || c == '+') {
+				return index;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * The actual decoder. Escapes and plus signs are turned into bytes, which
+	 * are run through a UTF-8 state machine that only accepts the shortest
+	 * form of each code point, no surrogates and nothing beyond U+10FFFF.
+	 * Characters that are neither escapes nor ASCII are copied as they are.
+	 * 
+	 * A malformed escape, or an invalid or incomplete UTF-8 sequence, is
+	 * replaced by a single U+FFFD when replacing, following the Unicode
+	 * practice of one replacement character per maximal invalid subpart.
+	 * 
+	 * @param input the encoded characters
+	 * @param from the index of the first character to decode
+	 * @param builder the builder to append to
+	 * @param policy what to do with malformed input
+	 * @return <code>-1</code> on success, else the index of the malformed input
+	 */
+	private static int decode(CharSequence input, int from, StringBuilder builder, MalformedInputPolicy policy) {
+		final int length = input.length();
 
-		StringBuffer buffer = new StringBuffer();
+		// the state of the UTF-8 sequence being decoded
+		int needed = 0;
+		int codePoint = 0;
+		int lower = 0x80;
+		int upper = 0xBF;
+		int sequenceStart = 0;
 
-		int bytePattern, sumb = 0;
+		int index = from;
+		while (index < length) {
+			final char c = input.charAt(index);
+			final int b;
+			final int next;
+			if (c == '%') {
+				int high = index + 2 < length ? hexValue(input.charAt(index + 1)) : -1;
+				int low = high != -1 ? hexValue(input.charAt(index + 2)) : -1;
+				if (low == -1) {
+					if (needed > 0) {
+						if (malformed(input, sequenceStart, builder, policy)) {
+							return sequenceStart;
+						}
 
-		for (int i = 0, more = -1; i < encodedURI.length(); i++) {
-			actualChar = encodedURI.charAt(i);
+						needed = 0;
+					}
 
-			switch (actualChar) {
-				case '%': {
-					actualChar = encodedURI.charAt(++i);
-					int hb = (Character.isDigit(actualChar) ? actualChar - '0' : 10 + Character.toLowerCase(actualChar) - 'a') & 0xF;
-					actualChar = encodedURI.charAt(++i);
-					int lb = (Character.isDigit(actualChar) ? actualChar - '0' : 10 + Character.toLowerCase(actualChar) - 'a') & 0xF;
-					bytePattern = (hb << 4) | lb;
-					break;
+					if (malformed(input, index, builder, policy)) {
+						return index;
+					}
+
+					index++;
+					continue;
 				}
 
-				case '+': {
-					bytePattern = ' ';
-					break;
+				b = (high << 4) | low;
+				next = index + 3;
+			} else if (c == '+') {
+				b = ' ';
+				next = index + 1;
+			} else if (c < 0x80) {
+				b = c;
+				next = index + 1;
+			} else {
+				// not part of an escape, so any pending sequence is cut short
+				if (needed > 0) {
+					if (malformed(input, sequenceStart, builder, policy)) {
+						return sequenceStart;
+					}
+
+					needed = 0;
 				}
 
-				default: {
-					bytePattern = actualChar;
+				builder.append(c);
+				index++;
+				continue;
+			}
+
+			if (needed > 0) {
+				if (b < lower || b > upper) {
+					// process the same byte again as the start of a sequence
+					if (malformed(input, sequenceStart, builder, policy)) {
+						return sequenceStart;
+					}
+
+					needed = 0;
+					continue;
 				}
+
+				codePoint = (codePoint << 6) | (b & 0x3F);
+				lower = 0x80;
+				upper = 0xBF;
+				if (--needed == 0) {
+					builder.appendCodePoint(codePoint);
+				}
+
+				index = next;
+				continue;
 			}
 
-			if ((bytePattern & 0xc0) == 0x80) { // 10xxxxxx
-				sumb = (sumb << 6) | (bytePattern & 0x3f);
-				if (--more == 0)
-					buffer.append((char) sumb);
-			} else if ((bytePattern & 0x80) == 0x00) { // 0xxxxxxx
-				buffer.append((char) bytePattern);
-			} else if ((bytePattern & 0xe0) == 0xc0) { // 110xxxxx
-				sumb = bytePattern & 0x1f;
-				more = 1;
-			} else if ((bytePattern & 0xf0) == 0xe0) { // 1110xxxx
-				sumb = bytePattern & 0x0f;
-				more = 2;
-			} else if ((bytePattern & 0xf8) == 0xf0) { // 11110xxx
-				sumb = bytePattern & 0x07;
-				more = 3;
-			} else if ((bytePattern & 0xfc) == 0xf8) { // 111110xx
-				sumb = bytePattern & 0x03;
-				more = 4;
-			} else { // 1111110x
-				sumb = bytePattern & 0x01;
-				more = 5;
+			lower = 0x80;
+			upper = 0xBF;
+			if (b < 0x80) {
+				builder.append((char) b);
+			} else if (b >= 0xC2 && b <= 0xDF) {
+				needed = 1;
+				codePoint = b & 0x1F;
+			} else if (b >= 0xE0 && b <= 0xEF) {
+				needed = 2;
+				codePoint = b & 0x0F;
+				if (b == 0xE0) {
+					lower = 0xA0;
+				} else if (b == 0xED) {
+					upper = 0x9F;
+				}
+			} else if (b >= 0xF0 && b <= 0xF4) {
+				needed = 3;
+				codePoint = b & 0x07;
+				if (b == 0xF0) {
+					lower = 0x90;
+				} else if (b == 0xF4) {
+					upper = 0x8F;
+				}
+			} else if (malformed(input, index, builder, policy)) {
+				return index;
 			}
+
+			sequenceStart = index;
+			index = next;
+		}
+
+		if (needed > 0 && malformed(input, sequenceStart, builder, policy)) {
+			return sequenceStart;
 		}
-		return buffer.toString();
+
+		return -1;
+	}
+
+	/**
+	 * Handle malformed input at the given index as per the policy.
+	 * 
+	 * @param input the encoded characters
+	 * @param index the index of the malformed input
+	 * @param builder the builder to append the replacement character to
+	 * @param policy what to do with malformed input
+	 * @return <code>true</code> if decoding should stop
+	 * @throws IllegalArgumentException for the {@link MalformedInputPolicy#THROW} policy
+	 */
+	private static boolean malformed(CharSequence input, int index, StringBuilder builder, MalformedInputPolicy policy) {
+		switch (policy) {
+			case REPLACE:
+				builder.append((char) REPLACEMENT_CHARACTER);
+				return false;
+
+			case THROW:
+				throw new IllegalArgumentException("Malformed URI component at index " + index + ": " + input);
+
+			default:
+				return true;
+		}
+	}
+
+	/**
+	 * Return the value of the given hex digit.
+	 * 
+	 * @param c the character
+	 * @return the value of the digit, or <code>-1</code> if it is not a hex digit
+	 */
+	static int hexValue(char c) {
+		if (c >= '0' && c <= '9') {
+			return c - '0';
+		}
+
+		if (c >= 'A' && c <= 'F') {
+			return c - 'A' + 10;
+		}
+
+		if (c >= 'a' && c <= 'f') {
+			return c - 'a' + 10;
+		}
+
+		return -1;
 	}
 }
@@ -0,0 +1,234 @@
+/**
+ * Copyright (C) 2026, Sandeep Gupta
+ * http://www.sangupta.com
+ * 
+ * The file is licensed under the the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * 
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sangupta.keepwalking;
+
+import java.util.Random;
+
+/**
+ * Compares the plain <code>charAt</code> scan of
+ * {@link UriComponentUtils#firstCharToEscape(CharSequence, int, boolean[])}
+ * against block scans that copy the string into a reusable array with
+ * {@link String#getChars(int, int, char[], int)} and test a whole block at
+ * once: through the lookup table, through a branch-free 128-bit bitmap, and
+ * through a SWAR check on four packed chars before the bitmap.
+ * 
+ * Every variant is first checked to return the same index as the plain scan.
+ * The inputs are mostly long runs of unescaped characters, which is where a
+ * block scan should help the most. On Java 8 the table block scan came out
+ * about 10% ahead and the other two behind; on Java 17, where
+ * <code>charAt</code> reads a compact Latin-1 string directly, the plain
+ * scan was ahead of all three by 40% or more. That is why the encoder keeps
+ * the plain scan.
+ * 
+ * @author Sandeep Gupta <a href="mailto:sangupta@gmail.com">[email]</a>
+ * @version 1.0
+ * @since 18 Oct 2026
+ */
+public class UriComponentUtilsBenchmark {
+	
+	private static final int COUNT = 2000;
+	
+	private static final int REPEAT = 50;
+	
+	private static final int ROUNDS = 10;
+	
+	private static final int BLOCK = 32;
+	
+	private static final boolean[] ALLOWED = UriComponentUtils.ALLOWED;
+	
+	private static final long LOW;
+	
+	private static final long HIGH;
+	
+	static {
+		long low = 0, high = 0;
+		for(int c = 0; c < 128; c++) {
+			if(ALLOWED[c]) {
+				if(c < 64) {
+					low |= 1L << c;
+				} else {
+					high |= 1L << c;
+				}
+			}
+		}
+		
+		LOW = low;
+		HIGH = high;
+	}
+	
+	/**
+	 * Command line entry point.
+	 * 
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		Random random = new Random(42);
+		
+		String[] inputs = new String[COUNT];
+		for(int index = 0; index < COUNT; index++) {
+			int length = 50 + random.nextInt(2000);
+			StringBuilder builder = new StringBuilder(length);
+			for(int position = 0; position < length; position++) {
+				builder.append(UriComponentUtils.ALLOWED_CHARS.charAt(random.nextInt(UriComponentUtils.ALLOWED_CHARS.length())));
+			}
+			
+			if(random.nextInt(4) == 0) {
+				builder.setCharAt(random.nextInt(length), random.nextBoolean() ? ' ' : '\u00e9');
+			}
+			
+			inputs[index] = builder.toString();
+		}
+		
+		char[] block = new char[BLOCK];
+		for(String input : inputs) {
+			for(int from = 0; from < input.length(); from += 37) {
+				int expected = UriComponentUtils.firstCharToEscape(input, from, ALLOWED);
+				if(tableScan(input, from, block) != expected || bitmapScan(input, from, block) != expected || swarScan(input, from, block) != expected) {
+					throw new IllegalStateException("Scans disagree at " + from + " of: " + input);
+				}
+			}
+		}
+		
+		for(int round = 0; round < ROUNDS; round++) {
+			long sum = 0;
+			
+			long start = System.nanoTime();
+			for(int repeat = 0; repeat < REPEAT; repeat++) {
+				for(String input : inputs) {
+					sum += UriComponentUtils.firstCharToEscape(input, 0, ALLOWED);
+				}
+			}
+			long plain = System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			for(int repeat = 0; repeat < REPEAT; repeat++) {
+				for(String input : inputs) {
+					sum -= tableScan(input, 0, block);
+				}
+			}
+			long table = System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			for(int repeat = 0; repeat < REPEAT; repeat++) {
+				for(String input : inputs) {
+					sum += bitmapScan(input, 0, block);
+				}
+			}
+			long bitmap = System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			for(int repeat = 0; repeat < REPEAT; repeat++) {
+				for(String input : inputs) {
+					sum -= swarScan(input, 0, block);
+				}
+			}
+			long swar = System.nanoTime() - start;
+			
+			if(sum != 0) {
+				throw new IllegalStateException("Scans disagree.");
+			}
+			
+			System.out.println("Round " + (round + 1) + ": "
+					+ "charAt " + millis(plain) + " ms, getChars table " + millis(table) + " ms, "
+					+ "getChars bitmap " + millis(bitmap) + " ms, getChars SWAR " + millis(swar) + " ms");
+		}
+	}
+	
+	/**
+	 * Looks each char of the block up in the table, stopping at the first
+	 * one to escape.
+	 */
+	static int tableScan(String input, int from, char[] block) {
+		final int length = input.length();
+		int index = from;
+		for(; index + BLOCK <= length; index += BLOCK) {
+			input.getChars(index, index + BLOCK, block, 0);
+			for(int offset = 0; offset < BLOCK; offset++) {
+				char c = block[offset];
+				if(c >= 0x80 || !ALLOWED[c]) {
+					return index + offset;
+				}
+			}
+		}
+		
+		return UriComponentUtils.firstCharToEscape(input, index, ALLOWED);
+	}
+	
+	/**
+	 * Ors together a miss bit for every char of the block without branching,
+	 * and leaves finding the exact index to the plain scan.
+	 */
+	static int bitmapScan(String input, int from, char[] block) {
+		final int length = input.length();
+		int index = from;
+		for(; index + BLOCK <= length; index += BLOCK) {
+			input.getChars(index, index + BLOCK, block, 0);
+			long miss = 0;
+			for(int offset = 0; offset < BLOCK; offset++) {
+				char c = block[offset];
+				long bits = (c & 64) == 0 ? LOW : HIGH;
+				miss |= (c >>> 7) | (~(bits >>> c) & 1);
+			}
+			
+			if(miss != 0) {
+				break;
+			}
+		}
+		
+		return UriComponentUtils.firstCharToEscape(input, index, ALLOWED);
+	}
+	
+	/**
+	 * Packs four chars into a long to rule out anything above ASCII, then
+	 * checks the block against the bitmap.
+	 */
+	static int swarScan(String input, int from, char[] block) {
+		final int length = input.length();
+		int index = from;
+		for(; index + BLOCK <= length; index += BLOCK) {
+			input.getChars(index, index + BLOCK, block, 0);
+			long packed = 0;
+			for(int offset = 0; offset < BLOCK; offset += 4) {
+				packed |= block[offset] | (long) block[offset + 1] << 16 | (long) block[offset + 2] << 32 | (long) block[offset + 3] << 48;
+			}
+			
+			if((packed & 0xff80ff80ff80ff80L) != 0) {
+				break;
+			}
+			
+			long miss = 0;
+			for(int offset = 0; offset < BLOCK; offset++) {
+				char c = block[offset];
+				long bits = (c & 64) == 0 ? LOW : HIGH;
+				miss |= ~(bits >>> c) & 1;
+			}
+			
+			if(miss != 0) {
+				break;
+			}
+		}
+		
+		return UriComponentUtils.firstCharToEscape(input, index, ALLOWED);
+	}
+	
+	private static long millis(long nanos) {
+		return nanos / 1000000;
+	}
+	
+}